@@ -0,0 +1,130 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Decides whether a changed file can affect a Coverity analysis, by its extension or, for build files, by its name.
+ */
+public class AnalyzableSourceClassifier {
+    public static final String ANY_FILE = "*";
+    private static final String BUILD_CONFIGURATION = "Build configuration";
+    private static final Map<String, String> DEFAULT_LANGUAGES_BY_EXTENSION = new HashMap<>();
+    private static final Map<String, String> LANGUAGES_BY_FILE_NAME = new HashMap<>();
+
+    static {
+        register("C/C++", "c", "cc", "cp", "cpp", "cxx", "c++", "h", "hh", "hp", "hpp", "hxx", "h++", "inl", "ipp", "tcc", "tpp", "cu", "cuh");
+        register("Objective-C", "m", "mm");
+        register("Java", "java", "jsp", "jspf", "jspx", "tag", "tagx");
+        register("C#", "cs", "cshtml", "razor", "aspx", "ascx", "asax", "master");
+        register("Visual Basic", "vb");
+        register("JavaScript/TypeScript", "js", "jsx", "mjs", "cjs", "ts", "tsx", "vue");
+        register("Python", "py", "pyw");
+        register("Ruby", "rb", "erb");
+        register("PHP", "php", "phtml", "inc");
+        register("Go", "go");
+        register("Kotlin", "kt", "kts");
+        register("Scala", "scala");
+        register("Swift", "swift");
+        register("Fortran", "f", "for", "f77", "f90", "f95", "f03", "f08");
+        register("HTML", "html", "htm", "xhtml");
+        // Framework configuration that the analysis of Java, C# and web applications reads
+        register("Configuration", "xml", "config", "properties");
+        register(BUILD_CONFIGURATION, "csproj", "vbproj", "vcxproj", "sln", "props", "targets", "gradle", "cmake", "mk", "mak", "bazel", "bzl");
+
+        for (String buildFileName : Arrays.asList("makefile", "gnumakefile", "cmakelists.txt", "pom.xml", "build.xml", "package.json", "package-lock.json", "yarn.lock", "go.mod", "go.sum", "gemfile",
+            "requirements.txt", "setup.py", "build", "workspace")) {
+            LANGUAGES_BY_FILE_NAME.put(buildFileName, BUILD_CONFIGURATION);
+        }
+    }
+
+    private final Map<String, String> languagesByExtension;
+    private final boolean anyFile;
+
+    private AnalyzableSourceClassifier(Map<String, String> languagesByExtension, boolean anyFile) {
+        this.languagesByExtension = languagesByExtension;
+        this.anyFile = anyFile;
+    }
+
+    public static AnalyzableSourceClassifier createDefaultClassifier() {
+        return new AnalyzableSourceClassifier(DEFAULT_LANGUAGES_BY_EXTENSION, false);
+    }
+
+    /**
+     * Provide a comma-separated list of extensions to replace the default ones with, or * to treat every file as analyzable. A blank list keeps the defaults.
+     */
+    public static AnalyzableSourceClassifier fromExtensions(String analyzableExtensions) {
+        if (StringUtils.isBlank(analyzableExtensions)) {
+            return createDefaultClassifier();
+        }
+
+        Set<String> extensions = new HashSet<>();
+        for (String extension : analyzableExtensions.split(",")) {
+            extensions.add(StringUtils.removeStart(StringUtils.lowerCase(StringUtils.trimToEmpty(extension)), "."));
+        }
+        if (extensions.contains(ANY_FILE)) {
+            return new AnalyzableSourceClassifier(Collections.emptyMap(), true);
+        }
+
+        Map<String, String> languagesByExtension = new HashMap<>();
+        for (String extension : extensions) {
+            if (StringUtils.isNotBlank(extension)) {
+                languagesByExtension.put(extension, DEFAULT_LANGUAGES_BY_EXTENSION.getOrDefault(extension, "." + extension));
+            }
+        }
+        return new AnalyzableSourceClassifier(languagesByExtension, false);
+    }
+
+    /**
+     * The language or kind of build input the file is, if it can affect the analysis.
+     */
+    public Optional<String> classify(String path) {
+        if (anyFile) {
+            return Optional.of("Any file");
+        }
+
+        String fileName = StringUtils.lowerCase(FilenameUtils.getName(FilenameUtils.separatorsToUnix(path)));
+        String buildInput = LANGUAGES_BY_FILE_NAME.get(fileName);
+        if (buildInput != null) {
+            return Optional.of(buildInput);
+        }
+        return Optional.ofNullable(languagesByExtension.get(FilenameUtils.getExtension(fileName)));
+    }
+
+    private static void register(String language, String... extensions) {
+        for (String extension : extensions) {
+            DEFAULT_LANGUAGES_BY_EXTENSION.put(extension, language);
+        }
+    }
+
+}
@@ -45,6 +45,11 @@ public class CoverityJenkinsIntLogger extends JenkinsIntLogger implements Serial
         return new CoverityJenkinsIntLogger(jenkinsLogger, logLevel);
     }
 
+    // Logs at the same level to another listener, e.g. to hold output back until it can be printed in order
+    public CoverityJenkinsIntLogger withTaskListener(TaskListener jenkinsTaskListener) {
+        return new CoverityJenkinsIntLogger(jenkinsTaskListener, getLogLevel());
+    }
+
     public void logInitializationMessage(JenkinsVersionHelper jenkinsVersionHelper) {
         String versionString = jenkinsVersionHelper.getPluginVersion("synopsys-coverity")
                                    .map(version -> String.format("Running Synopsys Coverity version: %s", version))
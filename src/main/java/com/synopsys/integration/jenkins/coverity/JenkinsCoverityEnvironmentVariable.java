@@ -34,7 +34,11 @@ public enum JenkinsCoverityEnvironmentVariable implements SynopsysEnvironmentVar
     COVERITY_STREAM("COV_STREAM"),
     COVERITY_VIEW("COV_VIEW"),
     COVERITY_TOOL_HOME("COVERITY_TOOL_HOME"),
-    COVERITY_INTERMEDIATE_DIRECTORY("COV_DIR");
+    COVERITY_INTERMEDIATE_DIRECTORY("COV_DIR"),
+    COVERITY_SNAPSHOT_ID("COV_SNAPSHOT_ID"),
+    COVERITY_ANALYSIS_WORKERS("COV_ANALYSIS_WORKERS"),
+    COVERITY_TRANSLATION_WORKERS("COV_TRANSLATION_WORKERS"),
+    COVERITY_ANALYSIS_TYPE("COV_ANALYSIS_TYPE");
 
     private final String name;
 
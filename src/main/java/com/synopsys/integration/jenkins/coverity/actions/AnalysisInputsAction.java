@@ -0,0 +1,41 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.actions;
+
+import hudson.model.InvisibleAction;
+
+/**
+ * Records what the analysis of a build was computed from, so that a later build of the same inputs can reuse its snapshot instead of analyzing again.
+ */
+public class AnalysisInputsAction extends InvisibleAction {
+    private final String analysisKey;
+
+    public AnalysisInputsAction(String analysisKey) {
+        this.analysisKey = analysisKey;
+    }
+
+    public String getAnalysisKey() {
+        return analysisKey;
+    }
+
+}
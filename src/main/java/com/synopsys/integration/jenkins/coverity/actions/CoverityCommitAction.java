@@ -0,0 +1,102 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.actions;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+
+import hudson.EnvVars;
+import hudson.model.AbstractBuild;
+import hudson.model.EnvironmentContributingAction;
+
+/**
+ * Records the snapshot a build committed, and what the Coverity tools reported about it, so that later build steps can refer to the exact snapshot through $COV_SNAPSHOT_ID.
+ */
+public class CoverityCommitAction implements EnvironmentContributingAction {
+    private final String streamName;
+    private final long snapshotId;
+    private final Integer defectOccurrences;
+    private final LinkedHashMap<String, String> timings;
+    private final boolean configuredStream;
+
+    public CoverityCommitAction(String streamName, boolean configuredStream, long snapshotId, Integer defectOccurrences, Map<String, String> timings) {
+        this.streamName = streamName;
+        this.configuredStream = configuredStream;
+        this.snapshotId = snapshotId;
+        this.defectOccurrences = defectOccurrences;
+        this.timings = new LinkedHashMap<>(timings);
+    }
+
+    public String getStreamName() {
+        return streamName;
+    }
+
+    public boolean isConfiguredStream() {
+        return configuredStream;
+    }
+
+    public long getSnapshotId() {
+        return snapshotId;
+    }
+
+    @CheckForNull
+    public Integer getDefectOccurrences() {
+        return defectOccurrences;
+    }
+
+    public Map<String, String> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    @Override
+    public void buildEnvVars(AbstractBuild<?, ?> build, EnvVars env) {
+        // Commits of the same analysis to additional streams are recorded too, but only the configured stream's snapshot is exported
+        if (configuredStream) {
+            env.put(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString(), String.valueOf(snapshotId));
+        }
+    }
+
+    @CheckForNull
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @CheckForNull
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @CheckForNull
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+
+}
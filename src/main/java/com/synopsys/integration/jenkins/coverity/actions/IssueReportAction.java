@@ -35,6 +35,14 @@ public class IssueReportAction implements Action {
         this.cimViewUrl = cimViewUrl;
     }
 
+    public int getDefectCount() {
+        return defectCount;
+    }
+
+    public String getCimViewUrl() {
+        return cimViewUrl;
+    }
+
     @CheckForNull
     @Override
     public String getIconFileName() {
@@ -22,10 +22,14 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions;
 
+import javax.annotation.Nullable;
+
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.StaplerRequest;
 
 import com.synopsys.integration.jenkins.annotations.HelpMarkdown;
+import com.synopsys.integration.jenkins.coverity.AnalyzableSourceClassifier;
 import com.synopsys.integration.jenkins.coverity.ChangeSetFilter;
 
 import hudson.Extension;
@@ -60,6 +64,16 @@ public class ConfigureChangeSetPatterns extends AbstractDescribableImpl<Configur
                       + "| test.java | test.????? | No               |")
     private final String changeSetInclusionPatterns;
 
+    @Nullable
+    @HelpMarkdown("Add to the $CHANGE_SET every C or C++ translation unit that includes a changed file, directly or through other headers, so that an incremental analysis of a header change also covers the code that uses it.  \r\n"
+                      + "The include graph is built from the workspace on the agent and kept there between builds, so later builds only reread the files that changed.")
+    private Boolean expandChangeSetDependencies;
+
+    @Nullable
+    @HelpMarkdown("A comma separated list of file extensions that Coverity can analyze, for example *c, cpp, h, java*. When a build's changes include none of them, capture, analysis and commit are skipped; the issue check still reports the view.  \r\n"
+                      + "Leave empty to use the built-in list, which covers the languages Coverity supports as well as build files such as Makefiles, pom.xml and .csproj. Enter * to always run the analysis.")
+    private String analyzableFileExtensions;
+
     @DataBoundConstructor
     public ConfigureChangeSetPatterns(final String changeSetExclusionPatterns, final String changeSetInclusionPatterns) {
         this.changeSetExclusionPatterns = changeSetExclusionPatterns;
@@ -74,6 +88,28 @@ public class ConfigureChangeSetPatterns extends AbstractDescribableImpl<Configur
         return changeSetExclusionPatterns;
     }
 
+    public boolean isExpandChangeSetDependencies() {
+        return Boolean.TRUE.equals(expandChangeSetDependencies);
+    }
+
+    @DataBoundSetter
+    public void setExpandChangeSetDependencies(final Boolean expandChangeSetDependencies) {
+        this.expandChangeSetDependencies = expandChangeSetDependencies;
+    }
+
+    public String getAnalyzableFileExtensions() {
+        return analyzableFileExtensions;
+    }
+
+    @DataBoundSetter
+    public void setAnalyzableFileExtensions(final String analyzableFileExtensions) {
+        this.analyzableFileExtensions = analyzableFileExtensions;
+    }
+
+    public AnalyzableSourceClassifier createAnalyzableSourceClassifier() {
+        return AnalyzableSourceClassifier.fromExtensions(analyzableFileExtensions);
+    }
+
     public ChangeSetFilter createChangeSetFilter() {
         return new ChangeSetFilter(changeSetExclusionPatterns, changeSetInclusionPatterns);
     }
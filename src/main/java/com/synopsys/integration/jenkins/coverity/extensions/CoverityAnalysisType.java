@@ -27,7 +27,8 @@ import com.synopsys.integration.jenkins.extensions.JenkinsSelectBoxEnum;
 public enum CoverityAnalysisType implements JenkinsSelectBoxEnum {
     COV_ANALYZE("Full Analysis"),
     COV_RUN_DESKTOP("Incremental Analysis"),
-    THRESHOLD("Determined by change set threshold");
+    THRESHOLD("Determined by change set threshold"),
+    COST_BASED("Determined by estimated analysis time");
 
     private String displayName;
 
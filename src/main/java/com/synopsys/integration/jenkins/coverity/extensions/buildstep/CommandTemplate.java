@@ -0,0 +1,233 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.buildstep;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.types.Commandline;
+
+/**
+ * A Coverity command that has already been split into arguments, with each argument split into literal text and environment variable references. Binding it to
+ * the environment is a single pass that only looks up the variables the command actually refers to, and follows the same rules as {@link hudson.Util#replaceMacro}:
+ * $NAME and ${NAME} are replaced, $$ is a literal $, and references to unset variables are left as they are.
+ */
+public final class CommandTemplate implements Serializable {
+    private static final long serialVersionUID = -2213786001434557930L;
+
+    private final List<Segment[]> arguments;
+    private final String commandLine;
+
+    private CommandTemplate(List<Segment[]> arguments, String commandLine) {
+        this.arguments = arguments;
+        this.commandLine = commandLine;
+    }
+
+    /**
+     * @throws org.apache.tools.ant.BuildException if the command has unbalanced quotes
+     */
+    public static CommandTemplate compile(String command) {
+        return builder().arguments(command).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<String> bind(Map<String, String> variables) {
+        List<String> boundArguments = new ArrayList<>(arguments.size());
+        for (Segment[] segments : arguments) {
+            if (segments.length == 1) {
+                boundArguments.add(segments[0].bind(variables));
+                continue;
+            }
+            StringBuilder boundArgument = new StringBuilder();
+            for (Segment segment : segments) {
+                boundArgument.append(segment.bind(variables));
+            }
+            boundArguments.add(boundArgument.toString());
+        }
+        return boundArguments;
+    }
+
+    public int getArgumentCount() {
+        return arguments.size();
+    }
+
+    /**
+     * The command as it would be typed, for display. Compiling it again gives an equivalent template.
+     */
+    public String toCommandLine() {
+        return commandLine;
+    }
+
+    public static final class Builder {
+        private final List<Segment[]> arguments = new ArrayList<>();
+        private final StringJoiner commandLine = new StringJoiner(" ");
+
+        private Builder() {
+        }
+
+        /**
+         * Adds exactly one argument, however many spaces or quotes it contains. Blank arguments are skipped.
+         */
+        public Builder argument(String argument) {
+            if (StringUtils.isNotBlank(argument)) {
+                arguments.add(parseArgument(argument));
+                commandLine.add(quoteForDisplay(argument));
+            }
+            return this;
+        }
+
+        /**
+         * Adds the arguments of a command line fragment, such as user supplied extra arguments, split the way a shell would split them.
+         * @throws org.apache.tools.ant.BuildException if the fragment has unbalanced quotes
+         */
+        public Builder arguments(String commandLineFragment) {
+            if (StringUtils.isNotBlank(commandLineFragment)) {
+                for (String token : Commandline.translateCommandline(commandLineFragment)) {
+                    arguments.add(parseArgument(token));
+                }
+                commandLine.add(commandLineFragment.trim());
+            }
+            return this;
+        }
+
+        public CommandTemplate build() {
+            return new CommandTemplate(Collections.unmodifiableList(new ArrayList<>(arguments)), commandLine.toString());
+        }
+
+        private static String quoteForDisplay(String argument) {
+            try {
+                return Commandline.quoteArgument(argument);
+            } catch (BuildException e) {
+                // Contains both kinds of quotes, which no quoting can express
+                return argument;
+            }
+        }
+    }
+
+    private static Segment[] parseArgument(String argument) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int index = 0;
+        while (index < argument.length()) {
+            char current = argument.charAt(index);
+            if (current != '$' || index + 1 >= argument.length()) {
+                literal.append(current);
+                index++;
+                continue;
+            }
+
+            char next = argument.charAt(index + 1);
+            int referenceEnd = -1;
+            String variableName = null;
+            if (next == '$') {
+                literal.append('$');
+                index += 2;
+                continue;
+            } else if (next == '{') {
+                int closingBrace = argument.indexOf('}', index + 2);
+                if (closingBrace > index + 2 && isVariableName(argument, index + 2, closingBrace, true)) {
+                    variableName = argument.substring(index + 2, closingBrace);
+                    referenceEnd = closingBrace + 1;
+                }
+            } else {
+                int nameEnd = index + 1;
+                while (nameEnd < argument.length() && isVariableNameCharacter(argument.charAt(nameEnd), false)) {
+                    nameEnd++;
+                }
+                if (nameEnd > index + 1) {
+                    variableName = argument.substring(index + 1, nameEnd);
+                    referenceEnd = nameEnd;
+                }
+            }
+
+            if (variableName == null) {
+                literal.append(current);
+                index++;
+                continue;
+            }
+
+            if (literal.length() > 0) {
+                segments.add(Segment.literal(literal.toString()));
+                literal.setLength(0);
+            }
+            segments.add(Segment.variable(variableName, argument.substring(index, referenceEnd)));
+            index = referenceEnd;
+        }
+
+        if (literal.length() > 0 || segments.isEmpty()) {
+            segments.add(Segment.literal(literal.toString()));
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private static boolean isVariableName(String text, int start, int end, boolean braced) {
+        for (int i = start; i < end; i++) {
+            if (!isVariableNameCharacter(text.charAt(i), braced)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVariableNameCharacter(char character, boolean braced) {
+        return (character >= 'A' && character <= 'Z') || (character >= 'a' && character <= 'z') || (character >= '0' && character <= '9') || character == '_' || (braced && character == '.');
+    }
+
+    private static final class Segment implements Serializable {
+        private static final long serialVersionUID = 4617313474185950871L;
+        // For a literal this is the text itself, for a variable it is the reference as written, which is kept when the variable is not set
+        private final String text;
+        private final String variableName;
+
+        private Segment(String text, String variableName) {
+            this.text = text;
+            this.variableName = variableName;
+        }
+
+        private static Segment literal(String text) {
+            return new Segment(text, null);
+        }
+
+        private static Segment variable(String variableName, String reference) {
+            return new Segment(reference, variableName);
+        }
+
+        private String bind(Map<String, String> variables) {
+            if (variableName == null) {
+                return text;
+            }
+            String value = variables.get(variableName);
+            return value != null ? value : text;
+        }
+    }
+
+}
@@ -40,6 +40,7 @@ import com.synopsys.integration.jenkins.coverity.extensions.CheckForIssuesInView
 import com.synopsys.integration.jenkins.coverity.extensions.CleanUpAction;
 import com.synopsys.integration.jenkins.coverity.extensions.ConfigureChangeSetPatterns;
 import com.synopsys.integration.jenkins.coverity.extensions.OnCommandFailure;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityToolInstallation;
 import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectUrlFieldHelper;
 import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamFieldHelper;
 import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityWorkflowStepFactory;
@@ -47,6 +48,7 @@ import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
 import com.synopsys.integration.jenkins.extensions.JenkinsSelectBoxEnum;
 import com.synopsys.integration.log.Slf4jIntLogger;
 
+import hudson.EnvVars;
 import hudson.Extension;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -90,6 +92,16 @@ public class CoverityBuildStep extends Builder {
                       + "Will either persist or delete the intermediate directory created by the specified capture type.")
     private CleanUpAction cleanUpAction;
 
+    @Nullable
+    @HelpMarkdown("Specify the Coverity analysis installation to use, as configured in the Jenkins global tool configuration. It is installed on the agent automatically if it is not there yet.  \r\n"
+                      + "The installation directory is stored in the $COVERITY_TOOL_HOME environment variable. Leave empty to use a $COVERITY_TOOL_HOME that is already set on the agent.")
+    private String coverityToolName;
+
+    @Nullable
+    @HelpMarkdown("Skip the analysis when an earlier build of this job already committed the same sources to the same stream, with the same Coverity analysis installation and commands, and reuse its snapshot and issue report instead.  \r\n"
+                      + "The sources are identified by their git tree, so this only applies to git workspaces without uncommitted changes.")
+    private Boolean reuseAnalysisResults;
+
     @DataBoundConstructor
     public CoverityBuildStep(String coverityInstanceUrl, String onCommandFailure, String projectName, String streamName, CheckForIssuesInView checkForIssuesInView,
         ConfigureChangeSetPatterns configureChangeSetPatterns, CoverityRunConfiguration coverityRunConfiguration) {
@@ -111,6 +123,24 @@ public class CoverityBuildStep extends Builder {
         this.cleanUpAction = cleanUpAction;
     }
 
+    public String getCoverityToolName() {
+        return coverityToolName;
+    }
+
+    @DataBoundSetter
+    public void setCoverityToolName(String coverityToolName) {
+        this.coverityToolName = StringUtils.trimToNull(coverityToolName);
+    }
+
+    public boolean isReuseAnalysisResults() {
+        return Boolean.TRUE.equals(reuseAnalysisResults);
+    }
+
+    @DataBoundSetter
+    public void setReuseAnalysisResults(Boolean reuseAnalysisResults) {
+        this.reuseAnalysisResults = reuseAnalysisResults;
+    }
+
     public String getCoverityInstanceUrl() {
         return coverityInstanceUrl;
     }
@@ -157,11 +187,15 @@ public class CoverityBuildStep extends Builder {
     public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws IOException, InterruptedException {
         String remoteWorkingDirectoryPath = computeRemoteWorkingDirectory(coverityRunConfiguration, build.getWorkspace(), build.getProject());
 
-        CoverityWorkflowStepFactory coverityWorkflowStepFactory = new CoverityWorkflowStepFactory(build.getEnvironment(listener), build.getBuiltOn(), launcher, listener);
+        EnvVars environment = build.getEnvironment(listener);
+        CoverityToolInstallation.populateToolHome(coverityToolName, build.getBuiltOn(), environment, listener);
+
+        CoverityWorkflowStepFactory coverityWorkflowStepFactory = new CoverityWorkflowStepFactory(environment, build.getBuiltOn(), launcher, listener);
         JenkinsIntLogger logger = coverityWorkflowStepFactory.getOrCreateLogger();
         JenkinsVersionHelper jenkinsVersionHelper = new JenkinsVersionHelper(Jenkins.getInstanceOrNull());
         CoverityBuildStepWorkflow coverityBuildStepWorkflow = new CoverityBuildStepWorkflow(logger, jenkinsVersionHelper, () -> coverityWorkflowStepFactory.getWebServiceFactoryFromUrl(coverityInstanceUrl), coverityWorkflowStepFactory,
-            build, remoteWorkingDirectoryPath, coverityInstanceUrl, projectName, streamName, coverityRunConfiguration, configureChangeSetPatterns, checkForIssuesInView, onCommandFailure, cleanUpAction);
+            build, remoteWorkingDirectoryPath, coverityInstanceUrl, projectName, streamName, coverityRunConfiguration, configureChangeSetPatterns, checkForIssuesInView, onCommandFailure, cleanUpAction,
+            isReuseAnalysisResults());
 
         return coverityBuildStepWorkflow.perform();
     }
@@ -237,6 +271,10 @@ public class CoverityBuildStep extends Builder {
             ));
         }
 
+        public ListBoxModel doFillCoverityToolNameItems() {
+            return CoverityToolInstallation.getInstallationNameItems();
+        }
+
         public ListBoxModel doFillOnCommandFailureItems() {
             return JenkinsSelectBoxEnum.toListBoxModel(OnCommandFailure.values());
         }
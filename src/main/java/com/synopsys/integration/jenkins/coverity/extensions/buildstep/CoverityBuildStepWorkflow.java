@@ -29,8 +29,14 @@ import static com.synopsys.integration.jenkins.coverity.extensions.CoverityAnaly
 import static com.synopsys.integration.jenkins.coverity.extensions.CoverityAnalysisType.THRESHOLD;
 import static com.synopsys.integration.jenkins.coverity.extensions.buildstep.CoverityRunConfiguration.RunConfigurationType.ADVANCED;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nullable;
 
@@ -42,6 +48,11 @@ import com.synopsys.integration.coverity.ws.view.ViewReportWrapper;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.function.ThrowingSupplier;
 import com.synopsys.integration.jenkins.JenkinsVersionHelper;
+import com.synopsys.integration.jenkins.coverity.AnalyzableSourceClassifier;
+import com.synopsys.integration.jenkins.coverity.ChangeSetFilter;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.actions.AnalysisInputsAction;
+import com.synopsys.integration.jenkins.coverity.actions.CoverityCommitAction;
 import com.synopsys.integration.jenkins.coverity.actions.IssueReportAction;
 import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsAbortException;
 import com.synopsys.integration.jenkins.coverity.extensions.BuildStatus;
@@ -50,8 +61,11 @@ import com.synopsys.integration.jenkins.coverity.extensions.CleanUpAction;
 import com.synopsys.integration.jenkins.coverity.extensions.ConfigureChangeSetPatterns;
 import com.synopsys.integration.jenkins.coverity.extensions.CoverityAnalysisType;
 import com.synopsys.integration.jenkins.coverity.extensions.OnCommandFailure;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.AnalysisCostHistory;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.ChooseAnalysisByCost;
 import com.synopsys.integration.jenkins.coverity.stepworkflow.CleanUpWorkflowService;
 import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityJenkinsStepWorkflow;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityToolResult;
 import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityWorkflowStepFactory;
 import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
 import com.synopsys.integration.stepworkflow.StepWorkflow;
@@ -64,8 +78,10 @@ import hudson.FilePath;
 import hudson.model.AbstractBuild;
 import hudson.model.Result;
 import hudson.remoting.VirtualChannel;
+import hudson.scm.ChangeLogSet;
 
 public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Object> {
+    public static final int MAX_BUILDS_SEARCHED_FOR_REUSE = 50;
     private final CoverityWorkflowStepFactory coverityWorkflowStepFactory;
     private final AbstractBuild<?, ?> build;
     private final String projectName;
@@ -79,10 +95,16 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
     private final CleanUpAction cleanUpAction;
     private final String workspaceRemotePath;
     private final String coverityInstanceUrl;
+    private final boolean reuseAnalysisResults;
+    @Nullable
+    private String analysisKey;
+    private boolean reusedAnalysis;
+    private boolean reusedIssueReport;
 
     public CoverityBuildStepWorkflow(JenkinsIntLogger logger, JenkinsVersionHelper jenkinsVersionHelper, ThrowingSupplier<WebServiceFactory, CoverityJenkinsAbortException> webServiceFactorySupplier,
         CoverityWorkflowStepFactory coverityWorkflowStepFactory, AbstractBuild<?, ?> build, String workspaceRemotePath, String coverityInstanceUrl, String projectName, String streamName, CoverityRunConfiguration coverityRunConfiguration,
-        ConfigureChangeSetPatterns configureChangeSetPatterns, CheckForIssuesInView checkForIssuesInView, OnCommandFailure onCommandFailure, CleanUpAction cleanUpAction) {
+        ConfigureChangeSetPatterns configureChangeSetPatterns, CheckForIssuesInView checkForIssuesInView, OnCommandFailure onCommandFailure, CleanUpAction cleanUpAction,
+        boolean reuseAnalysisResults) {
         super(logger, jenkinsVersionHelper, webServiceFactorySupplier);
         this.coverityWorkflowStepFactory = coverityWorkflowStepFactory;
         this.build = build;
@@ -95,6 +117,7 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
         this.checkForIssuesInView = checkForIssuesInView;
         this.onCommandFailure = onCommandFailure;
         this.cleanUpAction = cleanUpAction;
+        this.reuseAnalysisResults = reuseAnalysisResults;
     }
 
     @Override
@@ -102,17 +125,26 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
         String viewName = Optional.ofNullable(checkForIssuesInView).map(CheckForIssuesInView::getViewName).orElse(StringUtils.EMPTY);
         BuildStatus buildStatus = Optional.ofNullable(checkForIssuesInView).map(CheckForIssuesInView::getBuildStatusForIssues).orElse(BuildStatus.SUCCESS);
         boolean shouldValidateVersion = CoverityRunConfiguration.RunConfigurationType.SIMPLE.equals(coverityRunConfiguration.getRunConFigurationType());
+        int maxParallelCommits = coverityRunConfiguration instanceof SimpleCoverityRunConfiguration ? ((SimpleCoverityRunConfiguration) coverityRunConfiguration).getMaxParallelCommits() : 1;
+        // Only jobs that choose their analysis by cost keep a history, so the others neither load nor write one
+        boolean costBased = coverityRunConfiguration instanceof SimpleCoverityRunConfiguration
+                                && CoverityAnalysisType.COST_BASED.equals(((SimpleCoverityRunConfiguration) coverityRunConfiguration).getCoverityAnalysisType());
+        AnalysisCostHistory analysisCostHistory = costBased ? AnalysisCostHistory.forJob(build.getParent().getRootDir()) : null;
 
         return StepWorkflow.first(coverityWorkflowStepFactory.createStepValidateCoverityInstallation(shouldValidateVersion))
                    .then(coverityWorkflowStepFactory.createStepCreateAuthenticationKeyFile(workspaceRemotePath, coverityInstanceUrl))
                    .then(coverityWorkflowStepFactory.createStepSetUpCoverityEnvironment(build.getChangeSets(), configureChangeSetPatterns, workspaceRemotePath, coverityInstanceUrl, projectName, streamName, viewName))
+                   .then(coverityWorkflowStepFactory.createStepExpandChangeSet(configureChangeSetPatterns, workspaceRemotePath))
                    .then(coverityWorkflowStepFactory.createStepCreateMissingProjectsAndStreams(coverityInstanceUrl, projectName, streamName))
-                   .andSometimes(coverityWorkflowStepFactory.createStepGetCoverityCommands(coverityRunConfiguration))
-                   .then(coverityWorkflowStepFactory.createStepRunCoverityCommands(workspaceRemotePath, onCommandFailure))
+                   .then(coverityWorkflowStepFactory.createStepChooseAnalysisByCost(coverityRunConfiguration, analysisCostHistory))
+                   .then(coverityWorkflowStepFactory.createStepComputeAnalysisKey(workspaceRemotePath, coverityRunConfiguration, reuseAnalysisResults, this::reusePreviousAnalysis))
+                   .andSometimes(coverityWorkflowStepFactory.createStepTuneCoverityParallelism(coverityRunConfiguration))
+                   .then(coverityWorkflowStepFactory.createStepGetCoverityCommands(coverityRunConfiguration))
+                   .then(coverityWorkflowStepFactory.createStepRunCoverityCommands(workspaceRemotePath, onCommandFailure, this::addCommitAction, maxParallelCommits, analysisCostHistory))
                    .butOnlyIf(coverityWorkflowStepFactory.getOrCreateEnvironmentVariables(), intEnvironmentVariables -> this.shouldRunCoverityCommands(intEnvironmentVariables, coverityRunConfiguration))
                    .andSometimes(coverityWorkflowStepFactory.createStepGetIssuesInView(coverityInstanceUrl, projectName, viewName))
                    .then(SubStep.ofConsumer(viewReportWrapper -> handleIssues(viewReportWrapper, build, projectName, viewName, buildStatus)))
-                   .butOnlyIf(checkForIssuesInView, Objects::nonNull)
+                   .butOnlyIf(checkForIssuesInView, check -> Objects.nonNull(check) && !reusedIssueReport)
                    .build();
     }
 
@@ -155,6 +187,10 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
     }
 
     private boolean shouldRunCoverityCommands(IntEnvironmentVariables intEnvironmentVariables, CoverityRunConfiguration coverityRunConfiguration) {
+        if (reusedAnalysis || !hasAnalyzableChanges()) {
+            return false;
+        }
+
         boolean analysisIsIncremental;
         if (ADVANCED.equals(coverityRunConfiguration.getRunConFigurationType())) {
             analysisIsIncremental = false;
@@ -162,7 +198,7 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
             SimpleCoverityRunConfiguration simpleCoverityRunConfiguration = (SimpleCoverityRunConfiguration) coverityRunConfiguration;
             int changeSetSize;
             changeSetSize = Integer.parseInt(intEnvironmentVariables.getValue(CHANGE_SET_SIZE.toString(), "0"));
-            CoverityAnalysisType coverityAnalysisType = simpleCoverityRunConfiguration.getCoverityAnalysisType();
+            CoverityAnalysisType coverityAnalysisType = ChooseAnalysisByCost.resolveAnalysisType(simpleCoverityRunConfiguration.getCoverityAnalysisType(), intEnvironmentVariables);
             int changeSetThreshold = simpleCoverityRunConfiguration.getChangeSetAnalysisThreshold();
 
             analysisIsIncremental = COV_RUN_DESKTOP.equals(coverityAnalysisType) || (THRESHOLD.equals(coverityAnalysisType) && changeSetSize < changeSetThreshold);
@@ -176,6 +212,96 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
         return true;
     }
 
+    // Only looks at builds with changes: a build without any (the first build, or one started by hand or by a timer) always runs the analysis
+    private boolean hasAnalyzableChanges() {
+        ChangeSetFilter changeSetFilter = Optional.ofNullable(configureChangeSetPatterns)
+                                              .map(ConfigureChangeSetPatterns::createChangeSetFilter)
+                                              .orElseGet(ChangeSetFilter::createAcceptAllFilter);
+        AnalyzableSourceClassifier analyzableSourceClassifier = Optional.ofNullable(configureChangeSetPatterns)
+                                                                    .map(ConfigureChangeSetPatterns::createAnalyzableSourceClassifier)
+                                                                    .orElseGet(AnalyzableSourceClassifier::createDefaultClassifier);
+        List<ChangeLogSet.AffectedFile> affectedFiles = build.getChangeSets().stream()
+                                                            .flatMap(changeLogSet -> StreamSupport.stream(changeLogSet.spliterator(), false))
+                                                            .flatMap(entry -> entry.getAffectedFiles().stream())
+                                                            .filter(affectedFile -> StringUtils.isNotBlank(affectedFile.getPath()))
+                                                            .collect(Collectors.toList());
+        if (affectedFiles.isEmpty()) {
+            return true;
+        }
+
+        // Files the change set patterns leave out are not in $CHANGE_SET either, so they cannot call for an analysis
+        List<String> changedPaths = affectedFiles.stream()
+                                        .filter(changeSetFilter::shouldInclude)
+                                        .map(ChangeLogSet.AffectedFile::getPath)
+                                        .distinct()
+                                        .collect(Collectors.toList());
+        if (changedPaths.isEmpty()) {
+            logger.alwaysLog(String.format("Skipping Synopsys Coverity static analysis because the change set patterns exclude all of the %d changed files. The issue check still reports the results of the last analysis.",
+                affectedFiles.size()));
+            return false;
+        }
+
+        Map<String, Long> changedFilesByLanguage = changedPaths.stream()
+                                                       .map(analyzableSourceClassifier::classify)
+                                                       .filter(Optional::isPresent)
+                                                       .map(Optional::get)
+                                                       .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+        if (changedFilesByLanguage.isEmpty()) {
+            logger.alwaysLog(String.format("Skipping Synopsys Coverity static analysis because none of the %d changed files can affect the analysis. The issue check still reports the results of the last analysis.",
+                changedPaths.size()));
+            return false;
+        }
+
+        logger.debug("Changed files that can affect the analysis: " + changedFilesByLanguage);
+        return true;
+    }
+
+    // Only a build that committed to the configured stream is recorded as reusable, and only builds of the same job are searched
+    private void reusePreviousAnalysis(String analysisKey) {
+        this.analysisKey = analysisKey;
+        AbstractBuild<?, ?> previousBuild = build.getPreviousBuild();
+        for (int searched = 0; previousBuild != null && searched < MAX_BUILDS_SEARCHED_FOR_REUSE; searched++, previousBuild = previousBuild.getPreviousBuild()) {
+            AnalysisInputsAction analysisInputsAction = previousBuild.getAction(AnalysisInputsAction.class);
+            if (analysisInputsAction != null && analysisKey.equals(analysisInputsAction.getAnalysisKey())) {
+                copyAnalysisResults(previousBuild);
+                return;
+            }
+        }
+        logger.debug("No earlier build analyzed the same sources with the same configuration, running the analysis.");
+    }
+
+    private void copyAnalysisResults(AbstractBuild<?, ?> previousBuild) {
+        IntEnvironmentVariables intEnvironmentVariables = coverityWorkflowStepFactory.getOrCreateEnvironmentVariables();
+        for (CoverityCommitAction commitAction : previousBuild.getActions(CoverityCommitAction.class)) {
+            build.addAction(new CoverityCommitAction(commitAction.getStreamName(), commitAction.isConfiguredStream(), commitAction.getSnapshotId(), commitAction.getDefectOccurrences(), commitAction.getTimings()));
+            if (commitAction.isConfiguredStream()) {
+                intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString(), String.valueOf(commitAction.getSnapshotId()));
+            }
+        }
+        build.addAction(new AnalysisInputsAction(analysisKey));
+        reusedAnalysis = true;
+        logger.alwaysLog(String.format("Skipping Synopsys Coverity static analysis because %s already analyzed the same sources with the same Coverity analysis installation and configuration. Reusing its snapshot %s.",
+            previousBuild.getFullDisplayName(), intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString())));
+
+        IssueReportAction issueReportAction = previousBuild.getAction(IssueReportAction.class);
+        if (checkForIssuesInView != null && issueReportAction != null) {
+            logger.alwaysLog("Reusing the issues found by " + previousBuild.getFullDisplayName());
+            BuildStatus buildStatus = Optional.ofNullable(checkForIssuesInView.getBuildStatusForIssues()).orElse(BuildStatus.SUCCESS);
+            reportIssues(issueReportAction.getDefectCount(), issueReportAction.getCimViewUrl(), buildStatus);
+            reusedIssueReport = true;
+        }
+    }
+
+    private void addCommitAction(String committedStreamName, CoverityToolResult commitResult) {
+        String configuredStreamName = coverityWorkflowStepFactory.getOrCreateEnvironmentVariables().getValue(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString());
+        boolean configuredStream = configuredStreamName == null || configuredStreamName.equals(committedStreamName);
+        commitResult.getSnapshotId()
+            .ifPresent(snapshotId -> build.addAction(new CoverityCommitAction(committedStreamName, configuredStream, snapshotId, commitResult.getDefectOccurrences().orElse(null), commitResult.getTimings())));
+        if (configuredStream && analysisKey != null && commitResult.getSnapshotId().isPresent()) {
+            build.addAction(new AnalysisInputsAction(analysisKey));
+        }
+    }
+
     private void handleIssues(ViewReportWrapper viewReportWrapper, AbstractBuild<?, ?> build, String projectName, String viewName, BuildStatus buildStatusOnIssues) {
         logger.alwaysLog("Checking for issues in view");
         logger.alwaysLog("-- Build state for issues in the view: " + buildStatusOnIssues.getDisplayName());
@@ -183,8 +309,10 @@ public class CoverityBuildStepWorkflow extends CoverityJenkinsStepWorkflow<Objec
         logger.alwaysLog("-- Coverity view name: " + viewName);
 
         ViewContents viewContents = viewReportWrapper.getViewContents();
-        String viewReportUrl = viewReportWrapper.getViewReportUrl();
-        int defectCount = viewContents.getTotalRows().intValue();
+        reportIssues(viewContents.getTotalRows().intValue(), viewReportWrapper.getViewReportUrl(), buildStatusOnIssues);
+    }
+
+    private void reportIssues(int defectCount, String viewReportUrl, BuildStatus buildStatusOnIssues) {
         build.addAction(new IssueReportAction(defectCount, viewReportUrl));
         logger.alwaysLog(String.format("[Coverity] Found %s issues: %s", defectCount, viewReportUrl));
 
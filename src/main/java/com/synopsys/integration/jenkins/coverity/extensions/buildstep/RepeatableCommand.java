@@ -27,13 +27,10 @@ import static com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironme
 import static com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable.COVERITY_STREAM;
 import static com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable.COVERITY_URL;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 import javax.annotation.Nonnull;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.tools.ant.BuildException;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.QueryParameter;
 
@@ -50,137 +47,142 @@ public class RepeatableCommand extends AbstractDescribableImpl<RepeatableCommand
                       + "For examples and a list of the available environment variables that can be used, refer to [the Command Examples documentation](https://synopsys.atlassian.net/wiki/spaces/INTDOCS/pages/623024/Coverity+Command+Examples)")
     private final String command;
 
+    // Compiled when the configuration is saved or loaded rather than on every build
+    private transient CommandTemplate commandTemplate;
+
     @DataBoundConstructor
     public RepeatableCommand(String command) {
         this.command = command;
+        this.commandTemplate = tryCompile(command);
     }
 
-    public static RepeatableCommand COV_BUILD(String buildCommand, String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-build");
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
+    protected Object readResolve() {
+        commandTemplate = tryCompile(command);
+        return this;
+    }
 
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
+    // A command that cannot be tokenized is still saved as written, and fails when a build tries to run it as it always has
+    private static CommandTemplate tryCompile(String command) {
+        if (StringUtils.isBlank(command)) {
+            return null;
         }
-
-        if (StringUtils.isNotBlank(buildCommand)) {
-            commandPieces.add(buildCommand);
+        try {
+            return CommandTemplate.compile(command);
+        } catch (BuildException e) {
+            return null;
         }
-
-        return constructCommand(commandPieces);
     }
 
-    public static RepeatableCommand COV_ANALYZE(String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-analyze");
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
+    // Commands assembled here are already split into arguments, so values such as paths are passed on as single arguments and never re-parsed
+    private RepeatableCommand(CommandTemplate commandTemplate) {
+        this.command = commandTemplate.toCommandLine();
+        this.commandTemplate = commandTemplate;
+    }
 
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
-        }
+    public static RepeatableCommand COV_BUILD(String buildCommand, String arguments) {
+        return new RepeatableCommand(CommandTemplate.builder()
+                                         .argument("cov-build")
+                                         .argument(Argument.DIR.toString())
+                                         .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                         .arguments(arguments)
+                                         .arguments(buildCommand)
+                                         .build());
+    }
 
-        return constructCommand(commandPieces);
+    public static RepeatableCommand COV_ANALYZE(String arguments) {
+        return new RepeatableCommand(CommandTemplate.builder()
+                                         .argument("cov-analyze")
+                                         .argument(Argument.DIR.toString())
+                                         .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                         .arguments(arguments)
+                                         .build());
     }
 
     public static RepeatableCommand COV_RUN_DESKTOP(String authKeyFilePath, String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-run-desktop");
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
-        commandPieces.add(Argument.URL.toString());
-        commandPieces.add(COVERITY_URL.expansionString());
-        commandPieces.add(Argument.STREAM.toString());
-        commandPieces.add(COVERITY_STREAM.expansionString());
+        CommandTemplate.Builder commandTemplateBuilder = CommandTemplate.builder()
+                                                             .argument("cov-run-desktop")
+                                                             .argument(Argument.DIR.toString())
+                                                             .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                                             .argument(Argument.URL.toString())
+                                                             .argument(COVERITY_URL.expansionString())
+                                                             .argument(Argument.STREAM.toString())
+                                                             .argument(COVERITY_STREAM.expansionString());
 
         if (StringUtils.isNotBlank(authKeyFilePath)) {
-            commandPieces.add(Argument.AUTH_KEY_FILE.toString());
-            commandPieces.add(authKeyFilePath);
+            commandTemplateBuilder.argument(Argument.AUTH_KEY_FILE.toString())
+                .argument(authKeyFilePath);
         }
 
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
-        }
-
-        commandPieces.add(CHANGE_SET.expansionString());
-
-        return constructCommand(commandPieces);
+        return new RepeatableCommand(commandTemplateBuilder.arguments(arguments)
+                                         .argument(CHANGE_SET.expansionString())
+                                         .build());
     }
 
     public static RepeatableCommand COV_COMMIT_DEFECTS(String authKeyFilePath, String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-commit-defects");
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
-        commandPieces.add(Argument.URL.toString());
-        commandPieces.add(COVERITY_URL.expansionString());
-        commandPieces.add(Argument.STREAM.toString());
-        commandPieces.add(COVERITY_STREAM.expansionString());
+        return COV_COMMIT_DEFECTS(authKeyFilePath, arguments, COVERITY_STREAM.expansionString());
+    }
 
-        if (StringUtils.isNotBlank(authKeyFilePath)) {
-            commandPieces.add(Argument.AUTH_KEY_FILE.toString());
-            commandPieces.add(authKeyFilePath);
-        }
+    public static RepeatableCommand COV_COMMIT_DEFECTS(String authKeyFilePath, String arguments, String streamArgument) {
+        CommandTemplate.Builder commandTemplateBuilder = CommandTemplate.builder()
+                                                             .argument("cov-commit-defects")
+                                                             .argument(Argument.DIR.toString())
+                                                             .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                                             .argument(Argument.URL.toString())
+                                                             .argument(COVERITY_URL.expansionString())
+                                                             .argument(Argument.STREAM.toString())
+                                                             .argument(streamArgument);
 
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
+        if (StringUtils.isNotBlank(authKeyFilePath)) {
+            commandTemplateBuilder.argument(Argument.AUTH_KEY_FILE.toString())
+                .argument(authKeyFilePath);
         }
 
-        return constructCommand(commandPieces);
+        return new RepeatableCommand(commandTemplateBuilder.arguments(arguments).build());
     }
 
     public static RepeatableCommand COV_CAPTURE_PROJECT(String projectDir, String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-capture");
+        CommandTemplate.Builder commandTemplateBuilder = CommandTemplate.builder()
+                                                             .argument("cov-capture");
 
         if (StringUtils.isNotBlank(projectDir)) {
-            commandPieces.add(Argument.PROJECT_DIR.toString());
-            commandPieces.add(projectDir);
-        }
-
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
-
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
+            commandTemplateBuilder.argument(Argument.PROJECT_DIR.toString())
+                .argument(projectDir);
         }
 
-        return constructCommand(commandPieces);
+        return new RepeatableCommand(commandTemplateBuilder.argument(Argument.DIR.toString())
+                                         .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                         .arguments(arguments)
+                                         .build());
     }
 
     public static RepeatableCommand COV_CAPTURE_SCM(String scmUrl, String arguments) {
-        List<String> commandPieces = new ArrayList<>();
-        commandPieces.add("cov-capture");
+        CommandTemplate.Builder commandTemplateBuilder = CommandTemplate.builder()
+                                                             .argument("cov-capture");
 
         if (StringUtils.isNotBlank(scmUrl)) {
-            commandPieces.add(Argument.SCM_URL.toString());
-            commandPieces.add(scmUrl);
-        }
-
-        commandPieces.add(Argument.DIR.toString());
-        commandPieces.add(COVERITY_INTERMEDIATE_DIRECTORY.expansionString());
-
-        if (StringUtils.isNotBlank(arguments)) {
-            commandPieces.add(arguments);
+            commandTemplateBuilder.argument(Argument.SCM_URL.toString())
+                .argument(scmUrl);
         }
 
-        return constructCommand(commandPieces);
-    }
-
-    private static RepeatableCommand constructCommand(List<String> commandPieces) {
-        String command = commandPieces.stream()
-                             .filter(StringUtils::isNotBlank)
-                             .collect(Collectors.joining(" "));
-
-        return new RepeatableCommand(command);
+        return new RepeatableCommand(commandTemplateBuilder.argument(Argument.DIR.toString())
+                                         .argument(COVERITY_INTERMEDIATE_DIRECTORY.expansionString())
+                                         .arguments(arguments)
+                                         .build());
     }
 
     public String getCommand() {
         return command;
     }
 
+    public CommandTemplate getCommandTemplate() {
+        CommandTemplate compiledTemplate = commandTemplate;
+        if (compiledTemplate == null) {
+            compiledTemplate = CommandTemplate.compile(command);
+            commandTemplate = compiledTemplate;
+        }
+        return compiledTemplate;
+    }
+
     @Override
     public DescriptorImpl getDescriptor() {
         return (DescriptorImpl) super.getDescriptor();
@@ -223,6 +225,11 @@ public class RepeatableCommand extends AbstractDescribableImpl<RepeatableCommand
             if (StringUtils.isBlank(command)) {
                 return FormValidation.error("The Coverity command can not be empty");
             }
+            try {
+                CommandTemplate.compile(command);
+            } catch (BuildException e) {
+                return FormValidation.error("The Coverity command could not be parsed: " + e.getMessage());
+            }
             return FormValidation.ok();
         }
     }
@@ -22,9 +22,15 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.buildstep;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 
@@ -43,6 +49,8 @@ public class SimpleCoverityRunConfiguration extends CoverityRunConfiguration {
         SerializationHelper.migrateFieldFrom("buildCommand", SimpleCoverityRunConfiguration.class, "sourceArgument");
     }
 
+    public static final int DEFAULT_MAX_PARALLEL_COMMITS = 4;
+
     private final CommandArguments commandArguments;
 
     @HelpMarkdown("Specify the way you wish to perform your Coverity analysis.  \r\n"
@@ -57,7 +65,11 @@ public class SimpleCoverityRunConfiguration extends CoverityRunConfiguration {
                       + "cov-commit-defects --dir ${WORKSPACE}/idir --url ${COV_URL} --stream ${COV_STREAM}\r\n"
                       + "\r\n"
                       + "**Determined by change set threshold**  \r\n"
-                      + "Will run the commands specified by **Full Analysis** if the number of files listed in the CHANGE_SET environment variable meets or exceeds the specified threshold, otherwise will run the commands specified by **Incremental Analysis**.")
+                      + "Will run the commands specified by **Full Analysis** if the number of files listed in the CHANGE_SET environment variable meets or exceeds the specified threshold, otherwise will run the commands specified by **Incremental Analysis**.\r\n"
+                      + "\r\n"
+                      + "**Determined by estimated analysis time**  \r\n"
+                      + "Will run whichever of **Full Analysis** and **Incremental Analysis** is predicted to finish sooner, based on how long earlier analyses of this job took for the files in the CHANGE_SET. "
+                      + "Until both have run at least once, the change set threshold is used instead.")
     private final CoverityAnalysisType coverityAnalysisType;
 
     @HelpMarkdown("The argument that specifies the source for the given capture type.  \r\n"
@@ -92,6 +104,20 @@ public class SimpleCoverityRunConfiguration extends CoverityRunConfiguration {
                       + "If the number of files specified in the $CHANGE_SET environment variable meets or exceeds the value of this field, **Determined by change set threshold** will run a **Full Analysis**")
     private Integer changeSetAnalysisThreshold;
 
+    @Nullable
+    @HelpMarkdown("Additional Coverity streams to commit the same analysis results to, one per line or separated by commas. The streams must already exist.  \r\n"
+                      + "The analysis runs once and is then committed to ${COV_STREAM} and each of these streams, several at a time.")
+    private String additionalCommitStreams;
+
+    @Nullable
+    @HelpMarkdown("The maximum number of cov-commit-defects commands to run at the same time when committing to additional streams. Defaults to 4.")
+    private Integer maxParallelCommits;
+
+    @Nullable
+    @HelpMarkdown("Size the number of cov-analyze workers (-j) and cov-build translation workers (--parallel-translate) to the processors and memory available on the agent, including container (cgroup) limits and other builds running on the same agent.  \r\n"
+                      + "The chosen values are logged and stored in the $COV_ANALYSIS_WORKERS and $COV_TRANSLATION_WORKERS environment variables. Arguments you provide for cov-analyze or cov-build take precedence.")
+    private Boolean autoTuneParallelism;
+
     @DataBoundConstructor
     public SimpleCoverityRunConfiguration(final CoverityAnalysisType coverityAnalysisType, final String sourceArgument, final CommandArguments commandArguments) {
         this.coverityAnalysisType = coverityAnalysisType;
@@ -152,6 +178,47 @@ public class SimpleCoverityRunConfiguration extends CoverityRunConfiguration {
         this.coverityCaptureType = coverityCaptureType;
     }
 
+    public String getAdditionalCommitStreams() {
+        return additionalCommitStreams;
+    }
+
+    @DataBoundSetter
+    public void setAdditionalCommitStreams(final String additionalCommitStreams) {
+        this.additionalCommitStreams = additionalCommitStreams;
+    }
+
+    public List<String> getAdditionalCommitStreamNames() {
+        if (StringUtils.isBlank(additionalCommitStreams)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(additionalCommitStreams.split("[,\\r\\n]+"))
+                   .map(String::trim)
+                   .filter(StringUtils::isNotBlank)
+                   .distinct()
+                   .collect(Collectors.toList());
+    }
+
+    public int getMaxParallelCommits() {
+        if (maxParallelCommits == null || maxParallelCommits < 1) {
+            return DEFAULT_MAX_PARALLEL_COMMITS;
+        }
+        return maxParallelCommits;
+    }
+
+    @DataBoundSetter
+    public void setMaxParallelCommits(final Integer maxParallelCommits) {
+        this.maxParallelCommits = maxParallelCommits;
+    }
+
+    public boolean isAutoTuneParallelism() {
+        return Boolean.TRUE.equals(autoTuneParallelism);
+    }
+
+    @DataBoundSetter
+    public void setAutoTuneParallelism(final Boolean autoTuneParallelism) {
+        this.autoTuneParallelism = autoTuneParallelism;
+    }
+
     public CoverityCaptureType getDefaultCoverityCaptureType() {
         return CoverityCaptureType.COV_BUILD;
     }
@@ -22,21 +22,37 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.global;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.verb.POST;
+
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CacheSettings;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CacheStatistics;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectCacheRegistry;
+import com.synopsys.integration.jenkins.coverity.ws.CircuitBreaker;
+import com.synopsys.integration.jenkins.coverity.ws.CircuitBreakerRegistry;
 
 import hudson.Extension;
+import hudson.util.FormValidation;
 import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
 
 @Extension
 public class CoverityGlobalConfig extends GlobalConfiguration {
     private List<CoverityConnectInstance> coverityConnectInstances;
+    private Integer cacheTimeToLiveInMinutes;
+    private Integer maxCachedEntriesPerInstance;
+    private Integer cacheIdleEvictionInMinutes;
+    private Integer cacheMemoryCapInMegabytes;
 
     @DataBoundConstructor
     public CoverityGlobalConfig() {
         load();
+        publishCacheSettings();
     }
 
     public List<CoverityConnectInstance> getCoverityConnectInstances() {
@@ -47,6 +63,93 @@ public class CoverityGlobalConfig extends GlobalConfiguration {
     public void setCoverityConnectInstances(final List<CoverityConnectInstance> coverityConnectInstances) {
         this.coverityConnectInstances = coverityConnectInstances;
         save();
+        CoverityConnectCacheRegistry.retainOnly(getCoverityConnectUrls());
+    }
+
+    public List<String> getCoverityConnectUrls() {
+        if (coverityConnectInstances == null) {
+            return Collections.emptyList();
+        }
+        return coverityConnectInstances.stream()
+                   .map(CoverityConnectInstance::getUrl)
+                   .collect(Collectors.toList());
+    }
+
+    public int getCacheTimeToLiveInMinutes() {
+        return valueOrDefault(cacheTimeToLiveInMinutes, CacheSettings.DEFAULT_TIME_TO_LIVE_IN_MINUTES);
+    }
+
+    @DataBoundSetter
+    public void setCacheTimeToLiveInMinutes(final Integer cacheTimeToLiveInMinutes) {
+        this.cacheTimeToLiveInMinutes = cacheTimeToLiveInMinutes;
+        save();
+        publishCacheSettings();
+    }
+
+    public int getMaxCachedEntriesPerInstance() {
+        return valueOrDefault(maxCachedEntriesPerInstance, CacheSettings.DEFAULT_MAX_ENTRIES_PER_INSTANCE);
+    }
+
+    @DataBoundSetter
+    public void setMaxCachedEntriesPerInstance(final Integer maxCachedEntriesPerInstance) {
+        this.maxCachedEntriesPerInstance = maxCachedEntriesPerInstance;
+        save();
+        publishCacheSettings();
+    }
+
+    public int getCacheIdleEvictionInMinutes() {
+        return valueOrDefault(cacheIdleEvictionInMinutes, CacheSettings.DEFAULT_IDLE_EVICTION_IN_MINUTES);
+    }
+
+    @DataBoundSetter
+    public void setCacheIdleEvictionInMinutes(final Integer cacheIdleEvictionInMinutes) {
+        this.cacheIdleEvictionInMinutes = cacheIdleEvictionInMinutes;
+        save();
+        publishCacheSettings();
+    }
+
+    public int getCacheMemoryCapInMegabytes() {
+        return valueOrDefault(cacheMemoryCapInMegabytes, CacheSettings.DEFAULT_MEMORY_CAP_IN_MEGABYTES);
+    }
+
+    @DataBoundSetter
+    public void setCacheMemoryCapInMegabytes(final Integer cacheMemoryCapInMegabytes) {
+        this.cacheMemoryCapInMegabytes = cacheMemoryCapInMegabytes;
+        save();
+        publishCacheSettings();
+    }
+
+    public List<CacheStatistics> getCacheStatistics() {
+        return CoverityConnectCacheRegistry.getCacheStatistics();
+    }
+
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return CircuitBreakerRegistry.getCircuitBreakers();
+    }
+
+    @POST
+    public FormValidation doResetCircuitBreakers() {
+        Jenkins.getInstance().checkPermission(Jenkins.ADMINISTER);
+        CircuitBreakerRegistry.resetAll();
+        return FormValidation.ok("All Coverity Connect circuit breakers were reset.");
+    }
+
+    @POST
+    public FormValidation doClearCaches() {
+        Jenkins.getInstance().checkPermission(Jenkins.ADMINISTER);
+        CoverityConnectCacheRegistry.evictAll();
+        return FormValidation.ok("All cached Coverity Connect data was cleared.");
+    }
+
+    private void publishCacheSettings() {
+        CacheSettings.setCurrent(new CacheSettings(getCacheTimeToLiveInMinutes(), getMaxCachedEntriesPerInstance(), getCacheIdleEvictionInMinutes(), getCacheMemoryCapInMegabytes()));
+    }
+
+    private int valueOrDefault(Integer configuredValue, int defaultValue) {
+        if (configuredValue == null || configuredValue <= 0) {
+            return defaultValue;
+        }
+        return configuredValue;
     }
 
 }
@@ -0,0 +1,92 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.global;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import com.synopsys.integration.jenkins.annotations.HelpMarkdown;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.AnalysisAdmissionController;
+
+import hudson.Extension;
+import hudson.model.Node;
+import hudson.slaves.NodeProperty;
+import hudson.slaves.NodePropertyDescriptor;
+
+/**
+ * Limits how many Coverity analyses the builds on a node may run at the same time.
+ */
+public class CoverityNodeProperty extends NodeProperty<Node> {
+    @Nullable
+    @HelpMarkdown("The maximum number of cov-analyze or cov-run-desktop commands that may run on this node at the same time. Further analyses wait until one finishes. Leave empty for no limit.")
+    private Integer maxConcurrentAnalyses;
+
+    @Nullable
+    @HelpMarkdown("The memory, in MiB, that the analyses running on this node may use together. Each analysis is assumed to need 2048 MiB per analysis worker, as given by its -j or --jobs argument, or one worker when that is not set.  \r\n"
+                      + "Leave empty to use the memory available to the agent, including container (cgroup) limits.")
+    private Integer analysisMemoryBudget;
+
+    @DataBoundConstructor
+    public CoverityNodeProperty() {
+        super();
+    }
+
+    public Integer getMaxConcurrentAnalyses() {
+        return maxConcurrentAnalyses;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentAnalyses(Integer maxConcurrentAnalyses) {
+        this.maxConcurrentAnalyses = maxConcurrentAnalyses;
+    }
+
+    public Integer getAnalysisMemoryBudget() {
+        return analysisMemoryBudget;
+    }
+
+    @DataBoundSetter
+    public void setAnalysisMemoryBudget(Integer analysisMemoryBudget) {
+        this.analysisMemoryBudget = analysisMemoryBudget;
+    }
+
+    public AnalysisAdmissionController.Limits getAnalysisLimits() {
+        int maxConcurrent = maxConcurrentAnalyses == null ? 0 : maxConcurrentAnalyses;
+        long memoryBudgetBytes = analysisMemoryBudget == null ? 0 : analysisMemoryBudget * 1024L * 1024L;
+        return new AnalysisAdmissionController.Limits(maxConcurrent, memoryBudgetBytes);
+    }
+
+    @Extension
+    @Symbol("coverityAnalysisLimits")
+    public static class DescriptorImpl extends NodePropertyDescriptor {
+        @Override
+        @Nonnull
+        public String getDisplayName() {
+            return "Synopsys Coverity analysis limits";
+        }
+    }
+
+}
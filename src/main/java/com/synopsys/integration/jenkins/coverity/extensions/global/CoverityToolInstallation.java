@@ -0,0 +1,138 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.global;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.EnvironmentSpecific;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.slaves.NodeSpecific;
+import hudson.tools.ToolDescriptor;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolProperty;
+import hudson.util.ListBoxModel;
+import jenkins.model.Jenkins;
+
+/**
+ * A Coverity analysis toolkit that Jenkins can install on agents on demand, so that $COVERITY_TOOL_HOME no longer has to be set up on every agent by hand.
+ */
+public class CoverityToolInstallation extends ToolInstallation implements NodeSpecific<CoverityToolInstallation>, EnvironmentSpecific<CoverityToolInstallation> {
+    private static final long serialVersionUID = -2380157322745104829L;
+
+    @DataBoundConstructor
+    public CoverityToolInstallation(String name, String home, List<? extends ToolProperty<?>> properties) {
+        super(name, home, properties);
+    }
+
+    public static Optional<CoverityToolInstallation> getInstallation(String name) {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins == null) {
+            return Optional.empty();
+        }
+        return Arrays.stream(jenkins.getDescriptorByType(DescriptorImpl.class).getInstallations())
+                   .filter(installation -> installation.getName().equals(name))
+                   .findFirst();
+    }
+
+    public static ListBoxModel getInstallationNameItems() {
+        ListBoxModel listBoxModel = new ListBoxModel();
+        listBoxModel.add("- use $" + JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString() + " -", StringUtils.EMPTY);
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        if (jenkins != null) {
+            for (CoverityToolInstallation installation : jenkins.getDescriptorByType(DescriptorImpl.class).getInstallations()) {
+                listBoxModel.add(installation.getName());
+            }
+        }
+        return listBoxModel;
+    }
+
+    /**
+     * Installs the named toolkit on the node if it is not there yet and points $COVERITY_TOOL_HOME at it. Does nothing if no toolkit is named.
+     */
+    public static void populateToolHome(@Nullable String name, @Nullable Node node, EnvVars environment, TaskListener listener) throws IOException, InterruptedException {
+        if (StringUtils.isBlank(name)) {
+            return;
+        }
+
+        CoverityToolInstallation installation = getInstallation(name)
+                                                    .orElseThrow(() -> new AbortException(String.format("No Coverity analysis installation named '%s' is configured in the Jenkins global tool configuration.", name)));
+        if (node != null) {
+            installation = installation.forNode(node, listener);
+        }
+        installation.forEnvironment(environment).buildEnvVars(environment);
+    }
+
+    @Override
+    public void buildEnvVars(EnvVars env) {
+        if (StringUtils.isNotBlank(getHome())) {
+            env.put(JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString(), getHome());
+        }
+    }
+
+    @Override
+    public CoverityToolInstallation forNode(@Nonnull Node node, TaskListener log) throws IOException, InterruptedException {
+        return new CoverityToolInstallation(getName(), translateFor(node, log), getProperties().toList());
+    }
+
+    @Override
+    public CoverityToolInstallation forEnvironment(EnvVars environment) {
+        return new CoverityToolInstallation(getName(), environment.expand(getHome()), getProperties().toList());
+    }
+
+    @Symbol("coverity")
+    @Extension
+    public static class DescriptorImpl extends ToolDescriptor<CoverityToolInstallation> {
+        public DescriptorImpl() {
+            load();
+        }
+
+        @Override
+        @Nonnull
+        public String getDisplayName() {
+            return "Coverity Analysis";
+        }
+
+        @Override
+        public void setInstallations(CoverityToolInstallation... installations) {
+            super.setInstallations(installations);
+            save();
+        }
+    }
+
+}
@@ -0,0 +1,255 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.global;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+import com.synopsys.integration.jenkins.annotations.HelpMarkdown;
+
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.tools.ToolInstallation;
+import hudson.tools.ToolInstaller;
+import hudson.tools.ToolInstallerDescriptor;
+import hudson.util.FormValidation;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Installs a Coverity analysis toolkit from an archive into a cache on the node that is addressed by the archive's content, so every executor and every build on
+ * the node reuses one unpacked copy.
+ */
+public class CoverityToolInstaller extends ToolInstaller {
+    public static final String CACHE_DIRECTORY_NAME = "coverity-analysis";
+
+    @HelpMarkdown("The URL of a .tar.gz, .tgz, .tar or .zip archive of the Coverity analysis toolkit, for example one hosted on Coverity Connect, in Jenkins userContent or on a file share (file:/...).  \r\n"
+                      + "The archive is downloaded by the agent itself and unpacked while it downloads.")
+    private final String archiveUrl;
+
+    @Nullable
+    @HelpMarkdown("The SHA-256 checksum of the archive.  \r\n"
+                      + "When set, the download is verified against it and the installation is cached under it, so changing the archive behind the same URL is picked up. "
+                      + "Without it, the installation is cached by URL and a new toolkit version needs a new URL.")
+    private String sha256;
+
+    @DataBoundConstructor
+    public CoverityToolInstaller(String label, String archiveUrl) {
+        super(label);
+        this.archiveUrl = archiveUrl;
+    }
+
+    public String getArchiveUrl() {
+        return archiveUrl;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    @DataBoundSetter
+    public void setSha256(String sha256) {
+        this.sha256 = StringUtils.trimToNull(StringUtils.lowerCase(sha256));
+    }
+
+    @Override
+    public FilePath performInstallation(ToolInstallation tool, Node node, TaskListener log) throws IOException, InterruptedException {
+        if (StringUtils.isBlank(archiveUrl)) {
+            throw new AbortException(String.format("No archive URL is configured to install Coverity analysis '%s' from.", tool.getName()));
+        }
+
+        FilePath rootPath = node.getRootPath();
+        if (rootPath == null) {
+            throw new AbortException(String.format("Cannot install Coverity analysis '%s' because %s is offline.", tool.getName(), node.getDisplayName()));
+        }
+
+        FilePath cacheDirectory = rootPath.child("tools").child(CACHE_DIRECTORY_NAME);
+        String toolHome = cacheDirectory.act(new InstallFromArchive(archiveUrl, sha256, getCacheKey(), log));
+        return new FilePath(cacheDirectory.getChannel(), toolHome);
+    }
+
+    private String getCacheKey() {
+        if (sha256 != null) {
+            return sha256;
+        }
+        return "url-" + Util.getDigestOf(archiveUrl);
+    }
+
+    private static final class InstallFromArchive extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 6290140531467711823L;
+        // Executors on the same agent that need the same toolkit wait for one download instead of each starting their own
+        private static final Map<String, Object> INSTALL_LOCKS = new ConcurrentHashMap<>();
+        // The other executors wait on the lock while the archive downloads, so a stalled server must not hold them forever
+        private static final int CONNECT_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(30);
+        private static final int READ_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(5);
+        private final String archiveUrl;
+        private final String expectedSha256;
+        private final String cacheKey;
+        private final TaskListener listener;
+
+        private InstallFromArchive(String archiveUrl, @Nullable String expectedSha256, String cacheKey, TaskListener listener) {
+            this.archiveUrl = archiveUrl;
+            this.expectedSha256 = expectedSha256;
+            this.cacheKey = cacheKey;
+            this.listener = listener;
+        }
+
+        @Override
+        public String invoke(File cacheDirectory, VirtualChannel channel) throws IOException, InterruptedException {
+            Path installDirectory = cacheDirectory.toPath().resolve(cacheKey);
+            synchronized (INSTALL_LOCKS.computeIfAbsent(cacheKey, ignored -> new Object())) {
+                if (!Files.isDirectory(installDirectory)) {
+                    install(cacheDirectory.toPath(), installDirectory);
+                } else {
+                    listener.getLogger().println(String.format("Using the cached Coverity analysis installation in %s", installDirectory));
+                }
+            }
+            return findToolHome(installDirectory).toString();
+        }
+
+        private void install(Path cacheDirectory, Path installDirectory) throws IOException, InterruptedException {
+            Files.createDirectories(cacheDirectory);
+            // Unpacked next to its final location and moved into place only once complete, so an interrupted install is never mistaken for a cached one
+            Path partialDirectory = Files.createTempDirectory(cacheDirectory, cacheKey + ".partial");
+            try {
+                listener.getLogger().println(String.format("Installing Coverity analysis from %s into %s", archiveUrl, installDirectory));
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+                try (InputStream archiveStream = new DigestInputStream(new BufferedInputStream(openArchive()), messageDigest)) {
+                    FilePath partialFilePath = new FilePath(partialDirectory.toFile());
+                    String lowerCaseUrl = archiveUrl.toLowerCase();
+                    if (lowerCaseUrl.endsWith(".zip")) {
+                        partialFilePath.unzipFrom(archiveStream);
+                    } else if (lowerCaseUrl.endsWith(".tar")) {
+                        partialFilePath.untarFrom(archiveStream, FilePath.TarCompression.NONE);
+                    } else {
+                        partialFilePath.untarFrom(archiveStream, FilePath.TarCompression.GZIP);
+                    }
+                    // Archives can carry padding after their last entry, and the checksum covers the whole file
+                    IOUtils.skip(archiveStream, Long.MAX_VALUE);
+                }
+
+                String actualSha256 = Hex.encodeHexString(messageDigest.digest());
+                if (expectedSha256 != null && !expectedSha256.equals(actualSha256)) {
+                    throw new AbortException(String.format("The Coverity analysis archive at %s has SHA-256 %s, but %s was expected.", archiveUrl, actualSha256, expectedSha256));
+                }
+
+                try {
+                    Files.move(partialDirectory, installDirectory, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileSystemException e) {
+                    // Installed in the meantime through another connection to this agent
+                    if (!Files.isDirectory(installDirectory)) {
+                        throw e;
+                    }
+                    listener.getLogger().println(String.format("Coverity analysis was installed into %s concurrently, using that installation", installDirectory));
+                }
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            } finally {
+                if (Files.exists(partialDirectory)) {
+                    Util.deleteRecursive(partialDirectory.toFile());
+                }
+            }
+        }
+
+        private InputStream openArchive() throws IOException {
+            URLConnection connection = new URL(archiveUrl).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            return connection.getInputStream();
+        }
+
+        // Toolkit archives usually wrap everything in a single versioned directory
+        private Path findToolHome(Path installDirectory) throws IOException {
+            if (Files.isDirectory(installDirectory.resolve("bin"))) {
+                return installDirectory;
+            }
+            File[] children = installDirectory.toFile().listFiles(File::isDirectory);
+            if (children != null && children.length == 1 && new File(children[0], "bin").isDirectory()) {
+                return children[0].toPath();
+            }
+            throw new AbortException(String.format("The Coverity analysis archive unpacked into %s does not contain a bin directory.", installDirectory));
+        }
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends ToolInstallerDescriptor<CoverityToolInstaller> {
+        @Override
+        @Nonnull
+        public String getDisplayName() {
+            return "Install from an archive";
+        }
+
+        @Override
+        public boolean isApplicable(Class<? extends ToolInstallation> toolType) {
+            return toolType == CoverityToolInstallation.class;
+        }
+
+        public FormValidation doCheckArchiveUrl(@QueryParameter("archiveUrl") String archiveUrl) {
+            if (StringUtils.isBlank(archiveUrl)) {
+                return FormValidation.error("Please specify the URL of the archive to install from.");
+            }
+            try {
+                new URL(archiveUrl);
+            } catch (IOException e) {
+                return FormValidation.error("This is not a valid URL: " + e.getMessage());
+            }
+            return FormValidation.ok();
+        }
+
+        public FormValidation doCheckSha256(@QueryParameter("sha256") String sha256) {
+            if (StringUtils.isNotBlank(sha256) && !sha256.trim().matches("[0-9a-fA-F]{64}")) {
+                return FormValidation.error("A SHA-256 checksum is 64 hexadecimal characters.");
+            }
+            return FormValidation.ok();
+        }
+    }
+
+}
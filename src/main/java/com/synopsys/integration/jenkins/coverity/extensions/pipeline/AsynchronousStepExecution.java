@@ -0,0 +1,135 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.pipeline;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nonnull;
+
+import org.acegisecurity.Authentication;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.slf4j.LoggerFactory;
+
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+
+/**
+ * Runs a step body off the CPS VM thread and completes the step context from a callback, without borrowing a thread from the executor shared by every
+ * SynchronousNonBlockingStepExecution. On a JVM with virtual threads each step body gets its own virtual thread, so steps that are waiting on Coverity Connect hold
+ * no platform thread. Otherwise the bodies share a bounded pool of 256 threads, which can be changed with the system property
+ * com.synopsys.integration.jenkins.coverity.extensions.pipeline.AsynchronousStepExecution.maxPlatformThreads, and steps beyond its size queue until a thread is free.
+ */
+public abstract class AsynchronousStepExecution<T> extends StepExecution {
+    public static final int DEFAULT_MAX_PLATFORM_THREADS = 256;
+    private static final long serialVersionUID = -3217425934412069135L;
+
+    private transient volatile Future<?> task;
+    // Stopping the step and the cancelled body both try to complete the context, only the first one does
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    protected AsynchronousStepExecution(@Nonnull StepContext context) {
+        super(context);
+    }
+
+    protected abstract T run() throws Exception;
+
+    @Override
+    public boolean start() {
+        Authentication authentication = Jenkins.getAuthentication();
+        task = ExecutorHolder.EXECUTOR_SERVICE.submit(() -> {
+            try (ACLContext ignored = ACL.as(authentication)) {
+                T result = run();
+                if (completed.compareAndSet(false, true)) {
+                    getContext().onSuccess(result);
+                }
+            } catch (Throwable t) {
+                if (t instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                completeWithFailure(t);
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) {
+        Future<?> runningTask = task;
+        if (runningTask != null) {
+            runningTask.cancel(true);
+        }
+        completeWithFailure(cause);
+    }
+
+    @Override
+    public void onResume() {
+        completeWithFailure(new IllegalStateException("The step was running when Jenkins restarted and cannot be resumed; please run the build again."));
+    }
+
+    private void completeWithFailure(Throwable cause) {
+        if (completed.compareAndSet(false, true)) {
+            getContext().onFailure(cause);
+        }
+    }
+
+    @Override
+    public String getStatus() {
+        Future<?> runningTask = task;
+        if (runningTask == null) {
+            return "not started";
+        }
+        return runningTask.isDone() ? "completed" : "waiting on Coverity Connect";
+    }
+
+    private static final class ExecutorHolder {
+        private static final ExecutorService EXECUTOR_SERVICE = createExecutorService();
+
+        private static ExecutorService createExecutorService() {
+            try {
+                // Looked up reflectively because the plugin is compiled for Java 8
+                Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LoggerFactory.getLogger(AsynchronousStepExecution.class).debug("Virtual threads are not available, Coverity steps will share a bounded thread pool instead.");
+            }
+
+            int maxPlatformThreads = Integer.getInteger(AsynchronousStepExecution.class.getName() + ".maxPlatformThreads", DEFAULT_MAX_PLATFORM_THREADS);
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maxPlatformThreads, maxPlatformThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), "Coverity step execution"));
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            return threadPoolExecutor;
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.pipeline;
+
+import java.io.Serializable;
+
+import javax.annotation.Nonnull;
+
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import com.synopsys.integration.jenkins.annotations.HelpMarkdown;
+
+import hudson.Extension;
+import hudson.model.AbstractDescribableImpl;
+import hudson.model.Descriptor;
+
+public class ProjectStreamPair extends AbstractDescribableImpl<ProjectStreamPair> implements Serializable {
+    private static final long serialVersionUID = 6180547731370148271L;
+
+    @HelpMarkdown("Specify the name of the Coverity project. It will be created with defaults if it does not exist.")
+    private final String projectName;
+
+    @HelpMarkdown("Specify the name of the Coverity stream. It will be created in the project as an Any language stream with the Default Triage Store if it does not exist.")
+    private final String streamName;
+
+    @DataBoundConstructor
+    public ProjectStreamPair(String projectName, String streamName) {
+        this.projectName = projectName;
+        this.streamName = streamName;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String getStreamName() {
+        return streamName;
+    }
+
+    @Override
+    public DescriptorImpl getDescriptor() {
+        return (DescriptorImpl) super.getDescriptor();
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ProjectStreamPair> {
+        public DescriptorImpl() {
+            super(ProjectStreamPair.class);
+            load();
+        }
+
+        @Override
+        @Nonnull
+        public String getDisplayName() {
+            return "";
+        }
+
+    }
+
+}
@@ -0,0 +1,221 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.pipeline;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.slf4j.LoggerFactory;
+
+import com.synopsys.integration.jenkins.JenkinsVersionHelper;
+import com.synopsys.integration.jenkins.annotations.HelpMarkdown;
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectUrlFieldHelper;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityWorkflowStepFactory;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.ProvisionProjectsAndStreams;
+import com.synopsys.integration.log.Slf4jIntLogger;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.Launcher;
+import hudson.Util;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import jenkins.model.Jenkins;
+
+public class ProvisionStreamsStep extends Step implements Serializable {
+    public static final String DISPLAY_NAME = "Provision Coverity Projects and Streams";
+    public static final String PIPELINE_NAME = "coverityProvisionStreams";
+    private static final long serialVersionUID = -2391785402906184915L;
+
+    // Any field set by a DataBoundSetter should be explicitly declared as nullable to avoid NPEs
+    @Nullable
+    @HelpMarkdown("Specify which Synopsys Coverity connect instance to provision the projects and streams on.")
+    private String coverityInstanceUrl;
+
+    @Nullable
+    @HelpMarkdown("Specify the projects and streams that should exist. Missing projects are created with defaults, missing streams are created as Any language streams with the Default Triage Store.")
+    private List<ProjectStreamPair> streams;
+
+    @Nullable
+    @HelpMarkdown("Specify how many projects or streams may be created concurrently. Defaults to 4, at most 16.")
+    private Integer parallelism;
+
+    @DataBoundConstructor
+    public ProvisionStreamsStep() {
+        // All fields are optional, so this constructor exists only to prevent some versions of the pipeline syntax generator from failing
+    }
+
+    public String getCoverityInstanceUrl() {
+        if (StringUtils.isBlank(coverityInstanceUrl)) {
+            return null;
+        }
+        return coverityInstanceUrl;
+    }
+
+    @DataBoundSetter
+    public void setCoverityInstanceUrl(String coverityInstanceUrl) {
+        this.coverityInstanceUrl = coverityInstanceUrl;
+    }
+
+    public List<ProjectStreamPair> getStreams() {
+        return streams;
+    }
+
+    @DataBoundSetter
+    public void setStreams(List<ProjectStreamPair> streams) {
+        this.streams = streams;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    @DataBoundSetter
+    public void setParallelism(Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new Execution(context);
+    }
+
+    @Symbol(PIPELINE_NAME)
+    @Extension(optional = true)
+    public static final class DescriptorImpl extends StepDescriptor {
+        private final CoverityConnectUrlFieldHelper coverityConnectUrlFieldHelper;
+
+        public DescriptorImpl() {
+            Slf4jIntLogger slf4jIntLogger = new Slf4jIntLogger(LoggerFactory.getLogger(this.getClass()));
+            coverityConnectUrlFieldHelper = new CoverityConnectUrlFieldHelper(slf4jIntLogger);
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return new HashSet<>(Arrays.asList(TaskListener.class, EnvVars.class));
+        }
+
+        @Override
+        public String getFunctionName() {
+            return PIPELINE_NAME;
+        }
+
+        @Nonnull
+        @Override
+        public String getDisplayName() {
+            return DISPLAY_NAME;
+        }
+
+        public ListBoxModel doFillCoverityInstanceUrlItems() {
+            return coverityConnectUrlFieldHelper.doFillCoverityInstanceUrlItems();
+        }
+
+        public FormValidation doCheckCoverityInstanceUrl(@QueryParameter("coverityInstanceUrl") String coverityInstanceUrl) {
+            return coverityConnectUrlFieldHelper.doCheckCoverityInstanceUrl(coverityInstanceUrl);
+        }
+
+        public FormValidation doCheckParallelism(@QueryParameter("parallelism") String parallelism) {
+            if (StringUtils.isBlank(parallelism)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.validatePositiveInteger(parallelism);
+        }
+
+    }
+
+    public class Execution extends AsynchronousStepExecution<Integer> {
+        private static final long serialVersionUID = 5260926353541585264L;
+        private final transient TaskListener listener;
+        private final transient EnvVars envVars;
+        private final transient Node node;
+        private final transient Launcher launcher;
+
+        protected Execution(@Nonnull StepContext context) throws InterruptedException, IOException {
+            super(context);
+            listener = context.get(TaskListener.class);
+            envVars = context.get(EnvVars.class);
+            node = context.get(Node.class);
+            launcher = context.get(Launcher.class);
+        }
+
+        @Override
+        protected Integer run() throws Exception {
+            CoverityWorkflowStepFactory coverityWorkflowStepFactory = new CoverityWorkflowStepFactory(envVars, node, launcher, listener);
+            CoverityJenkinsIntLogger logger = coverityWorkflowStepFactory.getOrCreateLogger();
+            IntEnvironmentVariables intEnvironmentVariables = coverityWorkflowStepFactory.getOrCreateEnvironmentVariables();
+            Map<String, String> variables = intEnvironmentVariables.getVariables();
+
+            String unresolvedCoverityInstanceUrl = coverityInstanceUrl;
+            if (StringUtils.isBlank(unresolvedCoverityInstanceUrl)) {
+                unresolvedCoverityInstanceUrl = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString());
+            }
+            if (StringUtils.isBlank(unresolvedCoverityInstanceUrl)) {
+                throw new AbortException("Coverity provisioning failed because required parameter coverityInstanceUrl was not set. Please set coverityInstanceUrl or populate $"
+                                             + JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString() + " with the desired value.");
+            }
+            String resolvedCoverityInstanceUrl = Util.replaceMacro(unresolvedCoverityInstanceUrl, variables);
+
+            if (streams == null || streams.isEmpty()) {
+                throw new AbortException("Coverity provisioning failed because required parameter streams was not set. Please provide at least one projectName/streamName pair.");
+            }
+            List<ProjectStreamPair> resolvedStreams = streams.stream()
+                                                          .map(pair -> new ProjectStreamPair(Util.replaceMacro(pair.getProjectName(), variables), Util.replaceMacro(pair.getStreamName(), variables)))
+                                                          .collect(Collectors.toList());
+            if (resolvedStreams.stream().anyMatch(pair -> StringUtils.isBlank(pair.getProjectName()) || StringUtils.isBlank(pair.getStreamName()))) {
+                throw new AbortException("Coverity provisioning failed because every entry in streams requires both a projectName and a streamName.");
+            }
+
+            int resolvedParallelism = parallelism != null ? parallelism : ProvisionProjectsAndStreams.DEFAULT_PARALLELISM;
+            JenkinsVersionHelper jenkinsVersionHelper = new JenkinsVersionHelper(Jenkins.getInstanceOrNull());
+
+            ProvisionStreamsStepWorkflow provisionStreamsStepWorkflow = new ProvisionStreamsStepWorkflow(logger, jenkinsVersionHelper,
+                () -> coverityWorkflowStepFactory.getWebServiceFactoryFromUrl(resolvedCoverityInstanceUrl), coverityWorkflowStepFactory, resolvedCoverityInstanceUrl, resolvedStreams, resolvedParallelism);
+            return provisionStreamsStepWorkflow.perform();
+        }
+
+    }
+}
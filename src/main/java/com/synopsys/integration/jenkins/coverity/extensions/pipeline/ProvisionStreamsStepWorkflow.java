@@ -0,0 +1,69 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.pipeline;
+
+import java.util.List;
+
+import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.function.ThrowingSupplier;
+import com.synopsys.integration.jenkins.JenkinsVersionHelper;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsAbortException;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityJenkinsStepWorkflow;
+import com.synopsys.integration.jenkins.coverity.stepworkflow.CoverityWorkflowStepFactory;
+import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
+import com.synopsys.integration.stepworkflow.StepWorkflow;
+
+import hudson.AbortException;
+
+public class ProvisionStreamsStepWorkflow extends CoverityJenkinsStepWorkflow<Integer> {
+    private final CoverityWorkflowStepFactory coverityWorkflowStepFactory;
+    private final String coverityInstanceUrl;
+    private final List<ProjectStreamPair> projectStreamPairs;
+    private final int parallelism;
+
+    public ProvisionStreamsStepWorkflow(JenkinsIntLogger jenkinsIntLogger, JenkinsVersionHelper jenkinsVersionHelper, ThrowingSupplier<WebServiceFactory, CoverityJenkinsAbortException> webServiceFactorySupplier,
+        CoverityWorkflowStepFactory coverityWorkflowStepFactory, String coverityInstanceUrl, List<ProjectStreamPair> projectStreamPairs, int parallelism) {
+        super(jenkinsIntLogger, jenkinsVersionHelper, webServiceFactorySupplier);
+        this.coverityWorkflowStepFactory = coverityWorkflowStepFactory;
+        this.coverityInstanceUrl = coverityInstanceUrl;
+        this.projectStreamPairs = projectStreamPairs;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    protected StepWorkflow<Integer> buildWorkflow() throws AbortException {
+        // The web service factory is connected by runWorkflow(), so hand out the already connected one rather than connecting again
+        return StepWorkflow.first(coverityWorkflowStepFactory.createStepProvisionProjectsAndStreams(() -> webServiceFactory, coverityInstanceUrl, projectStreamPairs, parallelism))
+                   .build();
+    }
+
+    @Override
+    public Integer perform() throws Exception {
+        return runWorkflow().getDataOrThrowException();
+    }
+
+    @Override
+    protected void cleanUp() throws CoverityJenkinsAbortException {
+        // Nothing to clean up
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.listeners.ItemListener;
+import hudson.util.AtomicFileWriter;
+
+/**
+ * How long full and incremental analyses of one job have taken, kept in a small text file in the job's directory. An incremental analysis is modelled as a fixed
+ * overhead plus a cost per file, fitted over the smoothed file counts and durations of past runs. The per-file part of each run is attributed to the files it
+ * was given, so that the cost of a change set can be estimated from the files in it, falling back to the file's extension and then to the average file.
+ */
+public class AnalysisCostHistory {
+    public static final String FILE_NAME = "coverity-analysis-cost.txt";
+    public static final int MAX_FILE_ENTRIES = 5000;
+    // Weight of the newest measurement, so that the estimates follow a code base that grows or a toolkit that gets faster
+    private static final double SMOOTHING = 0.3;
+    // Below this, past runs changed too similar numbers of files to tell the overhead from the per-file cost
+    private static final double MIN_FILE_COUNT_VARIANCE = 0.25;
+    public static final int MAX_CACHED_JOBS = 256;
+    // In access order, so that the jobs that have not built in the longest time are forgotten first; their history stays on disk
+    private static final Map<File, AnalysisCostHistory> JOB_HISTORIES = Collections.synchronizedMap(new LinkedHashMap<File, AnalysisCostHistory>(16, 0.75f, true) {
+        private static final long serialVersionUID = 4915815839474392127L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, AnalysisCostHistory> eldest) {
+            return size() > MAX_CACHED_JOBS;
+        }
+    });
+
+    private final File historyFile;
+    private boolean loaded = false;
+    private double fullAnalysisMillis = 0;
+    private double overheadMillis = 0;
+    private double averageFileMillis = 0;
+    // Smoothed moments of the file counts and durations of incremental runs, from which the overhead and the per-file cost are fitted
+    private double meanFiles = 0;
+    private double meanMillis = 0;
+    private double meanFilesSquared = 0;
+    private double meanFilesTimesMillis = 0;
+    private final Map<String, Double> extensionMillis = new HashMap<>();
+    // In access order, so that files nobody has changed in a long time are the first to go
+    private final LinkedHashMap<String, Double> fileMillis = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+        private static final long serialVersionUID = -1904384525541011213L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+            return size() > MAX_FILE_ENTRIES;
+        }
+    };
+
+    public AnalysisCostHistory(File historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    public static AnalysisCostHistory forJob(File jobRootDirectory) {
+        return JOB_HISTORIES.computeIfAbsent(new File(jobRootDirectory, FILE_NAME), AnalysisCostHistory::new);
+    }
+
+    // Forgets the histories in and below the given directory, so that a deleted or moved job is not written to at its old location
+    public static void forgetJobs(File rootDirectory) {
+        synchronized (JOB_HISTORIES) {
+            JOB_HISTORIES.keySet().removeIf(historyFile -> historyFile.toPath().startsWith(rootDirectory.toPath()));
+        }
+    }
+
+    public static void forgetMissingJobs() {
+        synchronized (JOB_HISTORIES) {
+            JOB_HISTORIES.keySet().removeIf(historyFile -> !historyFile.getParentFile().isDirectory());
+        }
+    }
+
+    public static int getCachedJobCount() {
+        return JOB_HISTORIES.size();
+    }
+
+    public synchronized OptionalLong estimateFullAnalysisMillis() throws IOException {
+        load();
+        return fullAnalysisMillis > 0 ? OptionalLong.of(Math.round(fullAnalysisMillis)) : OptionalLong.empty();
+    }
+
+    public synchronized OptionalLong estimateIncrementalAnalysisMillis(Collection<String> changedFiles) throws IOException {
+        load();
+        if (averageFileMillis <= 0) {
+            return OptionalLong.empty();
+        }
+
+        double estimatedMillis = overheadMillis;
+        for (String changedFile : changedFiles) {
+            Double knownMillis = fileMillis.get(changedFile);
+            if (knownMillis == null) {
+                knownMillis = extensionMillis.getOrDefault(toExtension(changedFile), averageFileMillis);
+            }
+            estimatedMillis += knownMillis;
+        }
+        return OptionalLong.of(Math.round(estimatedMillis));
+    }
+
+    public synchronized void recordFullAnalysis(long elapsedMillis) throws IOException {
+        load();
+        fullAnalysisMillis = smooth(fullAnalysisMillis, elapsedMillis);
+        save();
+    }
+
+    public synchronized void recordIncrementalAnalysis(Collection<String> changedFiles, long elapsedMillis) throws IOException {
+        if (changedFiles.isEmpty()) {
+            return;
+        }
+        load();
+
+        int fileCount = changedFiles.size();
+        meanFiles = smooth(meanFiles, fileCount);
+        meanMillis = smooth(meanMillis, elapsedMillis);
+        meanFilesSquared = smooth(meanFilesSquared, (double) fileCount * fileCount);
+        meanFilesTimesMillis = smooth(meanFilesTimesMillis, (double) fileCount * elapsedMillis);
+        fitOverheadAndFileCost();
+
+        // The tool does not report time per file, so each file is charged an equal share of what the run took beyond the overhead
+        double millisPerFile = Math.max(0, elapsedMillis - overheadMillis) / fileCount;
+        for (String changedFile : changedFiles) {
+            extensionMillis.put(toExtension(changedFile), smooth(extensionMillis.getOrDefault(toExtension(changedFile), 0.0), millisPerFile));
+            fileMillis.put(changedFile, smooth(fileMillis.getOrDefault(changedFile, 0.0), millisPerFile));
+        }
+        save();
+    }
+
+    private void fitOverheadAndFileCost() {
+        double millisPerFileOnAverage = meanFiles > 0 ? meanMillis / meanFiles : 0;
+        double fileCountVariance = meanFilesSquared - meanFiles * meanFiles;
+        double fittedFileMillis = fileCountVariance >= MIN_FILE_COUNT_VARIANCE ? (meanFilesTimesMillis - meanFiles * meanMillis) / fileCountVariance : 0;
+        if (fittedFileMillis <= 0) {
+            // Without runs of different sizes, or when larger runs were not slower, there is no overhead to tell apart
+            averageFileMillis = millisPerFileOnAverage;
+            overheadMillis = 0;
+        } else {
+            averageFileMillis = Math.min(fittedFileMillis, millisPerFileOnAverage);
+            overheadMillis = meanMillis - averageFileMillis * meanFiles;
+        }
+    }
+
+    private double smooth(double previousMillis, double measuredMillis) {
+        return previousMillis > 0 ? previousMillis + SMOOTHING * (measuredMillis - previousMillis) : measuredMillis;
+    }
+
+    private String toExtension(String path) {
+        return StringUtils.lowerCase(FilenameUtils.getExtension(path));
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!historyFile.isFile()) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(historyFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", 3);
+                if ("full".equals(fields[0]) && fields.length == 2) {
+                    fullAnalysisMillis = NumberUtils.toDouble(fields[1]);
+                } else if ("overhead".equals(fields[0]) && fields.length == 2) {
+                    overheadMillis = NumberUtils.toDouble(fields[1]);
+                } else if ("file-average".equals(fields[0]) && fields.length == 2) {
+                    averageFileMillis = NumberUtils.toDouble(fields[1]);
+                } else if ("mean-files".equals(fields[0]) && fields.length == 2) {
+                    meanFiles = NumberUtils.toDouble(fields[1]);
+                } else if ("mean-millis".equals(fields[0]) && fields.length == 2) {
+                    meanMillis = NumberUtils.toDouble(fields[1]);
+                } else if ("mean-files-squared".equals(fields[0]) && fields.length == 2) {
+                    meanFilesSquared = NumberUtils.toDouble(fields[1]);
+                } else if ("mean-files-times-millis".equals(fields[0]) && fields.length == 2) {
+                    meanFilesTimesMillis = NumberUtils.toDouble(fields[1]);
+                } else if ("extension".equals(fields[0]) && fields.length == 3) {
+                    extensionMillis.put(fields[2], NumberUtils.toDouble(fields[1]));
+                } else if ("file".equals(fields[0]) && fields.length == 3) {
+                    fileMillis.put(fields[2], NumberUtils.toDouble(fields[1]));
+                }
+            }
+        }
+    }
+
+    private void save() throws IOException {
+        AtomicFileWriter writer = new AtomicFileWriter(historyFile);
+        try {
+            writer.write(String.format(Locale.ROOT, "full\t%.0f%n", fullAnalysisMillis));
+            writer.write(String.format(Locale.ROOT, "overhead\t%.0f%n", overheadMillis));
+            writer.write(String.format(Locale.ROOT, "file-average\t%.0f%n", averageFileMillis));
+            // Unrounded, since the fit subtracts them from each other
+            writer.write(String.format(Locale.ROOT, "mean-files\t%s%n", meanFiles));
+            writer.write(String.format(Locale.ROOT, "mean-millis\t%s%n", meanMillis));
+            writer.write(String.format(Locale.ROOT, "mean-files-squared\t%s%n", meanFilesSquared));
+            writer.write(String.format(Locale.ROOT, "mean-files-times-millis\t%s%n", meanFilesTimesMillis));
+            for (Map.Entry<String, Double> extension : extensionMillis.entrySet()) {
+                writer.write(String.format(Locale.ROOT, "extension\t%.0f\t%s%n", extension.getValue(), extension.getKey()));
+            }
+            // Least recently changed first, so that reloading the file restores the eviction order
+            for (Map.Entry<String, Double> file : fileMillis.entrySet()) {
+                writer.write(String.format(Locale.ROOT, "file\t%.0f\t%s%n", file.getValue(), file.getKey()));
+            }
+            writer.commit();
+        } finally {
+            writer.abort();
+        }
+    }
+
+    @Extension
+    public static class JobListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            forgetJobs(item.getRootDir());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // Only the new location is known here, so every history whose job directory is gone is forgotten
+            forgetMissingJobs();
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.time.Duration;
+
+/**
+ * The Coverity Connect cache settings from the Jenkins system configuration. The global configuration publishes them here whenever it is loaded or saved, so the caches
+ * never have to look the configuration up themselves.
+ */
+public class CacheSettings {
+    public static final int DEFAULT_TIME_TO_LIVE_IN_MINUTES = 5;
+    public static final int DEFAULT_MAX_ENTRIES_PER_INSTANCE = 100000;
+    public static final int DEFAULT_IDLE_EVICTION_IN_MINUTES = 60;
+    public static final int DEFAULT_MEMORY_CAP_IN_MEGABYTES = 128;
+    public static final CacheSettings DEFAULT = new CacheSettings(DEFAULT_TIME_TO_LIVE_IN_MINUTES, DEFAULT_MAX_ENTRIES_PER_INSTANCE, DEFAULT_IDLE_EVICTION_IN_MINUTES, DEFAULT_MEMORY_CAP_IN_MEGABYTES);
+
+    private static volatile CacheSettings current = DEFAULT;
+
+    private final int timeToLiveInMinutes;
+    private final int maxEntriesPerInstance;
+    private final int idleEvictionInMinutes;
+    private final int memoryCapInMegabytes;
+
+    public CacheSettings(int timeToLiveInMinutes, int maxEntriesPerInstance, int idleEvictionInMinutes, int memoryCapInMegabytes) {
+        this.timeToLiveInMinutes = Math.max(0, timeToLiveInMinutes);
+        this.maxEntriesPerInstance = Math.max(1, maxEntriesPerInstance);
+        this.idleEvictionInMinutes = Math.max(1, idleEvictionInMinutes);
+        this.memoryCapInMegabytes = Math.max(1, memoryCapInMegabytes);
+    }
+
+    public static CacheSettings getCurrent() {
+        return current;
+    }
+
+    public static void setCurrent(CacheSettings cacheSettings) {
+        current = cacheSettings != null ? cacheSettings : DEFAULT;
+    }
+
+    public Duration getTimeToLive() {
+        return Duration.ofMinutes(timeToLiveInMinutes);
+    }
+
+    public int getMaxEntriesPerInstance() {
+        return maxEntriesPerInstance;
+    }
+
+    public Duration getIdleEviction() {
+        return Duration.ofMinutes(idleEvictionInMinutes);
+    }
+
+    public long getMemoryCapInBytes() {
+        return memoryCapInMegabytes * 1024L * 1024L;
+    }
+
+}
@@ -0,0 +1,206 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and eviction counters for the caches of one kind for one Coverity Connect URL. They are owned by the registry so that they survive the eviction of the
+ * cache they describe. Statistics created with an aggregate also count towards it, which is how many small caches of one kind show up as one.
+ */
+public class CacheStatistics {
+    private final String cacheName;
+    private final String coverityConnectUrl;
+    private final CacheStatistics aggregate;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder truncations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder prewarms = new LongAdder();
+    private volatile int entryCount;
+    private volatile long estimatedSizeInBytes;
+    private volatile long lastAccessedAtMillis;
+
+    public CacheStatistics(String cacheName, String coverityConnectUrl) {
+        this(cacheName, coverityConnectUrl, null);
+    }
+
+    public CacheStatistics(String cacheName, String coverityConnectUrl, CacheStatistics aggregate) {
+        this.cacheName = cacheName;
+        this.coverityConnectUrl = coverityConnectUrl;
+        this.aggregate = aggregate;
+        this.lastAccessedAtMillis = System.currentTimeMillis();
+    }
+
+    public CacheStatistics createPart(String partName) {
+        return new CacheStatistics(cacheName + ": " + partName, coverityConnectUrl, this);
+    }
+
+    public void recordHit() {
+        hits.increment();
+        recordAccess();
+        if (aggregate != null) {
+            aggregate.recordHit();
+        }
+    }
+
+    public void recordStaleHit() {
+        staleHits.increment();
+        recordAccess();
+        if (aggregate != null) {
+            aggregate.recordStaleHit();
+        }
+    }
+
+    public void recordMiss() {
+        misses.increment();
+        recordAccess();
+        if (aggregate != null) {
+            aggregate.recordMiss();
+        }
+    }
+
+    public void recordRefresh(int entryCount, long estimatedSizeInBytes) {
+        refreshes.increment();
+        if (aggregate != null) {
+            aggregate.refreshes.increment();
+        }
+        recordContents(entryCount, estimatedSizeInBytes);
+    }
+
+    public void recordRefreshFailure() {
+        refreshFailures.increment();
+        if (aggregate != null) {
+            aggregate.recordRefreshFailure();
+        }
+    }
+
+    public void recordTruncation() {
+        truncations.increment();
+        if (aggregate != null) {
+            aggregate.recordTruncation();
+        }
+    }
+
+    public void recordEviction() {
+        evictions.increment();
+        if (aggregate != null) {
+            aggregate.evictions.increment();
+        }
+        recordContents(0, 0);
+    }
+
+    // A cache that is pre-warmed because jobs use its instance counts as accessed, so that idle eviction does not throw the warmed data away
+    public void recordPrewarm() {
+        prewarms.increment();
+        recordAccess();
+    }
+
+    public void recordContents(int entryCount, long estimatedSizeInBytes) {
+        int entryCountChange;
+        long estimatedSizeChange;
+        synchronized (this) {
+            entryCountChange = entryCount - this.entryCount;
+            estimatedSizeChange = estimatedSizeInBytes - this.estimatedSizeInBytes;
+            this.entryCount = entryCount;
+            this.estimatedSizeInBytes = estimatedSizeInBytes;
+        }
+        if (aggregate != null) {
+            aggregate.addContents(entryCountChange, estimatedSizeChange);
+        }
+    }
+
+    private void addContents(int entryCountChange, long estimatedSizeChange) {
+        synchronized (this) {
+            entryCount += entryCountChange;
+            estimatedSizeInBytes += estimatedSizeChange;
+        }
+        if (aggregate != null) {
+            aggregate.addContents(entryCountChange, estimatedSizeChange);
+        }
+    }
+
+    private void recordAccess() {
+        lastAccessedAtMillis = System.currentTimeMillis();
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public String getCoverityConnectUrl() {
+        return coverityConnectUrl;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public long getTruncations() {
+        return truncations.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getPrewarms() {
+        return prewarms.sum();
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public long getEstimatedSizeInBytes() {
+        return estimatedSizeInBytes;
+    }
+
+    public long getEstimatedSizeInKilobytes() {
+        return estimatedSizeInBytes / 1024L;
+    }
+
+    public long getLastAccessedAtMillis() {
+        return lastAccessedAtMillis;
+    }
+
+}
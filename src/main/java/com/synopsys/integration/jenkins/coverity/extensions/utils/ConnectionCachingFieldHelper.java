@@ -22,8 +22,7 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.utils;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 import com.synopsys.integration.coverity.exception.CoverityIntegrationException;
 import com.synopsys.integration.jenkins.coverity.GlobalValueHelper;
@@ -31,13 +30,11 @@ import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConne
 import com.synopsys.integration.log.IntLogger;
 
 public abstract class ConnectionCachingFieldHelper<T extends CoverityConnectDataCache> extends FieldHelper {
-    private final ConcurrentHashMap<String, T> cacheMap;
-    private final Supplier<T> cacheConstructor;
+    private final Function<String, T> cacheLookup;
 
-    public ConnectionCachingFieldHelper(final IntLogger logger, final Supplier<T> cacheConstructor) {
+    public ConnectionCachingFieldHelper(final IntLogger logger, final Function<String, T> cacheLookup) {
         super(logger);
-        cacheMap = new ConcurrentHashMap<>();
-        this.cacheConstructor = cacheConstructor;
+        this.cacheLookup = cacheLookup;
     }
 
     public void updateNow(final String coverityConnectUrl) throws InterruptedException {
@@ -51,8 +48,7 @@ public abstract class ConnectionCachingFieldHelper<T extends CoverityConnectData
     }
 
     protected T getCache(final String coverityConnectUrl) {
-        cacheMap.putIfAbsent(coverityConnectUrl, cacheConstructor.get());
-        return cacheMap.get(coverityConnectUrl);
+        return cacheLookup.apply(coverityConnectUrl);
     }
 
 }
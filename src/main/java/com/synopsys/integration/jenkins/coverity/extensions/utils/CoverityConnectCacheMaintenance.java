@@ -0,0 +1,56 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.synopsys.integration.jenkins.coverity.GlobalValueHelper;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
+
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+
+/**
+ * Evicts the Coverity Connect caches of instances that are no longer configured, that have gone idle, or that exceed the configured memory cap, and purges expired provisioning entries.
+ */
+@Extension
+public class CoverityConnectCacheMaintenance extends PeriodicWork {
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(1);
+    }
+
+    @Override
+    protected void doRun() {
+        List<String> configuredUrls = GlobalValueHelper.getGlobalCoverityConnectInstances().stream()
+                                          .map(CoverityConnectInstance::getUrl)
+                                          .collect(Collectors.toList());
+        CoverityConnectCacheRegistry.retainOnly(configuredUrls);
+        CoverityConnectCacheRegistry.evictIdleAndOversizedCaches(CacheSettings.getCurrent());
+        // Provisioning entries are otherwise only dropped when the same stream is looked up again
+        ProvisioningCache.getInstance().purgeExpired();
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.LoggerFactory;
+
+import com.synopsys.integration.jenkins.coverity.GlobalValueHelper;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.CoverityBuildStep;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
+import com.synopsys.integration.jenkins.coverity.extensions.wrap.CoverityEnvironmentWrapper;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.log.Slf4jIntLogger;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Project;
+import hudson.model.TaskListener;
+import jenkins.model.Jenkins;
+
+/**
+ * Refreshes the project, stream and view caches of the Coverity Connect instances that jobs actually use, shortly before they would go stale, so that config pages
+ * rarely have to wait for Connect. Freestyle jobs are inspected directly; Pipeline scripts cannot be, so Pipeline steps record the instances they use when they run.
+ */
+@Extension
+public class CoverityConnectCachePrewarmer extends AsyncPeriodicWork {
+    private static final Duration PIPELINE_USAGE_TIME_TO_LIVE = Duration.ofDays(7);
+    private static final Map<String, Long> PIPELINE_USAGE = new ConcurrentHashMap<>();
+
+    private final IntLogger logger = new Slf4jIntLogger(LoggerFactory.getLogger(CoverityConnectCachePrewarmer.class));
+    private final Map<String, Long> nextPrewarmAtMillis = new ConcurrentHashMap<>();
+
+    public CoverityConnectCachePrewarmer() {
+        super("Coverity Connect cache pre-warming");
+    }
+
+    public static void recordPipelineUsage(String coverityConnectUrl) {
+        if (StringUtils.isNotBlank(coverityConnectUrl)) {
+            PIPELINE_USAGE.put(coverityConnectUrl, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(1);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws InterruptedException {
+        Set<String> urlsInUse = findCoverityConnectUrlsInUse();
+        nextPrewarmAtMillis.keySet().retainAll(urlsInUse);
+
+        for (String coverityConnectUrl : urlsInUse) {
+            long now = System.currentTimeMillis();
+            if (now < nextPrewarmAtMillis.getOrDefault(coverityConnectUrl, 0L)) {
+                continue;
+            }
+
+            Optional<CoverityConnectInstance> coverityConnectInstance = GlobalValueHelper.getCoverityInstanceWithUrl(logger, coverityConnectUrl);
+            if (coverityConnectInstance.isPresent()) {
+                prewarm(CoverityConnectCacheRegistry.getProjectStreamCache(coverityConnectUrl), coverityConnectInstance.get());
+                prewarm(CoverityConnectCacheRegistry.getIssueViewCache(coverityConnectUrl), coverityConnectInstance.get());
+            }
+            nextPrewarmAtMillis.put(coverityConnectUrl, now + nextPrewarmDelayInMillis());
+        }
+    }
+
+    private void prewarm(CoverityConnectDataCache<?> cache, CoverityConnectInstance coverityConnectInstance) throws InterruptedException {
+        cache.refresh(coverityConnectInstance);
+        cache.getStatistics().recordPrewarm();
+    }
+
+    // Somewhere in the last quarter of the time to live, so that instances used by many jobs are not all refreshed in the same minute
+    private long nextPrewarmDelayInMillis() {
+        long timeToLiveInMillis = Math.max(getRecurrencePeriod(), CacheSettings.getCurrent().getTimeToLive().toMillis());
+        long earliestDelayInMillis = timeToLiveInMillis * 3 / 4;
+        return earliestDelayInMillis + ThreadLocalRandom.current().nextLong(timeToLiveInMillis - earliestDelayInMillis + 1);
+    }
+
+    private Set<String> findCoverityConnectUrlsInUse() {
+        Set<String> urlsInUse = new HashSet<>();
+
+        for (Project<?, ?> project : Jenkins.getInstance().getAllItems(Project.class)) {
+            for (CoverityBuildStep coverityBuildStep : project.getBuildersList().getAll(CoverityBuildStep.class)) {
+                addIfLiteral(urlsInUse, coverityBuildStep.getCoverityInstanceUrl());
+            }
+            CoverityEnvironmentWrapper coverityEnvironmentWrapper = project.getBuildWrappersList().get(CoverityEnvironmentWrapper.class);
+            if (coverityEnvironmentWrapper != null) {
+                addIfLiteral(urlsInUse, coverityEnvironmentWrapper.getCoverityInstanceUrl());
+            }
+        }
+
+        long pipelineUsageCutoffMillis = System.currentTimeMillis() - PIPELINE_USAGE_TIME_TO_LIVE.toMillis();
+        PIPELINE_USAGE.values().removeIf(lastUsedAtMillis -> lastUsedAtMillis < pipelineUsageCutoffMillis);
+        PIPELINE_USAGE.keySet().forEach(coverityConnectUrl -> addIfLiteral(urlsInUse, coverityConnectUrl));
+
+        return urlsInUse;
+    }
+
+    // A URL that is resolved from build parameters or environment variables cannot be known ahead of a build
+    private void addIfLiteral(Set<String> urlsInUse, String coverityConnectUrl) {
+        if (StringUtils.isNotBlank(coverityConnectUrl) && !coverityConnectUrl.contains("$")) {
+            urlsInUse.add(coverityConnectUrl);
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.LoggerFactory;
+
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.log.Slf4jIntLogger;
+
+/**
+ * Holds exactly one cache of each kind per Coverity Connect URL, shared by every descriptor and build, so that the same instance is never fetched twice in parallel.
+ * Caches for URLs that are no longer configured, that have not been read in a while, or that push the total over the memory cap are evicted.
+ */
+public class CoverityConnectCacheRegistry {
+    public static final String PROJECT_STREAM_CACHE_NAME = "Projects and streams";
+    public static final String ISSUE_VIEW_CACHE_NAME = "Issue views";
+    public static final String STREAM_CACHE_NAME = "Project streams";
+
+    private static final IntLogger CACHE_LOGGER = new Slf4jIntLogger(LoggerFactory.getLogger(CoverityConnectCacheRegistry.class));
+    private static final Map<String, ProjectStreamCache> PROJECT_STREAM_CACHES = new ConcurrentHashMap<>();
+    private static final Map<String, IssueViewCache> ISSUE_VIEW_CACHES = new ConcurrentHashMap<>();
+    private static final Map<String, CacheStatistics> PROJECT_STREAM_STATISTICS = new ConcurrentHashMap<>();
+    private static final Map<String, CacheStatistics> ISSUE_VIEW_STATISTICS = new ConcurrentHashMap<>();
+    private static final Map<String, CacheStatistics> STREAM_STATISTICS = new ConcurrentHashMap<>();
+
+    private CoverityConnectCacheRegistry() {
+        // This class should not be instantiated
+    }
+
+    public static ProjectStreamCache getProjectStreamCache(String coverityConnectUrl) {
+        String key = StringUtils.defaultString(coverityConnectUrl);
+        return PROJECT_STREAM_CACHES.computeIfAbsent(key, ignored -> new ProjectStreamCache(CACHE_LOGGER, getStatistics(PROJECT_STREAM_STATISTICS, PROJECT_STREAM_CACHE_NAME, key),
+            getStatistics(STREAM_STATISTICS, STREAM_CACHE_NAME, key)));
+    }
+
+    public static IssueViewCache getIssueViewCache(String coverityConnectUrl) {
+        String key = StringUtils.defaultString(coverityConnectUrl);
+        return ISSUE_VIEW_CACHES.computeIfAbsent(key, ignored -> new IssueViewCache(CACHE_LOGGER, getStatistics(ISSUE_VIEW_STATISTICS, ISSUE_VIEW_CACHE_NAME, key)));
+    }
+
+    public static List<CacheStatistics> getCacheStatistics() {
+        return Stream.of(PROJECT_STREAM_STATISTICS, STREAM_STATISTICS, ISSUE_VIEW_STATISTICS)
+                   .flatMap(statistics -> statistics.values().stream())
+                   .sorted(Comparator.comparing(CacheStatistics::getCoverityConnectUrl).thenComparing(CacheStatistics::getCacheName))
+                   .collect(Collectors.toList());
+    }
+
+    public static void evictAll() {
+        new ArrayList<>(PROJECT_STREAM_CACHES.keySet()).forEach(url -> evict(PROJECT_STREAM_CACHES, url));
+        new ArrayList<>(ISSUE_VIEW_CACHES.keySet()).forEach(url -> evict(ISSUE_VIEW_CACHES, url));
+    }
+
+    /**
+     * Evicts the caches, and forgets the statistics, of every Coverity Connect URL that is no longer configured.
+     */
+    public static void retainOnly(Collection<String> configuredUrls) {
+        Set<String> retainedUrls = new HashSet<>(configuredUrls);
+        new ArrayList<>(PROJECT_STREAM_CACHES.keySet()).stream().filter(url -> !retainedUrls.contains(url)).forEach(url -> evict(PROJECT_STREAM_CACHES, url));
+        new ArrayList<>(ISSUE_VIEW_CACHES.keySet()).stream().filter(url -> !retainedUrls.contains(url)).forEach(url -> evict(ISSUE_VIEW_CACHES, url));
+        PROJECT_STREAM_STATISTICS.keySet().retainAll(retainedUrls);
+        ISSUE_VIEW_STATISTICS.keySet().retainAll(retainedUrls);
+        STREAM_STATISTICS.keySet().retainAll(retainedUrls);
+    }
+
+    public static void evictIdleAndOversizedCaches(CacheSettings cacheSettings) {
+        long idleCutoffMillis = System.currentTimeMillis() - cacheSettings.getIdleEviction().toMillis();
+        new ArrayList<>(PROJECT_STREAM_CACHES.entrySet()).stream()
+            .filter(entry -> entry.getValue().getStatistics().getLastAccessedAtMillis() < idleCutoffMillis)
+            .forEach(entry -> evict(PROJECT_STREAM_CACHES, entry.getKey()));
+        new ArrayList<>(ISSUE_VIEW_CACHES.entrySet()).stream()
+            .filter(entry -> entry.getValue().getStatistics().getLastAccessedAtMillis() < idleCutoffMillis)
+            .forEach(entry -> evict(ISSUE_VIEW_CACHES, entry.getKey()));
+        PROJECT_STREAM_CACHES.values().forEach(projectStreamCache -> {
+            projectStreamCache.evictIdleStreams(cacheSettings.getIdleEviction());
+            projectStreamCache.evictStreamsOverLimits(cacheSettings.getMaxEntriesPerInstance(), cacheSettings.getMemoryCapInBytes());
+        });
+
+        // Least recently used first, but the most recently used cache is always kept; its own size is already bounded when it is refreshed
+        List<CoverityConnectDataCache<?>> cachesByLastAccess = Stream.concat(PROJECT_STREAM_CACHES.values().stream(), ISSUE_VIEW_CACHES.values().stream())
+                                                                   .sorted(Comparator.comparingLong(cache -> cache.getStatistics().getLastAccessedAtMillis()))
+                                                                   .collect(Collectors.toList());
+        long totalSizeInBytes = cachesByLastAccess.stream()
+                                    .mapToLong(CoverityConnectCacheRegistry::getEstimatedSizeInBytes)
+                                    .sum();
+        for (int i = 0; i < cachesByLastAccess.size() - 1 && totalSizeInBytes > cacheSettings.getMemoryCapInBytes(); i++) {
+            CoverityConnectDataCache<?> cache = cachesByLastAccess.get(i);
+            totalSizeInBytes -= getEstimatedSizeInBytes(cache);
+            String url = cache.getStatistics().getCoverityConnectUrl();
+            if (cache instanceof ProjectStreamCache) {
+                evict(PROJECT_STREAM_CACHES, url);
+            } else {
+                evict(ISSUE_VIEW_CACHES, url);
+            }
+        }
+    }
+
+    // A project cache also holds the streams of every project browsed through it
+    private static long getEstimatedSizeInBytes(CoverityConnectDataCache<?> cache) {
+        long estimatedSizeInBytes = cache.getStatistics().getEstimatedSizeInBytes();
+        if (cache instanceof ProjectStreamCache) {
+            estimatedSizeInBytes += ((ProjectStreamCache) cache).getStreamStatistics().getEstimatedSizeInBytes();
+        }
+        return estimatedSizeInBytes;
+    }
+
+    private static CacheStatistics getStatistics(Map<String, CacheStatistics> statistics, String cacheName, String coverityConnectUrl) {
+        return statistics.computeIfAbsent(coverityConnectUrl, ignored -> new CacheStatistics(cacheName, coverityConnectUrl));
+    }
+
+    private static void evict(Map<String, ? extends CoverityConnectDataCache<?>> caches, String coverityConnectUrl) {
+        CoverityConnectDataCache<?> evictedCache = caches.remove(coverityConnectUrl);
+        if (evictedCache != null) {
+            if (evictedCache instanceof ProjectStreamCache) {
+                ((ProjectStreamCache) evictedCache).evictAllStreams();
+            }
+            evictedCache.getStatistics().recordEviction();
+            CACHE_LOGGER.debug(String.format("Evicted the %s cache for Coverity Connect instance %s", evictedCache.getStatistics().getCacheName(), coverityConnectUrl));
+        }
+    }
+
+}
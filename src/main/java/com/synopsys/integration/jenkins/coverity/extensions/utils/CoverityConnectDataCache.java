@@ -22,73 +22,257 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.utils;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.time.Instant;
-import java.util.concurrent.Semaphore;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
+import javax.xml.ws.WebServiceException;
+
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
 import com.synopsys.integration.coverity.config.CoverityServerConfig;
-import com.synopsys.integration.coverity.exception.CoverityIntegrationException;
 import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
 import com.synopsys.integration.log.IntLogger;
 
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Readers only ever dereference an immutable snapshot, so reads never block and scale with the number of cores. Once the snapshot goes stale, the first reader to
+ * notice starts a refresh in the background and everyone, that reader included, keeps reading the stale snapshot; only a cache that has never been filled makes its
+ * readers wait for the first fetch.
+ */
 public abstract class CoverityConnectDataCache<T> {
-    public static final int CACHE_TIME_IN_MINUTES = 5;
+    public static final int DEFAULT_REFRESH_THREADS = 2;
+    public static final int DEFAULT_REFRESH_QUEUE_CAPACITY = 64;
+    // At most one refresh per cache is in flight, so a few threads are enough; refreshes beyond the queue capacity are rejected and tried again on the next stale read
+    private static final ExecutorService BACKGROUND_REFRESHES = createBackgroundRefreshes();
     protected final IntLogger logger;
-    private final Semaphore semaphore;
-    private Instant lastTimeRetrieved;
-    private T cachedData;
+    private final CacheStatistics statistics;
+    private final AtomicReference<Snapshot<T>> snapshot;
+    // Callers that ask for a refresh while one is running wait for its result instead of fetching again
+    private final AtomicReference<CompletableFuture<Void>> inFlightRefresh = new AtomicReference<>();
 
     public CoverityConnectDataCache(IntLogger logger) {
+        this(logger, null);
+    }
+
+    public CoverityConnectDataCache(IntLogger logger, CacheStatistics statistics) {
         this.logger = logger;
-        this.semaphore = new Semaphore(1);
-        this.lastTimeRetrieved = Instant.MIN;
-        this.cachedData = getEmptyData();
+        this.statistics = statistics != null ? statistics : new CacheStatistics(this.getClass().getSimpleName(), null);
+        this.snapshot = new AtomicReference<>(new Snapshot<>(getEmptyData(), Instant.MIN));
     }
 
     public T getData(CoverityConnectInstance coverityConnectInstance) throws InterruptedException {
-        semaphore.acquire();
-        semaphore.release();
-        refreshIfStale(coverityConnectInstance);
-        return cachedData;
+        Snapshot<T> currentSnapshot = snapshot.get();
+        if (currentSnapshot.isStale()) {
+            if (currentSnapshot.hasNeverBeenRetrieved()) {
+                statistics.recordMiss();
+                refresh(coverityConnectInstance);
+            } else {
+                statistics.recordStaleHit();
+                refreshUnlessInFlight(coverityConnectInstance);
+            }
+            return snapshot.get().data;
+        }
+        statistics.recordHit();
+        return currentSnapshot.data;
     }
 
     public void refreshIfStale(CoverityConnectInstance coverityConnectInstance) throws InterruptedException {
-        long cacheTimeInSeconds = TimeUnit.MINUTES.toSeconds(CACHE_TIME_IN_MINUTES);
-        if (Instant.now().minusSeconds(cacheTimeInSeconds).isAfter(lastTimeRetrieved)) {
+        if (snapshot.get().isStale()) {
             refresh(coverityConnectInstance);
         }
     }
 
     public void refresh(CoverityConnectInstance coverityConnectInstance) throws InterruptedException {
-        semaphore.acquire();
+        CompletableFuture<Void> ownRefresh = new CompletableFuture<>();
+        while (!inFlightRefresh.compareAndSet(null, ownRefresh)) {
+            CompletableFuture<Void> runningRefresh = inFlightRefresh.get();
+            if (runningRefresh != null) {
+                awaitRefresh(runningRefresh);
+                return;
+            }
+        }
+
+        fetchAndComplete(coverityConnectInstance, ownRefresh);
+    }
+
+    private void refreshUnlessInFlight(CoverityConnectInstance coverityConnectInstance) {
+        CompletableFuture<Void> ownRefresh = new CompletableFuture<>();
+        if (inFlightRefresh.compareAndSet(null, ownRefresh)) {
+            try {
+                BACKGROUND_REFRESHES.execute(() -> fetchAndComplete(coverityConnectInstance, ownRefresh));
+            } catch (RejectedExecutionException e) {
+                inFlightRefresh.set(null);
+                ownRefresh.complete(null);
+                logger.warn("Could not start a background refresh of cached Coverity Connect data: " + e.getMessage());
+            }
+        }
+    }
+
+    private void fetchAndComplete(CoverityConnectInstance coverityConnectInstance, CompletableFuture<Void> ownRefresh) {
+        try {
+            fetchFreshData(coverityConnectInstance);
+        } finally {
+            inFlightRefresh.set(null);
+            ownRefresh.complete(null);
+        }
+    }
+
+    private void awaitRefresh(CompletableFuture<Void> runningRefresh) throws InterruptedException {
+        try {
+            runningRefresh.get();
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; refresh failures are logged by the thread that fetched
+        }
+    }
+
+    private void fetchFreshData(CoverityConnectInstance coverityConnectInstance) {
+        try {
+            logger.info("Refreshing connection to Coverity Connect instance...");
+            T limitedData = enforceLimits(queryConnect(coverityConnectInstance, "refresh cached Coverity Connect data", this::getFreshData));
+            snapshot.set(new Snapshot<>(limitedData, Instant.now()));
+            statistics.recordRefresh(countEntries(limitedData), estimateSizeInBytes(limitedData));
+            logger.info("Connection refreshed successfully.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Refreshing the connection to Coverity Connect instance was interrupted.");
+        } catch (MalformedURLException | IllegalArgumentException | IllegalStateException e) {
+            statistics.recordRefreshFailure();
+            logger.error("[ERROR] Could not refresh connection to Coverity Connect instance. Please confirm you have a valid URL.");
+            logger.trace("Stack trace:", e);
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception | WebServiceException e) {
+            statistics.recordRefreshFailure();
+            logger.error("[ERROR] Could not refresh connection to Coverity Connect instance: " + e.getMessage());
+            logger.trace("Stack trace:", e);
+        }
+    }
+
+    /**
+     * Runs a query against Coverity Connect with the plugin's class loader, retrying transient failures through the instance's circuit breaker.
+     */
+    protected <R> R queryConnect(CoverityConnectInstance coverityConnectInstance, String description, ConnectQuery<R> connectQuery)
+        throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
         Thread thread = Thread.currentThread();
         ClassLoader threadClassLoader = thread.getContextClassLoader();
         thread.setContextClassLoader(this.getClass().getClassLoader());
 
         try {
-            logger.info("Refreshing connection to Coverity Connect instance...");
-
             CoverityServerConfig coverityServerConfig = coverityConnectInstance.getCoverityServerConfig(logger);
             WebServiceFactory webServiceFactory = coverityServerConfig.createWebServiceFactory(logger);
-            webServiceFactory.connect();
+            ResilientConnectExecutor resilientConnectExecutor = ResilientConnectExecutor.forInteractiveUse(logger, coverityConnectInstance.getUrl());
 
-            this.cachedData = getFreshData(webServiceFactory);
-
-            lastTimeRetrieved = Instant.now();
-            logger.info("Connection refreshed successfully.");
-        } catch (MalformedURLException | IllegalArgumentException | IllegalStateException | CoverityIntegrationException e) {
-            logger.error("[ERROR] Could not refresh connection to Coverity Connect instance. Please confirm you have a valid URL.");
-            logger.trace("Stack trace:", e);
+            return resilientConnectExecutor.executeIdempotent(description, () -> {
+                webServiceFactory.connect();
+                return connectQuery.query(webServiceFactory);
+            });
         } finally {
             thread.setContextClassLoader(threadClassLoader);
-            semaphore.release();
         }
     }
 
-    protected abstract T getFreshData(WebServiceFactory webServiceFactory);
+    /**
+     * The cached data, if it has been retrieved and has not gone stale yet. Never contacts Coverity Connect.
+     */
+    protected Optional<T> getDataIfFresh() {
+        Snapshot<T> currentSnapshot = snapshot.get();
+        if (currentSnapshot.isStale()) {
+            return Optional.empty();
+        }
+        statistics.recordHit();
+        return Optional.of(currentSnapshot.data);
+    }
+
+    /**
+     * Applies a local change to the cached data without contacting Coverity Connect, e.g. to record something the plugin just created. The updater may be called more
+     * than once if the snapshot is swapped concurrently, so it must not have side effects.
+     */
+    protected void updateCachedData(UnaryOperator<T> updater) {
+        Snapshot<T> updatedSnapshot = snapshot.updateAndGet(currentSnapshot -> new Snapshot<>(updater.apply(currentSnapshot.data), currentSnapshot.retrievedAt));
+        statistics.recordContents(countEntries(updatedSnapshot.data), estimateSizeInBytes(updatedSnapshot.data));
+    }
+
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    // A single huge catalog is cut down to both the configured entry limit and the share of the memory cap it would fit in
+    private T enforceLimits(T freshData) {
+        CacheSettings cacheSettings = CacheSettings.getCurrent();
+        int entryCount = countEntries(freshData);
+        long estimatedSizeInBytes = estimateSizeInBytes(freshData);
+
+        long allowedEntries = cacheSettings.getMaxEntriesPerInstance();
+        if (estimatedSizeInBytes > cacheSettings.getMemoryCapInBytes() && estimatedSizeInBytes > 0) {
+            allowedEntries = Math.min(allowedEntries, entryCount * cacheSettings.getMemoryCapInBytes() / estimatedSizeInBytes);
+        }
+
+        if (entryCount <= allowedEntries) {
+            return freshData;
+        }
+
+        logger.warn(String.format("Coverity Connect returned %d entries (about %d KB), only the first %d will be cached. The limits can be changed in the Jenkins system configuration.", entryCount,
+            estimatedSizeInBytes / 1024L, allowedEntries));
+        statistics.recordTruncation();
+        return limitEntries(freshData, (int) allowedEntries);
+    }
+
+    protected abstract T getFreshData(WebServiceFactory webServiceFactory) throws IOException, IntegrationException, CovRemoteServiceException_Exception;
 
     protected abstract T getEmptyData();
 
+    protected abstract int countEntries(T data);
+
+    /**
+     * A rough estimate of the heap retained by the data, used to keep the caches within the configured memory cap.
+     */
+    protected abstract long estimateSizeInBytes(T data);
+
+    protected abstract T limitEntries(T data, int maxEntries);
+
+    @FunctionalInterface
+    protected interface ConnectQuery<R> {
+        R query(WebServiceFactory webServiceFactory) throws IOException, IntegrationException, CovRemoteServiceException_Exception;
+    }
+
+    private static ExecutorService createBackgroundRefreshes() {
+        int refreshThreads = Integer.getInteger(CoverityConnectDataCache.class.getName() + ".refreshThreads", DEFAULT_REFRESH_THREADS);
+        int refreshQueueCapacity = Integer.getInteger(CoverityConnectDataCache.class.getName() + ".refreshQueueCapacity", DEFAULT_REFRESH_QUEUE_CAPACITY);
+        ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(refreshQueueCapacity),
+            new NamingThreadFactory(new DaemonThreadFactory(), "Coverity Connect cache refresh"));
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    private static final class Snapshot<T> {
+        private final T data;
+        private final Instant retrievedAt;
+
+        private Snapshot(T data, Instant retrievedAt) {
+            this.data = data;
+            this.retrievedAt = retrievedAt;
+        }
+
+        private boolean hasNeverBeenRetrieved() {
+            return Instant.MIN.equals(retrievedAt);
+        }
+
+        private boolean isStale() {
+            return Instant.now().minus(CacheSettings.getCurrent().getTimeToLive()).isAfter(retrievedAt);
+        }
+    }
+
 }
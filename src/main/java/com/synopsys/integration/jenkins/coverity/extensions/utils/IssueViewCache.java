@@ -23,6 +23,7 @@
 package com.synopsys.integration.jenkins.coverity.extensions.utils;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -40,23 +41,20 @@ public class IssueViewCache extends CoverityConnectDataCache<List<String>> {
         super(logger);
     }
 
-    @Override
-    protected List<String> getFreshData(WebServiceFactory webServiceFactory) {
-        List<String> data = Collections.emptyList();
+    public IssueViewCache(IntLogger logger, CacheStatistics statistics) {
+        super(logger, statistics);
+    }
 
-        try {
-            logger.info("Attempting retrieval of Coverity Views.");
-            ViewService viewService = webServiceFactory.createViewService();
-            data = viewService.getAllViewsOfType(ViewType.ISSUES)
-                       .stream()
-                       .map(view -> view.name)
-                       .filter(StringUtils::isNotBlank)
-                       .collect(Collectors.toList());
-            logger.info("Completed retrieval of Coverity Views.");
-        } catch (IOException | IntegrationException e) {
-            logger.error(e.getMessage());
-            logger.trace("Stack trace:", e);
-        }
+    @Override
+    protected List<String> getFreshData(WebServiceFactory webServiceFactory) throws IOException, IntegrationException {
+        logger.info("Attempting retrieval of Coverity Views.");
+        ViewService viewService = webServiceFactory.createViewService();
+        List<String> data = viewService.getAllViewsOfType(ViewType.ISSUES)
+                                .stream()
+                                .map(view -> view.name)
+                                .filter(StringUtils::isNotBlank)
+                                .collect(Collectors.toList());
+        logger.info("Completed retrieval of Coverity Views.");
 
         return data;
     }
@@ -65,4 +63,21 @@ public class IssueViewCache extends CoverityConnectDataCache<List<String>> {
     protected List<String> getEmptyData() {
         return Collections.emptyList();
     }
+
+    @Override
+    protected int countEntries(List<String> views) {
+        return views.size();
+    }
+
+    @Override
+    protected long estimateSizeInBytes(List<String> views) {
+        return views.stream()
+                   .mapToLong(view -> 48L + 2L * view.length())
+                   .sum();
+    }
+
+    @Override
+    protected List<String> limitEntries(List<String> views, int maxEntries) {
+        return new ArrayList<>(views.subList(0, Math.min(maxEntries, views.size())));
+    }
 }
@@ -36,7 +36,7 @@ import hudson.util.ListBoxModel;
 
 public class IssueViewFieldHelper extends ConnectionCachingFieldHelper<IssueViewCache> {
     public IssueViewFieldHelper(IntLogger logger) {
-        super(logger, () -> new IssueViewCache(logger));
+        super(logger, CoverityConnectCacheRegistry::getIssueViewCache);
     }
 
     public ListBoxModel getViewNamesForListBox(String coverityConnectUrl) throws InterruptedException {
@@ -22,40 +22,245 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.utils;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import com.synopsys.integration.coverity.api.ws.configuration.ConfigurationService;
 import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
 import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
 import com.synopsys.integration.coverity.api.ws.configuration.ProjectFilterSpecDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.StreamFilterSpecDataObj;
 import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
 import com.synopsys.integration.log.IntLogger;
 
-public class ProjectStreamCache extends CoverityConnectDataCache<List<ProjectDataObj>> {
+/**
+ * Caches the project names of a Coverity Connect instance, and separately the streams of each project the first time that project is asked for. Every project's streams
+ * expire on their own schedule, so cold starts only fetch the project names and memory grows with the projects users actually browse.
+ */
+public class ProjectStreamCache extends CoverityConnectDataCache<ProjectStreamCatalog> {
+    private final Map<String, StreamNameCache> streamNameCaches = new ConcurrentHashMap<>();
+    // The streams of all projects are counted together, so that they are part of the entry limit, the memory cap and the statistics
+    private final CacheStatistics streamStatistics;
+
     public ProjectStreamCache(IntLogger logger) {
-        super(logger);
+        this(logger, null, null);
     }
 
-    @Override
-    protected List<ProjectDataObj> getFreshData(WebServiceFactory webServiceFactory) {
-        List<ProjectDataObj> projects = Collections.emptyList();
-        try {
-            logger.info("Attempting retrieval of Coverity Projects.");
-            ConfigurationService configurationService = webServiceFactory.createConfigurationService();
+    public ProjectStreamCache(IntLogger logger, CacheStatistics statistics, CacheStatistics streamStatistics) {
+        super(logger, statistics);
+        this.streamStatistics = streamStatistics != null ? streamStatistics : new CacheStatistics(StreamNameCache.class.getSimpleName(), null);
+    }
+
+    public List<String> getStreamNames(CoverityConnectInstance coverityConnectInstance, String projectName) throws InterruptedException {
+        if (projectName == null) {
+            return Collections.emptyList();
+        }
+        return streamNameCaches.computeIfAbsent(projectName, ignored -> new StreamNameCache(logger, projectName, streamStatistics.createPart(projectName)))
+                   .getData(coverityConnectInstance);
+    }
+
+    /**
+     * Answers from the cache when it is fresh; otherwise asks Connect about just this project rather than downloading every project.
+     */
+    public boolean containsProject(CoverityConnectInstance coverityConnectInstance, String projectName) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        Optional<ProjectStreamCatalog> freshCatalog = getDataIfFresh();
+        if (freshCatalog.isPresent()) {
+            return freshCatalog.get().containsProject(projectName);
+        }
+
+        boolean projectExists = queryConnect(coverityConnectInstance, "look up project " + projectName, webServiceFactory -> {
             ProjectFilterSpecDataObj projectFilterSpecDataObj = new ProjectFilterSpecDataObj();
-            projects = configurationService.getProjects(projectFilterSpecDataObj);
-            logger.info("Completed retrieval of Coverity Projects.");
-        } catch (MalformedURLException | CovRemoteServiceException_Exception e) {
-            logger.error(e.getMessage());
-            logger.trace("Stack trace:", e);
+            projectFilterSpecDataObj.setNamePattern(projectName);
+            projectFilterSpecDataObj.setIncludeStreams(false);
+            return ProjectStreamCatalog.fromProjects(webServiceFactory.createConfigurationService().getProjects(projectFilterSpecDataObj)).containsProject(projectName);
+        });
+        if (projectExists) {
+            recordProject(projectName);
+        }
+        return projectExists;
+    }
+
+    /**
+     * Answers from the project's cached streams when they are fresh; otherwise asks Connect about just this stream.
+     */
+    public boolean containsStream(CoverityConnectInstance coverityConnectInstance, String projectName, String streamName)
+        throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        StreamNameCache streamNameCache = projectName != null ? streamNameCaches.get(projectName) : null;
+        Optional<List<String>> freshStreamNames = streamNameCache != null ? streamNameCache.getDataIfFresh() : Optional.empty();
+        if (freshStreamNames.isPresent()) {
+            return freshStreamNames.get().contains(streamName);
+        }
+
+        boolean streamExists = queryConnect(coverityConnectInstance, "look up stream " + streamName, webServiceFactory -> {
+            StreamFilterSpecDataObj streamFilterSpecDataObj = new StreamFilterSpecDataObj();
+            streamFilterSpecDataObj.setNamePattern(streamName);
+            return webServiceFactory.createConfigurationService().getStreams(streamFilterSpecDataObj).stream()
+                       .filter(stream -> stream.getId() != null && streamName.equals(stream.getId().getName()))
+                       .anyMatch(stream -> stream.getPrimaryProjectId() != null && projectName != null && projectName.equals(stream.getPrimaryProjectId().getName()));
+        });
+        if (streamExists) {
+            recordStream(projectName, streamName);
+        }
+        return streamExists;
+    }
+
+    public void recordProject(String projectName) {
+        updateCachedData(catalog -> catalog.withProject(projectName));
+    }
+
+    // Streams are only recorded for projects whose streams have been fetched before; the others will include the new stream once they are first fetched
+    public void recordStream(String projectName, String streamName) {
+        recordProject(projectName);
+        if (projectName == null || streamName == null) {
+            return;
+        }
+        StreamNameCache streamNameCache = streamNameCaches.get(projectName);
+        if (streamNameCache != null) {
+            streamNameCache.recordStream(streamName);
+        }
+    }
+
+    public CacheStatistics getStreamStatistics() {
+        return streamStatistics;
+    }
+
+    public void evictIdleStreams(Duration idleEviction) {
+        long idleCutoffMillis = System.currentTimeMillis() - idleEviction.toMillis();
+        new ArrayList<>(streamNameCaches.entrySet()).stream()
+            .filter(entry -> entry.getValue().getStatistics().getLastAccessedAtMillis() < idleCutoffMillis)
+            .forEach(entry -> evictStreams(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Evicts the streams of the least recently browsed projects until the projects and streams of this instance fit within the entry limit and the memory cap.
+     */
+    public void evictStreamsOverLimits(int maxEntries, long memoryCapInBytes) {
+        List<Map.Entry<String, StreamNameCache>> streamNameCachesByLastAccess = streamNameCaches.entrySet().stream()
+                                                                                   .sorted(Comparator.comparingLong(entry -> entry.getValue().getStatistics().getLastAccessedAtMillis()))
+                                                                                   .collect(Collectors.toList());
+        for (Map.Entry<String, StreamNameCache> entry : streamNameCachesByLastAccess) {
+            boolean withinLimits = getStatistics().getEntryCount() + streamStatistics.getEntryCount() <= maxEntries
+                                       && getStatistics().getEstimatedSizeInBytes() + streamStatistics.getEstimatedSizeInBytes() <= memoryCapInBytes;
+            if (withinLimits) {
+                return;
+            }
+            evictStreams(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void evictAllStreams() {
+        new ArrayList<>(streamNameCaches.entrySet()).forEach(entry -> evictStreams(entry.getKey(), entry.getValue()));
+    }
+
+    private void evictStreams(String projectName, StreamNameCache streamNameCache) {
+        if (streamNameCaches.remove(projectName, streamNameCache)) {
+            streamNameCache.getStatistics().recordEviction();
         }
-        return projects;
     }
 
     @Override
-    protected List<ProjectDataObj> getEmptyData() {
-        return Collections.emptyList();
+    protected ProjectStreamCatalog getFreshData(WebServiceFactory webServiceFactory) throws MalformedURLException, CovRemoteServiceException_Exception {
+        // Failures propagate so that the circuit breaker for this instance sees them; the previously cached projects are kept in the meantime
+        logger.info("Attempting retrieval of Coverity Projects.");
+        ConfigurationService configurationService = webServiceFactory.createConfigurationService();
+        ProjectFilterSpecDataObj projectFilterSpecDataObj = new ProjectFilterSpecDataObj();
+        // Streams are fetched per project on demand, so there is no need for Connect to serialize them here
+        projectFilterSpecDataObj.setIncludeStreams(false);
+        List<ProjectDataObj> projects = configurationService.getProjects(projectFilterSpecDataObj);
+        logger.info("Completed retrieval of Coverity Projects.");
+        // Only the names are kept; the rest of the SOAP object graph becomes garbage as soon as this returns
+        return ProjectStreamCatalog.fromProjects(projects);
+    }
+
+    @Override
+    protected ProjectStreamCatalog getEmptyData() {
+        return ProjectStreamCatalog.EMPTY;
     }
+
+    @Override
+    protected int countEntries(ProjectStreamCatalog catalog) {
+        return catalog.getProjectCount();
+    }
+
+    @Override
+    protected long estimateSizeInBytes(ProjectStreamCatalog catalog) {
+        return catalog.estimateSizeInBytes();
+    }
+
+    @Override
+    protected ProjectStreamCatalog limitEntries(ProjectStreamCatalog catalog, int maxEntries) {
+        return catalog.limitedTo(maxEntries);
+    }
+
+    private static class StreamNameCache extends CoverityConnectDataCache<List<String>> {
+        private final String projectName;
+
+        public StreamNameCache(IntLogger logger, String projectName, CacheStatistics statistics) {
+            super(logger, statistics);
+            this.projectName = projectName;
+        }
+
+        public void recordStream(String streamName) {
+            updateCachedData(streamNames -> {
+                if (streamNames.contains(streamName)) {
+                    return streamNames;
+                }
+                List<String> updatedStreamNames = new ArrayList<>(streamNames);
+                updatedStreamNames.add(streamName.intern());
+                return Collections.unmodifiableList(updatedStreamNames);
+            });
+        }
+
+        @Override
+        protected List<String> getFreshData(WebServiceFactory webServiceFactory) throws MalformedURLException, CovRemoteServiceException_Exception {
+            logger.info(String.format("Attempting retrieval of the streams of Coverity Project '%s'.", projectName));
+            ConfigurationService configurationService = webServiceFactory.createConfigurationService();
+            ProjectFilterSpecDataObj projectFilterSpecDataObj = new ProjectFilterSpecDataObj();
+            projectFilterSpecDataObj.setNamePattern(projectName);
+            projectFilterSpecDataObj.setIncludeStreams(true);
+            // The name pattern may match other projects too (e.g. if the name contains '*'), only the streams of the exact match are kept
+            List<String> streamNames = configurationService.getProjects(projectFilterSpecDataObj).stream()
+                                           .filter(project -> project.getId() != null && projectName.equals(project.getId().getName()))
+                                           .flatMap(project -> project.getStreams().stream())
+                                           .filter(stream -> stream.getId() != null && stream.getId().getName() != null)
+                                           .map(stream -> stream.getId().getName().intern())
+                                           .collect(Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
+            logger.info(String.format("Completed retrieval of the streams of Coverity Project '%s'.", projectName));
+            return streamNames;
+        }
+
+        @Override
+        protected List<String> getEmptyData() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        protected int countEntries(List<String> streamNames) {
+            return streamNames.size();
+        }
+
+        @Override
+        protected long estimateSizeInBytes(List<String> streamNames) {
+            return streamNames.stream()
+                       .mapToLong(streamName -> 48L + 2L * streamName.length())
+                       .sum();
+        }
+
+        @Override
+        protected List<String> limitEntries(List<String> streamNames, int maxEntries) {
+            return Collections.unmodifiableList(new ArrayList<>(streamNames.subList(0, maxEntries)));
+        }
+    }
+
 }
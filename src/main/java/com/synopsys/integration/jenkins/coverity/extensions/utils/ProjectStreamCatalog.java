@@ -0,0 +1,124 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
+
+/**
+ * An immutable, compact view of the projects of a Coverity Connect instance: only their names are kept, in one flat array.
+ * The streams of each project are cached separately, when that project is first asked for.
+ * Names are interned so that the same name is only held once, whichever instance or catalog refers to it.
+ */
+public class ProjectStreamCatalog {
+    public static final ProjectStreamCatalog EMPTY = new ProjectStreamCatalog(new String[0]);
+
+    // Array headers, references and the String object that wraps each name
+    private static final long ARRAY_OVERHEAD_IN_BYTES = 16;
+    private static final long REFERENCE_SIZE_IN_BYTES = 8;
+    private static final long STRING_OVERHEAD_IN_BYTES = 40;
+
+    private final String[] projectNames;
+
+    private ProjectStreamCatalog(String[] projectNames) {
+        this.projectNames = projectNames;
+    }
+
+    /**
+     * Copies the project names out of the SOAP objects, so that the objects themselves can be discarded as soon as this returns.
+     */
+    public static ProjectStreamCatalog fromProjects(List<ProjectDataObj> projects) {
+        if (projects == null || projects.isEmpty()) {
+            return EMPTY;
+        }
+
+        return new ProjectStreamCatalog(projects.stream()
+                                            .map(ProjectStreamCatalog::toProjectName)
+                                            .filter(Objects::nonNull)
+                                            .map(String::intern)
+                                            .toArray(String[]::new));
+    }
+
+    public List<String> getProjectNames() {
+        return Collections.unmodifiableList(Arrays.asList(projectNames));
+    }
+
+    public boolean containsProject(String projectName) {
+        return indexOfProject(projectName) >= 0;
+    }
+
+    public int getProjectCount() {
+        return projectNames.length;
+    }
+
+    public long estimateSizeInBytes() {
+        long estimatedSizeInBytes = ARRAY_OVERHEAD_IN_BYTES + projectNames.length * REFERENCE_SIZE_IN_BYTES;
+        for (String projectName : projectNames) {
+            estimatedSizeInBytes += STRING_OVERHEAD_IN_BYTES + 2L * projectName.length();
+        }
+        return estimatedSizeInBytes;
+    }
+
+    public ProjectStreamCatalog withProject(String projectName) {
+        if (projectName == null || containsProject(projectName)) {
+            return this;
+        }
+        String[] updatedProjectNames = Arrays.copyOf(projectNames, projectNames.length + 1);
+        updatedProjectNames[projectNames.length] = projectName.intern();
+        return new ProjectStreamCatalog(updatedProjectNames);
+    }
+
+    /**
+     * Keeps the first maxEntries projects, in order.
+     */
+    public ProjectStreamCatalog limitedTo(int maxEntries) {
+        if (getProjectCount() <= maxEntries) {
+            return this;
+        }
+        return new ProjectStreamCatalog(Arrays.copyOf(projectNames, maxEntries));
+    }
+
+    private int indexOfProject(String projectName) {
+        if (projectName == null) {
+            return -1;
+        }
+        for (int i = 0; i < projectNames.length; i++) {
+            if (projectNames[i].equals(projectName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toProjectName(ProjectDataObj projectDataObj) {
+        if (projectDataObj != null && projectDataObj.getId() != null) {
+            return projectDataObj.getId().getName();
+        }
+        return null;
+    }
+
+}
@@ -22,18 +22,20 @@
  */
 package com.synopsys.integration.jenkins.coverity.extensions.utils;
 
+import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import javax.xml.ws.WebServiceException;
+
 import org.apache.commons.lang3.StringUtils;
 
-import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
-import com.synopsys.integration.coverity.api.ws.configuration.StreamDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
 import com.synopsys.integration.coverity.exception.CoverityIntegrationException;
+import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.jenkins.coverity.GlobalValueHelper;
 import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
 import com.synopsys.integration.log.IntLogger;
@@ -44,7 +46,7 @@ import hudson.util.ListBoxModel;
 
 public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<ProjectStreamCache> {
     public ProjectStreamFieldHelper(final IntLogger logger) {
-        super(logger, () -> new ProjectStreamCache(logger));
+        super(logger, CoverityConnectCacheRegistry::getProjectStreamCache);
     }
 
     public ComboBoxModel getProjectNamesForComboBox(final String jenkinsCoverityInstanceUrl) throws InterruptedException {
@@ -58,7 +60,6 @@ public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<Proje
     public ComboBoxModel getStreamNamesForComboBox(final String jenkinsCoverityInstanceUrl, final String selectedProjectName) throws InterruptedException {
         try {
             return getStreams(jenkinsCoverityInstanceUrl, selectedProjectName).stream()
-                       .map(this::toStreamName)
                        .filter(StringUtils::isNotBlank)
                        .collect(Collectors.toCollection(ComboBoxModel::new));
 
@@ -70,14 +71,15 @@ public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<Proje
 
     public FormValidation checkForProjectInCache(final String coverityConnectUrl, final String projectName) {
         try {
-            return getProjects(coverityConnectUrl).stream()
-                       .map(this::toProjectName)
-                       .filter(projectName::equals)
-                       .findFirst()
-                       .map(ignored -> FormValidation.ok())
-                       .orElseGet(() -> FormValidation.warning(String.format("If project '%s' does not exist it will be created with defaults the next time this job is run.", projectName)));
+            final CoverityConnectInstance coverityConnectInstance = GlobalValueHelper.getCoverityInstanceWithUrlOrDie(logger, coverityConnectUrl);
+            if (getCache(coverityConnectUrl).containsProject(coverityConnectInstance, projectName)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.warning(String.format("If project '%s' does not exist it will be created with defaults the next time this job is run.", projectName));
         } catch (final CoverityIntegrationException e) {
             return FormValidation.error(e, e.getMessage());
+        } catch (final IOException | IntegrationException | CovRemoteServiceException_Exception | WebServiceException | IllegalArgumentException | IllegalStateException e) {
+            return FormValidation.error(e, "Could not contact Coverity Connect: " + e.getMessage());
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             return FormValidation.error(e, e.getMessage());
@@ -86,14 +88,15 @@ public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<Proje
 
     public FormValidation checkForStreamInCache(final String coverityConnectUrl, final String projectName, final String streamName) {
         try {
-            return getStreams(coverityConnectUrl, projectName).stream()
-                       .map(this::toStreamName)
-                       .filter(streamName::equals)
-                       .findFirst()
-                       .map(ignored -> FormValidation.ok())
-                       .orElseGet(() -> FormValidation.warning(String.format("If stream '%s' does not exist in project '%s' it will be created with defaults the next time this job is run", streamName, projectName)));
+            final CoverityConnectInstance coverityConnectInstance = GlobalValueHelper.getCoverityInstanceWithUrlOrDie(logger, coverityConnectUrl);
+            if (getCache(coverityConnectUrl).containsStream(coverityConnectInstance, projectName, streamName)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.warning(String.format("If stream '%s' does not exist in project '%s' it will be created with defaults the next time this job is run", streamName, projectName));
         } catch (final CoverityIntegrationException e) {
             return FormValidation.error(e, e.getMessage());
+        } catch (final IOException | IntegrationException | CovRemoteServiceException_Exception | WebServiceException | IllegalArgumentException | IllegalStateException e) {
+            return FormValidation.error(e, "Could not contact Coverity Connect: " + e.getMessage());
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             return FormValidation.error(e, e.getMessage());
@@ -102,8 +105,7 @@ public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<Proje
 
     private <T, R extends Collection<T>> R doFillProjectNameItems(final Supplier<R> supplier, final Function<String, T> itemWrapper, final String jenkinsCoverityInstanceUrl) throws InterruptedException {
         try {
-            return getProjects(jenkinsCoverityInstanceUrl).stream()
-                       .map(this::toProjectName)
+            return getCatalog(jenkinsCoverityInstanceUrl).getProjectNames().stream()
                        .filter(StringUtils::isNotBlank)
                        .map(itemWrapper)
                        .collect(Collectors.toCollection(supplier));
@@ -113,39 +115,15 @@ public class ProjectStreamFieldHelper extends ConnectionCachingFieldHelper<Proje
         }
     }
 
-    private List<ProjectDataObj> getProjects(final String coverityConnectUrl) throws CoverityIntegrationException, InterruptedException {
+    private ProjectStreamCatalog getCatalog(final String coverityConnectUrl) throws CoverityIntegrationException, InterruptedException {
         final CoverityConnectInstance coverityConnectInstance = GlobalValueHelper.getCoverityInstanceWithUrlOrDie(logger, coverityConnectUrl);
-        final ProjectStreamCache projectStreamCache = getCache(coverityConnectUrl);
-        final List<ProjectDataObj> projectDataObjs = projectStreamCache.getData(coverityConnectInstance);
-        return projectDataObjs != null ? projectDataObjs : Collections.emptyList();
-    }
-
-    private List<StreamDataObj> getStreams(final String coverityConnectUrl, final String projectName) throws CoverityIntegrationException, InterruptedException {
-        return getProjects(coverityConnectUrl).stream()
-                   .filter(projectDataObj -> this.isMatchingProject(projectDataObj, projectName))
-                   .map(ProjectDataObj::getStreams)
-                   .flatMap(Collection::stream)
-                   .collect(Collectors.toList());
-    }
-
-    private Boolean isMatchingProject(final ProjectDataObj projectDataObj, final String selectedProjectName) {
-        return null != projectDataObj
-                   && null != projectDataObj.getId()
-                   && null != projectDataObj.getId().getName()
-                   && projectDataObj.getId().getName().equals(selectedProjectName);
+        final ProjectStreamCatalog catalog = getCache(coverityConnectUrl).getData(coverityConnectInstance);
+        return catalog != null ? catalog : ProjectStreamCatalog.EMPTY;
     }
 
-    private String toStreamName(final StreamDataObj streamDataObj) {
-        if (streamDataObj != null && streamDataObj.getId() != null) {
-            return streamDataObj.getId().getName();
-        }
-        return null;
-    }
-
-    private String toProjectName(final ProjectDataObj projectDataObj) {
-        if (projectDataObj != null && projectDataObj.getId() != null) {
-            return projectDataObj.getId().getName();
-        }
-        return null;
+    // Only the selected project's streams are fetched, and only the first time that project is selected
+    private List<String> getStreams(final String coverityConnectUrl, final String projectName) throws CoverityIntegrationException, InterruptedException {
+        final CoverityConnectInstance coverityConnectInstance = GlobalValueHelper.getCoverityInstanceWithUrlOrDie(logger, coverityConnectUrl);
+        return getCache(coverityConnectUrl).getStreamNames(coverityConnectInstance, projectName);
     }
 }
@@ -0,0 +1,145 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Remembers which (Coverity Connect URL, project, stream) combinations a build has recently verified or created, so that steady-state builds can skip provisioning
+ * entirely. Failed creations are remembered briefly so that a burst of builds does not hammer Connect with the same rejected request. Entries are invalidated
+ * when cov-commit-defects fails, which is how a stream deleted on Connect gets noticed.
+ */
+public class ProvisioningCache {
+    public static final Duration VERIFIED_TIME_TO_LIVE = Duration.ofHours(24);
+    public static final Duration FAILED_TIME_TO_LIVE = Duration.ofMinutes(1);
+    private static final ProvisioningCache INSTANCE = new ProvisioningCache(Clock.systemUTC());
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public ProvisioningCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    public static ProvisioningCache getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isVerified(String coverityConnectUrl, String projectName, String streamName) {
+        return getLiveEntry(new Key(coverityConnectUrl, projectName, streamName))
+                   .map(entry -> entry.failureMessage == null)
+                   .orElse(false);
+    }
+
+    public Optional<String> getRecentFailure(String coverityConnectUrl, String projectName, String streamName) {
+        return getLiveEntry(new Key(coverityConnectUrl, projectName, streamName))
+                   .map(entry -> entry.failureMessage);
+    }
+
+    public void recordVerified(String coverityConnectUrl, String projectName, String streamName) {
+        entries.put(new Key(coverityConnectUrl, projectName, streamName), new Entry(clock.instant().plus(VERIFIED_TIME_TO_LIVE), null));
+    }
+
+    public void recordFailure(String coverityConnectUrl, String projectName, String streamName, String failureMessage) {
+        entries.put(new Key(coverityConnectUrl, projectName, streamName), new Entry(clock.instant().plus(FAILED_TIME_TO_LIVE), StringUtils.defaultIfBlank(failureMessage, "unknown error")));
+    }
+
+    public void invalidate(String coverityConnectUrl, String projectName, String streamName) {
+        entries.remove(new Key(coverityConnectUrl, projectName, streamName));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int purgeExpired() {
+        Instant now = clock.instant();
+        int sizeBefore = entries.size();
+        entries.values().removeIf(entry -> !now.isBefore(entry.expiresAt));
+        return sizeBefore - entries.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Optional<Entry> getLiveEntry(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (!clock.instant().isBefore(entry.expiresAt)) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    private static final class Key {
+        private final String coverityConnectUrl;
+        private final String projectName;
+        private final String streamName;
+
+        private Key(String coverityConnectUrl, String projectName, String streamName) {
+            this.coverityConnectUrl = StringUtils.defaultString(coverityConnectUrl);
+            this.projectName = StringUtils.defaultString(projectName);
+            this.streamName = StringUtils.defaultString(streamName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return coverityConnectUrl.equals(key.coverityConnectUrl) && projectName.equals(key.projectName) && streamName.equals(key.streamName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(coverityConnectUrl, projectName, streamName);
+        }
+    }
+
+    private static final class Entry {
+        private final Instant expiresAt;
+        private final String failureMessage;
+
+        private Entry(Instant expiresAt, String failureMessage) {
+            this.expiresAt = expiresAt;
+            this.failureMessage = failureMessage;
+        }
+    }
+
+}
@@ -51,6 +51,8 @@ import com.synopsys.integration.jenkins.coverity.GlobalValueHelper;
 import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
 import com.synopsys.integration.jenkins.coverity.extensions.ConfigureChangeSetPatterns;
 import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityToolInstallation;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectCachePrewarmer;
 import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectUrlFieldHelper;
 import com.synopsys.integration.jenkins.coverity.extensions.utils.IssueViewFieldHelper;
 import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamFieldHelper;
@@ -105,6 +107,11 @@ public class CoverityEnvironmentWrapper extends SimpleBuildWrapper {
     @Nullable
     private Boolean createMissingProjectsAndStreams;
 
+    @Nullable
+    @HelpMarkdown("Specify the Coverity analysis installation to use, as configured in the Jenkins global tool configuration. It is installed on the agent automatically if it is not there yet.  \r\n"
+                      + "The installation directory is stored in the $COVERITY_TOOL_HOME environment variable. Leave empty to use a $COVERITY_TOOL_HOME that is already set on the agent.")
+    private String coverityToolName;
+
     @DataBoundConstructor
     public CoverityEnvironmentWrapper(String coverityInstanceUrl) {
         this.coverityInstanceUrl = coverityInstanceUrl;
@@ -125,6 +132,15 @@ public class CoverityEnvironmentWrapper extends SimpleBuildWrapper {
         this.createMissingProjectsAndStreams = createMissingProjectsAndStreams;
     }
 
+    public String getCoverityToolName() {
+        return coverityToolName;
+    }
+
+    @DataBoundSetter
+    public void setCoverityToolName(String coverityToolName) {
+        this.coverityToolName = StringUtils.trimToNull(coverityToolName);
+    }
+
     public String getCoverityInstanceUrl() {
         return coverityInstanceUrl;
     }
@@ -171,8 +187,12 @@ public class CoverityEnvironmentWrapper extends SimpleBuildWrapper {
                         .map(Computer::getNode)
                         .orElse(null);
         RunWrapper runWrapper = new RunWrapper(build, true);
+        CoverityConnectCachePrewarmer.recordPipelineUsage(coverityInstanceUrl);
+
+        EnvVars environment = new EnvVars(initialEnvironment);
+        CoverityToolInstallation.populateToolHome(coverityToolName, node, environment, listener);
 
-        CoverityWorkflowStepFactory coverityWorkflowStepFactory = new CoverityWorkflowStepFactory(initialEnvironment, node, launcher, listener);
+        CoverityWorkflowStepFactory coverityWorkflowStepFactory = new CoverityWorkflowStepFactory(environment, node, launcher, listener);
         CoverityJenkinsIntLogger logger = coverityWorkflowStepFactory.getOrCreateLogger();
         JenkinsVersionHelper jenkinsVersionHelper = new JenkinsVersionHelper(Jenkins.getInstanceOrNull());
         List<ChangeLogSet<?>> changeLogSets;
@@ -251,6 +271,10 @@ public class CoverityEnvironmentWrapper extends SimpleBuildWrapper {
             return coverityConnectUrlFieldHelper.doCheckCoverityInstanceUrlIgnoreMessage(coverityInstanceUrl);
         }
 
+        public ListBoxModel doFillCoverityToolNameItems() {
+            return CoverityToolInstallation.getInstallationNameItems();
+        }
+
         public ListBoxModel doFillViewNameItems(@QueryParameter("coverityInstanceUrl") String coverityInstanceUrl, @QueryParameter("updateNow") boolean updateNow) throws InterruptedException {
             if (updateNow) {
                 issueViewFieldHelper.updateNow(coverityInstanceUrl);
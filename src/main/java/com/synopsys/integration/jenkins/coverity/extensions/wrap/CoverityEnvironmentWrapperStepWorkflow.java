@@ -76,6 +76,7 @@ public class CoverityEnvironmentWrapperStepWorkflow extends CoverityJenkinsStepW
                    .first(coverityWorkflowStepFactory.createStepValidateCoverityInstallation(false))
                    .then(coverityWorkflowStepFactory.createStepCreateAuthenticationKeyFile(workspaceRemotePath, coverityInstanceUrl))
                    .then(coverityWorkflowStepFactory.createStepSetUpCoverityEnvironment(changeSets, configureChangeSetPatterns, workspaceRemotePath, coverityInstanceUrl, projectName, streamName, viewName))
+                   .then(coverityWorkflowStepFactory.createStepExpandChangeSet(configureChangeSetPatterns, workspaceRemotePath))
                    .then(coverityWorkflowStepFactory.createStepPopulateEnvVars(context::env))
                    .andSometimes(coverityWorkflowStepFactory.createStepCreateMissingProjectsAndStreams(coverityInstanceUrl, projectName, streamName)).butOnlyIf(createMissingProjectsAndStreams, Boolean.TRUE::equals)
                    .build();
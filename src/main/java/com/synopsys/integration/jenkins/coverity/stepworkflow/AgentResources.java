@@ -0,0 +1,79 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.Serializable;
+import java.util.OptionalLong;
+
+/**
+ * The processors and memory an agent can actually give to a build, after any cgroup (container) limits are applied.
+ */
+public class AgentResources implements Serializable {
+    private static final long serialVersionUID = 2318127540965523671L;
+    private final int availableProcessors;
+    // Zero when the quantity is unknown or unlimited
+    private final double cpuQuota;
+    private final long physicalMemoryBytes;
+    private final long memoryLimitBytes;
+
+    public AgentResources(int availableProcessors, double cpuQuota, long physicalMemoryBytes, long memoryLimitBytes) {
+        this.availableProcessors = availableProcessors;
+        this.cpuQuota = cpuQuota;
+        this.physicalMemoryBytes = physicalMemoryBytes;
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+
+    public double getCpuQuota() {
+        return cpuQuota;
+    }
+
+    public long getPhysicalMemoryBytes() {
+        return physicalMemoryBytes;
+    }
+
+    public long getMemoryLimitBytes() {
+        return memoryLimitBytes;
+    }
+
+    public int getEffectiveProcessors() {
+        int processors = Math.max(1, availableProcessors);
+        if (cpuQuota > 0) {
+            processors = Math.min(processors, Math.max(1, (int) Math.floor(cpuQuota)));
+        }
+        return processors;
+    }
+
+    public OptionalLong getEffectiveMemoryBytes() {
+        if (physicalMemoryBytes > 0 && memoryLimitBytes > 0) {
+            return OptionalLong.of(Math.min(physicalMemoryBytes, memoryLimitBytes));
+        } else if (physicalMemoryBytes > 0 || memoryLimitBytes > 0) {
+            return OptionalLong.of(Math.max(physicalMemoryBytes, memoryLimitBytes));
+        }
+        return OptionalLong.empty();
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Queues the heavy Coverity phases of all builds on one node so that only as many analyses run at once as the node's limits allow. Builds are admitted in the
+ * order they asked, so a large analysis is not starved by a stream of smaller ones.
+ */
+public class AnalysisAdmissionController {
+    private static final Map<String, AnalysisAdmissionController> NODE_CONTROLLERS = new ConcurrentHashMap<>();
+    private final Deque<Object> waiting = new ArrayDeque<>();
+    private int runningAnalyses = 0;
+    private long admittedMemoryBytes = 0;
+
+    public static AnalysisAdmissionController forNode(String nodeName) {
+        return NODE_CONTROLLERS.computeIfAbsent(nodeName, ignored -> new AnalysisAdmissionController());
+    }
+
+    /**
+     * Blocks until the analysis fits within the limits. A limit of zero or less is no limit, and a request larger than the whole memory budget is admitted once
+     * nothing else is running.
+     */
+    public Admission admit(Limits limits, long requestedMemoryBytes) throws InterruptedException {
+        long memoryBytes = limits.getMemoryBudgetBytes() > 0 ? Math.min(requestedMemoryBytes, limits.getMemoryBudgetBytes()) : 0;
+        long queuedSince = System.currentTimeMillis();
+        Object ticket = new Object();
+
+        synchronized (this) {
+            waiting.addLast(ticket);
+            try {
+                while (waiting.peekFirst() != ticket || !fits(limits, memoryBytes)) {
+                    wait();
+                }
+            } finally {
+                waiting.remove(ticket);
+                // Whether this request was admitted or interrupted, the next one in line may now fit
+                notifyAll();
+            }
+            runningAnalyses++;
+            admittedMemoryBytes += memoryBytes;
+        }
+
+        return new Admission(memoryBytes, System.currentTimeMillis() - queuedSince);
+    }
+
+    public synchronized int getRunningAnalyses() {
+        return runningAnalyses;
+    }
+
+    private boolean fits(Limits limits, long memoryBytes) {
+        boolean belowConcurrencyLimit = limits.getMaxConcurrentAnalyses() <= 0 || runningAnalyses < limits.getMaxConcurrentAnalyses();
+        boolean withinMemoryBudget = limits.getMemoryBudgetBytes() <= 0 || admittedMemoryBytes + memoryBytes <= limits.getMemoryBudgetBytes();
+        return belowConcurrencyLimit && withinMemoryBudget;
+    }
+
+    private synchronized void release(long memoryBytes) {
+        runningAnalyses--;
+        admittedMemoryBytes -= memoryBytes;
+        notifyAll();
+    }
+
+    public static class Limits {
+        private final int maxConcurrentAnalyses;
+        private final long memoryBudgetBytes;
+
+        public Limits(int maxConcurrentAnalyses, long memoryBudgetBytes) {
+            this.maxConcurrentAnalyses = maxConcurrentAnalyses;
+            this.memoryBudgetBytes = memoryBudgetBytes;
+        }
+
+        public int getMaxConcurrentAnalyses() {
+            return maxConcurrentAnalyses;
+        }
+
+        public long getMemoryBudgetBytes() {
+            return memoryBudgetBytes;
+        }
+
+        public Limits withMemoryBudgetBytes(long memoryBudgetBytes) {
+            return new Limits(maxConcurrentAnalyses, memoryBudgetBytes);
+        }
+    }
+
+    public class Admission implements AutoCloseable {
+        private final long memoryBytes;
+        private final long queuedMillis;
+        private boolean released = false;
+
+        private Admission(long memoryBytes, long queuedMillis) {
+            this.memoryBytes = memoryBytes;
+            this.queuedMillis = queuedMillis;
+        }
+
+        public long getQueuedMillis() {
+            return queuedMillis;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(memoryBytes);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.extensions.CoverityAnalysisType;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.CoverityRunConfiguration;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.SimpleCoverityRunConfiguration;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.AnalysisCostHistory;
+import com.synopsys.integration.stepworkflow.AbstractExecutingSubStep;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.Util;
+
+/**
+ * For {@link CoverityAnalysisType#COST_BASED}, predicts how long an incremental and a full analysis would take from the job's history and records the faster one
+ * in $COV_ANALYSIS_TYPE.
+ */
+public class ChooseAnalysisByCost extends AbstractExecutingSubStep {
+    private final CoverityJenkinsIntLogger logger;
+    private final IntEnvironmentVariables intEnvironmentVariables;
+    private final CoverityRunConfiguration coverityRunConfiguration;
+    // Null unless the analysis type is cost based
+    private final AnalysisCostHistory analysisCostHistory;
+
+    public ChooseAnalysisByCost(CoverityJenkinsIntLogger logger, IntEnvironmentVariables intEnvironmentVariables, CoverityRunConfiguration coverityRunConfiguration, AnalysisCostHistory analysisCostHistory) {
+        this.logger = logger;
+        this.intEnvironmentVariables = intEnvironmentVariables;
+        this.coverityRunConfiguration = coverityRunConfiguration;
+        this.analysisCostHistory = analysisCostHistory;
+    }
+
+    /**
+     * The analysis type to run: the one chosen by cost when there is one, otherwise the configured type, with a cost-based configuration that could not be
+     * decided falling back to the change set threshold.
+     */
+    public static CoverityAnalysisType resolveAnalysisType(CoverityAnalysisType configuredAnalysisType, IntEnvironmentVariables intEnvironmentVariables) {
+        if (configuredAnalysisType != CoverityAnalysisType.COST_BASED) {
+            return configuredAnalysisType;
+        }
+        String chosenAnalysisType = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_TYPE.toString());
+        if (CoverityAnalysisType.COV_ANALYZE.name().equals(chosenAnalysisType)) {
+            return CoverityAnalysisType.COV_ANALYZE;
+        } else if (CoverityAnalysisType.COV_RUN_DESKTOP.name().equals(chosenAnalysisType)) {
+            return CoverityAnalysisType.COV_RUN_DESKTOP;
+        }
+        return CoverityAnalysisType.THRESHOLD;
+    }
+
+    public static List<String> getChangedFiles(IntEnvironmentVariables intEnvironmentVariables) {
+        String changeSet = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.CHANGE_SET.toString());
+        if (StringUtils.isBlank(changeSet)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(changeSet.trim().split("\\s+")).collect(Collectors.toList());
+    }
+
+    @Override
+    public SubStepResponse<Object> run() {
+        if (!(coverityRunConfiguration instanceof SimpleCoverityRunConfiguration) || ((SimpleCoverityRunConfiguration) coverityRunConfiguration).getCoverityAnalysisType() != CoverityAnalysisType.COST_BASED) {
+            return SubStepResponse.SUCCESS();
+        }
+
+        List<String> changedFiles = getChangedFiles(intEnvironmentVariables);
+        OptionalLong fullAnalysisMillis;
+        OptionalLong incrementalAnalysisMillis;
+        try {
+            fullAnalysisMillis = analysisCostHistory.estimateFullAnalysisMillis();
+            incrementalAnalysisMillis = analysisCostHistory.estimateIncrementalAnalysisMillis(changedFiles);
+        } catch (IOException e) {
+            logger.warn("Could not read the analysis cost history of this job, falling back to the change set threshold: " + e.getMessage());
+            return SubStepResponse.SUCCESS();
+        }
+
+        if (!changedFiles.isEmpty() && (!fullAnalysisMillis.isPresent() || !incrementalAnalysisMillis.isPresent())) {
+            // Both kinds of analysis need to have run once before they can be compared
+            logger.alwaysLog("Not enough analysis history to estimate analysis cost yet, using the change set threshold");
+            return SubStepResponse.SUCCESS();
+        }
+
+        long predictedIncrementalMillis = incrementalAnalysisMillis.orElse(0);
+        CoverityAnalysisType chosenAnalysisType = fullAnalysisMillis.isPresent() && fullAnalysisMillis.getAsLong() <= predictedIncrementalMillis ? CoverityAnalysisType.COV_ANALYZE : CoverityAnalysisType.COV_RUN_DESKTOP;
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_TYPE.toString(), chosenAnalysisType.name());
+        logger.alwaysLog(String.format("Estimated %s for an incremental analysis of %d files and %s for a full analysis, running: %s", Util.getTimeSpanString(predictedIncrementalMillis), changedFiles.size(),
+            fullAnalysisMillis.isPresent() ? Util.getTimeSpanString(fullAnalysisMillis.getAsLong()) : "unknown", chosenAnalysisType.getDisplayName()));
+        return SubStepResponse.SUCCESS();
+    }
+
+}
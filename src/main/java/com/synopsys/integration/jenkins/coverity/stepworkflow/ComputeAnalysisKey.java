@@ -0,0 +1,119 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.stepworkflow.AbstractExecutingSubStep;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Computes a key for everything the result of the analysis depends on: the sources, the Coverity analysis installation, the stream it commits to and the commands that run it.
+ * Two builds with the same key would commit the same snapshot, so the later one can reuse the snapshot of the earlier one.
+ */
+public class ComputeAnalysisKey extends AbstractExecutingSubStep {
+    private final CoverityJenkinsIntLogger logger;
+    private final IntEnvironmentVariables intEnvironmentVariables;
+    private final VirtualChannel virtualChannel;
+    private final String workspaceRemotePath;
+    private final GetCoverityCommands getCoverityCommands;
+    private final boolean reuseAnalysisResults;
+    private final Consumer<String> analysisKeyConsumer;
+
+    public ComputeAnalysisKey(CoverityJenkinsIntLogger logger, IntEnvironmentVariables intEnvironmentVariables, VirtualChannel virtualChannel, String workspaceRemotePath, GetCoverityCommands getCoverityCommands,
+        boolean reuseAnalysisResults, Consumer<String> analysisKeyConsumer) {
+        this.logger = logger;
+        this.intEnvironmentVariables = intEnvironmentVariables;
+        this.virtualChannel = virtualChannel;
+        this.workspaceRemotePath = workspaceRemotePath;
+        this.getCoverityCommands = getCoverityCommands;
+        this.reuseAnalysisResults = reuseAnalysisResults;
+        this.analysisKeyConsumer = analysisKeyConsumer;
+    }
+
+    @Override
+    public SubStepResponse<Object> run() {
+        if (!reuseAnalysisResults) {
+            return SubStepResponse.SUCCESS();
+        }
+
+        String coverityToolHome = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString());
+        String analysisInputs;
+        List<List<String>> commandConfiguration;
+        try {
+            analysisInputs = virtualChannel.call(new IdentifyAnalysisInputs(logger, workspaceRemotePath, coverityToolHome));
+            commandConfiguration = getCoverityCommands.getCommandConfiguration();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SubStepResponse.FAILURE(e);
+        } catch (IOException | IntegrationException e) {
+            // Running the analysis is always correct, reusing one is only an optimization
+            logger.warn("Could not identify the inputs of the analysis, it will not reuse an earlier one: " + e.getMessage());
+            return SubStepResponse.SUCCESS();
+        }
+
+        if (analysisInputs == null) {
+            logger.alwaysLog("The analysis cannot reuse an earlier one because the sources in the workspace are not a clean git checkout.");
+            return SubStepResponse.SUCCESS();
+        }
+
+        String coverityServerUrl = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString());
+        String streamName = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString());
+        String changeSet = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.CHANGE_SET.toString());
+        analysisKeyConsumer.accept(computeAnalysisKey(analysisInputs, coverityServerUrl, streamName, commandConfiguration, changeSet));
+        return SubStepResponse.SUCCESS();
+    }
+
+    static String computeAnalysisKey(String analysisInputs, String coverityServerUrl, String streamName, List<List<String>> commandConfiguration, String changeSet) {
+        StringBuilder keyContents = new StringBuilder()
+                                        .append(analysisInputs).append('\n')
+                                        .append(coverityServerUrl).append('\n')
+                                        .append(streamName).append('\n');
+        boolean dependsOnChangeSet = false;
+        for (List<String> command : commandConfiguration) {
+            for (String argument : command) {
+                // Arguments may contain spaces, so they are separated by a character they cannot contain
+                keyContents.append(argument).append('\0');
+                dependsOnChangeSet |= argument.contains(JenkinsCoverityEnvironmentVariable.CHANGE_SET.toString());
+            }
+            keyContents.append('\n');
+        }
+        // An incremental analysis only reports on the change set, so its result is only the same for the same change set
+        if (dependsOnChangeSet) {
+            keyContents.append(StringUtils.defaultString(changeSet));
+        }
+        return DigestUtils.sha256Hex(keyContents.toString());
+    }
+
+}
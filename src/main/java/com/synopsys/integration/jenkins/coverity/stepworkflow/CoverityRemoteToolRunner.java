@@ -37,40 +37,61 @@ import com.synopsys.integration.coverity.executable.ExecutableManager;
 import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
 import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
 
-public class CoverityRemoteToolRunner extends CoverityRemoteCallable<Integer> {
+import hudson.util.StreamTaskListener;
+
+public class CoverityRemoteToolRunner extends CoverityRemoteCallable<CoverityToolResult> {
     private static final long serialVersionUID = -1777043273065180425L;
     private final String coverityToolHome;
     private final List<String> arguments;
     private final HashMap<String, String> environmentVariables;
 
     private final String workingDirectoryPath;
+    private final boolean bufferOutput;
 
     public CoverityRemoteToolRunner(final CoverityJenkinsIntLogger logger, final String coverityToolHome, final List<String> arguments, final String workingDirectoryPath, final HashMap<String, String> environmentVariables) {
+        this(logger, coverityToolHome, arguments, workingDirectoryPath, environmentVariables, false);
+    }
+
+    // With bufferOutput, the output is returned with the result instead of being logged as the tool runs
+    public CoverityRemoteToolRunner(final CoverityJenkinsIntLogger logger, final String coverityToolHome, final List<String> arguments, final String workingDirectoryPath, final HashMap<String, String> environmentVariables,
+        final boolean bufferOutput) {
         super(logger);
         this.environmentVariables = environmentVariables;
         this.coverityToolHome = coverityToolHome;
         this.arguments = arguments;
         this.workingDirectoryPath = workingDirectoryPath;
+        this.bufferOutput = bufferOutput;
     }
 
-    public Integer call() throws CoverityJenkinsException {
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public CoverityToolResult call() throws CoverityJenkinsException {
         final File workingDirectory = new File(workingDirectoryPath);
         final Executable executable = new Executable(arguments, workingDirectory, environmentVariables);
         final ExecutableManager executableManager = new ExecutableManager(new File(coverityToolHome));
+        final ByteArrayOutputStream bufferedOutputStream = new ByteArrayOutputStream();
+        final CoverityJenkinsIntLogger toolLogger = bufferOutput ? logger.withTaskListener(new StreamTaskListener(bufferedOutputStream, StandardCharsets.UTF_8)) : logger;
+        final CoverityToolOutputParser outputParser = new CoverityToolOutputParser(toolLogger.getTaskListener().getLogger());
         final Integer exitCode;
         final ByteArrayOutputStream errorOutputStream = new ByteArrayOutputStream();
-        try (final PrintStream errorStream = new PrintStream(errorOutputStream, true, "UTF-8")) {
-            final PrintStream jenkinsPrintStream = logger.getTaskListener().getLogger();
-            exitCode = executableManager.execute(executable, logger, jenkinsPrintStream, errorStream);
+        try (final PrintStream errorStream = new PrintStream(errorOutputStream, true, "UTF-8"); final PrintStream parsingPrintStream = new PrintStream(outputParser, true, "UTF-8")) {
+            exitCode = executableManager.execute(executable, toolLogger, parsingPrintStream, errorStream);
         } catch (final UnsupportedEncodingException | ExecutableException | ExecutableRunnerException e) {
             throw new CoverityJenkinsException(e);
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new CoverityJenkinsException(e);
         } finally {
-            logger.error(new String(errorOutputStream.toByteArray(), StandardCharsets.UTF_8));
+            toolLogger.error(new String(errorOutputStream.toByteArray(), StandardCharsets.UTF_8));
+        }
+        final CoverityToolResult coverityToolResult = outputParser.toResult(CoverityToolResult.toToolName(arguments), exitCode != null ? exitCode : 0);
+        if (bufferOutput) {
+            toolLogger.getTaskListener().getLogger().flush();
+            return coverityToolResult.withBufferedOutput(new String(bufferedOutputStream.toByteArray(), StandardCharsets.UTF_8));
         }
-        return exitCode;
+        return coverityToolResult;
     }
 
 }
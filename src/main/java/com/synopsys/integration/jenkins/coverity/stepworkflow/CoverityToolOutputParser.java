@@ -0,0 +1,117 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Passes Coverity tool output straight through to the build log while picking out the snapshot ID, defect count and timing lines as each line completes, so that nothing
+ * has to be buffered or queried afterwards.
+ */
+public class CoverityToolOutputParser extends OutputStream {
+    private static final Pattern SNAPSHOT_ID_PATTERN = Pattern.compile("New snapshot ID (\\d{1,18}) added");
+    private static final Pattern DEFECT_OCCURRENCES_PATTERN = Pattern.compile("Defect occurrences found\\s*:\\s*(\\d{1,9})");
+    private static final Pattern TIMING_PATTERN = Pattern.compile("^\\s*(Elapsed time|Time taken by [^:]+?)\\s*:\\s*(\\S.*?)\\s*$");
+    // Longer lines are still logged but not parsed; none of the lines of interest come close
+    private static final int MAX_PARSED_LINE_LENGTH = 4096;
+
+    private final OutputStream logStream;
+    private final ByteArrayOutputStream currentLine = new ByteArrayOutputStream();
+    private final Map<String, String> timings = new LinkedHashMap<>();
+    private Long snapshotId;
+    private Integer defectOccurrences;
+
+    public CoverityToolOutputParser(OutputStream logStream) {
+        this.logStream = logStream;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        logStream.write(b);
+        append(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        logStream.write(bytes, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            append(bytes[i]);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        logStream.flush();
+    }
+
+    // The log stream belongs to the build, so it is flushed but left open
+    @Override
+    public void close() throws IOException {
+        parseCurrentLine();
+        logStream.flush();
+    }
+
+    public CoverityToolResult toResult(String toolName, int exitCode) {
+        parseCurrentLine();
+        return new CoverityToolResult(toolName, exitCode, snapshotId, defectOccurrences, timings);
+    }
+
+    private void append(int b) {
+        if (b == '\n') {
+            parseCurrentLine();
+        } else if (currentLine.size() < MAX_PARSED_LINE_LENGTH) {
+            currentLine.write(b);
+        }
+    }
+
+    private void parseCurrentLine() {
+        if (currentLine.size() == 0) {
+            return;
+        }
+        String line = new String(currentLine.toByteArray(), StandardCharsets.UTF_8);
+        currentLine.reset();
+
+        Matcher snapshotIdMatcher = SNAPSHOT_ID_PATTERN.matcher(line);
+        if (snapshotIdMatcher.find()) {
+            snapshotId = Long.valueOf(snapshotIdMatcher.group(1));
+            return;
+        }
+        Matcher defectOccurrencesMatcher = DEFECT_OCCURRENCES_PATTERN.matcher(line);
+        if (defectOccurrencesMatcher.find()) {
+            defectOccurrences = Integer.valueOf(defectOccurrencesMatcher.group(1));
+            return;
+        }
+        Matcher timingMatcher = TIMING_PATTERN.matcher(line);
+        if (timingMatcher.find()) {
+            timings.put(timingMatcher.group(1), timingMatcher.group(2));
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * What a Coverity tool reported while it ran, as parsed from its output on the agent.
+ */
+public class CoverityToolResult implements Serializable {
+    private static final long serialVersionUID = 6124739086473826051L;
+    private final String toolName;
+    private final int exitCode;
+    private final Long snapshotId;
+    private final Integer defectOccurrences;
+    private final LinkedHashMap<String, String> timings;
+    // Only set when the tool ran with its output held back
+    private final String bufferedOutput;
+
+    public CoverityToolResult(String toolName, int exitCode, Long snapshotId, Integer defectOccurrences, Map<String, String> timings) {
+        this(toolName, exitCode, snapshotId, defectOccurrences, timings, null);
+    }
+
+    public CoverityToolResult(String toolName, int exitCode, Long snapshotId, Integer defectOccurrences, Map<String, String> timings, String bufferedOutput) {
+        this.toolName = toolName;
+        this.exitCode = exitCode;
+        this.snapshotId = snapshotId;
+        this.defectOccurrences = defectOccurrences;
+        this.timings = new LinkedHashMap<>(timings);
+        this.bufferedOutput = bufferedOutput;
+    }
+
+    public static String toToolName(List<String> arguments) {
+        return arguments.isEmpty() ? "" : FilenameUtils.getBaseName(arguments.get(0));
+    }
+
+    public String getToolName() {
+        return toolName;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public Optional<Long> getSnapshotId() {
+        return Optional.ofNullable(snapshotId);
+    }
+
+    public Optional<Integer> getDefectOccurrences() {
+        return Optional.ofNullable(defectOccurrences);
+    }
+
+    public Map<String, String> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    public Optional<String> getBufferedOutput() {
+        return Optional.ofNullable(bufferedOutput);
+    }
+
+    public CoverityToolResult withBufferedOutput(String bufferedOutput) {
+        return new CoverityToolResult(toolName, exitCode, snapshotId, defectOccurrences, timings, bufferedOutput);
+    }
+
+}
@@ -24,19 +24,22 @@ package com.synopsys.integration.jenkins.coverity.stepworkflow;
 
 import static com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME;
 
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
 import com.synopsys.integration.coverity.config.CoverityServerConfig;
-import com.synopsys.integration.coverity.exception.CoverityIntegrationException;
 import com.synopsys.integration.coverity.ws.ConfigurationServiceWrapper;
 import com.synopsys.integration.coverity.ws.WebServiceFactory;
 import com.synopsys.integration.coverity.ws.view.ViewService;
+import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.function.ThrowingSupplier;
 import com.synopsys.integration.jenkins.JenkinsVersionHelper;
 import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
@@ -47,6 +50,13 @@ import com.synopsys.integration.jenkins.coverity.extensions.OnCommandFailure;
 import com.synopsys.integration.jenkins.coverity.extensions.buildstep.CoverityRunConfiguration;
 import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
 import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityGlobalConfig;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityNodeProperty;
+import com.synopsys.integration.jenkins.coverity.extensions.pipeline.ProjectStreamPair;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.AnalysisCostHistory;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.CoverityConnectCacheRegistry;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
+import com.synopsys.integration.jenkins.coverity.ws.RetryPolicy;
 import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
 import com.synopsys.integration.stepworkflow.SubStep;
 import com.synopsys.integration.stepworkflow.jenkins.RemoteSubStep;
@@ -55,6 +65,7 @@ import com.synopsys.integration.util.IntEnvironmentVariables;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.Launcher;
+import hudson.model.Computer;
 import hudson.model.Node;
 import hudson.model.TaskListener;
 import hudson.remoting.VirtualChannel;
@@ -82,16 +93,24 @@ public class CoverityWorkflowStepFactory {
         this.listener = listener;
     }
 
-    public CreateMissingProjectsAndStreams createStepCreateMissingProjectsAndStreams(String coverityServerUrl, String projectName, String streamName) throws CoverityJenkinsAbortException {
-        WebServiceFactory webServiceFactory = getWebServiceFactoryFromUrl(coverityServerUrl);
-        ConfigurationServiceWrapper configurationServiceWrapper;
-        try {
-            configurationServiceWrapper = webServiceFactory.createConfigurationServiceWrapper();
-        } catch (MalformedURLException malformedURLException) {
-            throw CoverityJenkinsAbortException.fromMalformedUrlException(coverityServerUrl + WebServiceFactory.CONFIGURATION_SERVICE_V9_WSDL, malformedURLException);
-        }
+    public CreateMissingProjectsAndStreams createStepCreateMissingProjectsAndStreams(String coverityServerUrl, String projectName, String streamName) {
+        ThrowingSupplier<ConfigurationServiceWrapper, CoverityJenkinsAbortException> configurationServiceWrapperSupplier = () -> {
+            WebServiceFactory webServiceFactory = getWebServiceFactoryFromUrl(coverityServerUrl);
+            try {
+                return webServiceFactory.createConfigurationServiceWrapper();
+            } catch (MalformedURLException malformedURLException) {
+                throw CoverityJenkinsAbortException.fromMalformedUrlException(coverityServerUrl + WebServiceFactory.CONFIGURATION_SERVICE_V9_WSDL, malformedURLException);
+            }
+        };
 
-        return new CreateMissingProjectsAndStreams(initializedLogger.get(), configurationServiceWrapper, projectName, streamName);
+        return new CreateMissingProjectsAndStreams(initializedLogger.get(), configurationServiceWrapperSupplier, createResilientConnectExecutor(coverityServerUrl), RetryPolicy.PROVISIONING_POLL,
+            CoverityConnectCacheRegistry.getProjectStreamCache(coverityServerUrl), ProvisioningCache.getInstance(), coverityServerUrl, projectName, streamName);
+    }
+
+    public ProvisionProjectsAndStreams createStepProvisionProjectsAndStreams(ThrowingSupplier<WebServiceFactory, CoverityJenkinsAbortException> webServiceFactorySupplier, String coverityServerUrl,
+        List<ProjectStreamPair> projectStreamPairs, int parallelism) {
+        return new ProvisionProjectsAndStreams(initializedLogger.get(), webServiceFactorySupplier, createResilientConnectExecutor(coverityServerUrl), CoverityConnectCacheRegistry.getProjectStreamCache(coverityServerUrl),
+            ProvisioningCache.getInstance(), coverityServerUrl, projectStreamPairs, parallelism);
     }
 
     // TODO: Remove Jenkins extension object?
@@ -109,12 +128,44 @@ public class CoverityWorkflowStepFactory {
         }
         ViewService viewService = webServiceFactory.createViewService();
 
-        return new GetIssuesInView(initializedLogger.get(), configurationServiceWrapper, viewService, projectName, viewName);
+        return new GetIssuesInView(initializedLogger.get(), configurationServiceWrapper, viewService, createResilientConnectExecutor(coverityServerUrl), projectName, viewName);
     }
 
     // TODO: Remove Jenkins extension object?
-    public RunCoverityCommands createStepRunCoverityCommands(String workspaceRemotePath, OnCommandFailure onCommandFailure) throws CoverityJenkinsAbortException {
-        return new RunCoverityCommands(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), workspaceRemotePath, onCommandFailure, initializedVirtualChannel.get());
+    public RunCoverityCommands createStepRunCoverityCommands(String workspaceRemotePath, OnCommandFailure onCommandFailure, BiConsumer<String, CoverityToolResult> commitResultConsumer, int maxParallelCommits,
+        AnalysisCostHistory analysisCostHistory) throws CoverityJenkinsAbortException {
+        CoverityNodeProperty coverityNodeProperty = Optional.ofNullable(node)
+                                                        .map(Node::getNodeProperties)
+                                                        .map(nodeProperties -> nodeProperties.get(CoverityNodeProperty.class))
+                                                        .orElse(null);
+        AnalysisAdmissionController analysisAdmissionController = null;
+        AnalysisAdmissionController.Limits analysisLimits = null;
+        if (coverityNodeProperty != null) {
+            analysisAdmissionController = AnalysisAdmissionController.forNode(node.getNodeName());
+            analysisLimits = coverityNodeProperty.getAnalysisLimits();
+        }
+
+        return new RunCoverityCommands(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), workspaceRemotePath, onCommandFailure, initializedVirtualChannel.get(), ProvisioningCache.getInstance(),
+            commitResultConsumer, maxParallelCommits, analysisAdmissionController, analysisLimits, analysisCostHistory);
+    }
+
+    public ChooseAnalysisByCost createStepChooseAnalysisByCost(CoverityRunConfiguration coverityRunConfiguration, AnalysisCostHistory analysisCostHistory) {
+        return new ChooseAnalysisByCost(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), coverityRunConfiguration, analysisCostHistory);
+    }
+
+    public ComputeAnalysisKey createStepComputeAnalysisKey(String workspaceRemotePath, CoverityRunConfiguration coverityRunConfiguration, boolean reuseAnalysisResults, Consumer<String> analysisKeyConsumer)
+        throws CoverityJenkinsAbortException {
+        return new ComputeAnalysisKey(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), initializedVirtualChannel.get(), workspaceRemotePath, createStepGetCoverityCommands(coverityRunConfiguration),
+            reuseAnalysisResults, analysisKeyConsumer);
+    }
+
+    public TuneCoverityParallelism createStepTuneCoverityParallelism(CoverityRunConfiguration coverityRunConfiguration) throws CoverityJenkinsAbortException {
+        // Other builds running on this node right now share its processors and memory with this one
+        int concurrentBuilds = Optional.ofNullable(node)
+                                   .map(Node::toComputer)
+                                   .map(Computer::countBusy)
+                                   .orElse(1);
+        return new TuneCoverityParallelism(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), initializedVirtualChannel.get(), coverityRunConfiguration, concurrentBuilds);
     }
 
     public SubStep<Object, String> createStepCreateAuthenticationKeyFile(String workspaceRemotePath, String coverityServerUrl) throws CoverityJenkinsAbortException {
@@ -153,6 +204,12 @@ public class CoverityWorkflowStepFactory {
             remoteIntermediateDirectory, coverityToolHomeBin);
     }
 
+    public ExpandChangeSet createStepExpandChangeSet(ConfigureChangeSetPatterns configureChangeSetPatterns, String workspaceRemotePath) throws CoverityJenkinsAbortException {
+        boolean expandChangeSetDependencies = configureChangeSetPatterns != null && configureChangeSetPatterns.isExpandChangeSetDependencies();
+        return new ExpandChangeSet(initializedLogger.get(), initializedIntEnvrionmentVariables.get(), initializedVirtualChannel.get(), workspaceRemotePath, getIntermediateDirectory(workspaceRemotePath).getRemote(),
+            expandChangeSetDependencies);
+    }
+
     public RemoteSubStep<Boolean> createStepValidateCoverityInstallation(boolean shouldValidateVersion) throws CoverityJenkinsAbortException {
         String coverityToolHome = initializedIntEnvrionmentVariables.get().getValue(COVERITY_TOOL_HOME.toString());
 
@@ -208,16 +265,26 @@ public class CoverityWorkflowStepFactory {
         CoverityServerConfig coverityServerConfig = coverityConnectInstance.getCoverityServerConfig(logger);
         WebServiceFactory webServiceFactory = coverityServerConfig.createWebServiceFactory(logger);
         try {
-            webServiceFactory.connect();
-        } catch (CoverityIntegrationException e) {
-            throw new CoverityJenkinsAbortException("An error occurred when connecting to Coverity Connect. Please ensure that you can connect properly.");
+            createResilientConnectExecutor(coverityServerUrl).executeIdempotent("connect to Coverity Connect", () -> {
+                webServiceFactory.connect();
+                return null;
+            });
         } catch (MalformedURLException e) {
             throw CoverityJenkinsAbortException.fromMalformedUrlException(coverityServerUrl + WebServiceFactory.CONFIGURATION_SERVICE_V9_WSDL, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoverityJenkinsAbortException("Connecting to Coverity Connect was interrupted.");
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception e) {
+            throw new CoverityJenkinsAbortException("An error occurred when connecting to Coverity Connect. Please ensure that you can connect properly. " + e.getMessage());
         }
 
         return webServiceFactory;
     }
 
+    public ResilientConnectExecutor createResilientConnectExecutor(String coverityServerUrl) {
+        return ResilientConnectExecutor.forBuild(getOrCreateLogger(), coverityServerUrl);
+    }
+
     public FilePath getIntermediateDirectory(String workspaceRemotePath) throws CoverityJenkinsAbortException {
         return new FilePath(initializedVirtualChannel.get(), workspaceRemotePath).child("idir");
     }
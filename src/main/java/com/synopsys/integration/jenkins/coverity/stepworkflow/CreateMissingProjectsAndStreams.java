@@ -22,65 +22,151 @@
  */
 package com.synopsys.integration.jenkins.coverity.stepworkflow;
 
+import java.io.IOException;
 import java.util.Optional;
 
 import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
 import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectIdDataObj;
 import com.synopsys.integration.coverity.api.ws.configuration.StreamDataObj;
 import com.synopsys.integration.coverity.ws.ConfigurationServiceWrapper;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.function.ThrowingSupplier;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsAbortException;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamCache;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.jenkins.coverity.ws.ConnectOperation;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
+import com.synopsys.integration.jenkins.coverity.ws.RetryPolicy;
 import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
 import com.synopsys.integration.stepworkflow.AbstractExecutingSubStep;
 import com.synopsys.integration.stepworkflow.SubStepResponse;
 
 public class CreateMissingProjectsAndStreams extends AbstractExecutingSubStep {
     private final JenkinsIntLogger logger;
-    private final ConfigurationServiceWrapper configurationServiceWrapper;
+    // Only connected to on demand; a build whose project and stream were recently verified never needs it
+    private final ThrowingSupplier<ConfigurationServiceWrapper, CoverityJenkinsAbortException> configurationServiceWrapperSupplier;
+    private final ResilientConnectExecutor resilientConnectExecutor;
+    private final RetryPolicy pollingPolicy;
+    private final ProjectStreamCache projectStreamCache;
+    private final ProvisioningCache provisioningCache;
+    private final String coverityServerUrl;
     private final String projectName;
     private final String streamName;
 
-    public CreateMissingProjectsAndStreams(JenkinsIntLogger logger, ConfigurationServiceWrapper configurationServiceWrapper, String projectName, String streamName) {
+    public CreateMissingProjectsAndStreams(JenkinsIntLogger logger, ThrowingSupplier<ConfigurationServiceWrapper, CoverityJenkinsAbortException> configurationServiceWrapperSupplier,
+        ResilientConnectExecutor resilientConnectExecutor, RetryPolicy pollingPolicy, ProjectStreamCache projectStreamCache, ProvisioningCache provisioningCache, String coverityServerUrl, String projectName,
+        String streamName) {
         this.logger = logger;
-        this.configurationServiceWrapper = configurationServiceWrapper;
+        this.configurationServiceWrapperSupplier = configurationServiceWrapperSupplier;
+        this.resilientConnectExecutor = resilientConnectExecutor;
+        this.pollingPolicy = pollingPolicy;
+        this.projectStreamCache = projectStreamCache;
+        this.provisioningCache = provisioningCache;
+        this.coverityServerUrl = coverityServerUrl;
         this.projectName = projectName;
         this.streamName = streamName;
     }
 
     @Override
     public SubStepResponse<Object> run() {
+        if (provisioningCache.isVerified(coverityServerUrl, projectName, streamName)) {
+            logger.debug(String.format("Project '%s' and stream '%s' were recently verified to exist, skipping the lookup.", projectName, streamName));
+            return SubStepResponse.SUCCESS();
+        }
+
+        Optional<String> recentFailure = provisioningCache.getRecentFailure(coverityServerUrl, projectName, streamName);
+        if (recentFailure.isPresent()) {
+            return SubStepResponse.FAILURE(new CoverityJenkinsException(String.format("Could not create project '%s' or stream '%s'; an attempt less than %d seconds ago failed: %s", projectName,
+                streamName, ProvisioningCache.FAILED_TIME_TO_LIVE.getSeconds(), recentFailure.get())));
+        }
+
         try {
-            Optional<ProjectDataObj> matchingProject = configurationServiceWrapper.getProjectByExactName(projectName);
+            ConfigurationServiceWrapper configurationServiceWrapper = configurationServiceWrapperSupplier.get();
+
+            Optional<ProjectDataObj> matchingProject = resilientConnectExecutor.executeIdempotent("look up project " + projectName, () -> configurationServiceWrapper.getProjectByExactName(projectName));
             if (!matchingProject.isPresent()) {
                 logger.info(String.format("No project with the name '%s' was found, attempting creation...", projectName));
-                configurationServiceWrapper.createSimpleProject(projectName);
-                matchingProject = configurationServiceWrapper.getAndWaitForProjectWithExactName(projectName);
-
-                if (matchingProject.isPresent()) {
-                    logger.info(String.format("Successfully created project '%s'", projectName));
-                } else {
-                    logger.error(String.format("Could not create project '%s'", projectName));
-                }
+                matchingProject = Optional.of(createProject(configurationServiceWrapper));
+                projectStreamCache.recordProject(projectName);
             }
 
-            Optional<StreamDataObj> matchingStream = configurationServiceWrapper.getStreamByExactName(streamName);
-            if (!matchingStream.isPresent() && matchingProject.isPresent()) {
+            Optional<StreamDataObj> matchingStream = resilientConnectExecutor.executeIdempotent("look up stream " + streamName, () -> configurationServiceWrapper.getStreamByExactName(streamName));
+            if (!matchingStream.isPresent()) {
                 logger.info(String.format("No stream with the name '%s' was found, attempting creation as an Any language stream with the Default Triage Store in project '%s'...", streamName, projectName));
-                configurationServiceWrapper.createSimpleStreamInProject(matchingProject.get().getId(), streamName);
-                matchingStream = configurationServiceWrapper.getAndWaitForStreamWithExactName(streamName);
-
-                if (matchingStream.isPresent()) {
-                    logger.info(String.format("Successfully created stream '%s'", streamName));
-                } else {
-                    logger.error(String.format("Could not create stream '%s'", streamName));
-                }
+                createStream(configurationServiceWrapper, matchingProject.get().getId());
+                projectStreamCache.recordStream(projectName, streamName);
             }
+
+            provisioningCache.recordVerified(coverityServerUrl, projectName, streamName);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             return SubStepResponse.FAILURE(e);
-        } catch (CovRemoteServiceException_Exception e) {
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception e) {
             return SubStepResponse.FAILURE(e);
         }
 
         return SubStepResponse.SUCCESS();
     }
 
+    private ProjectDataObj createProject(ConfigurationServiceWrapper configurationServiceWrapper) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        try {
+            resilientConnectExecutor.executeOnce("create project " + projectName, () -> {
+                configurationServiceWrapper.createSimpleProject(projectName);
+                return null;
+            });
+        } catch (CovRemoteServiceException_Exception e) {
+            // Connect also rejects the creation when another build created the same project first
+            Optional<ProjectDataObj> concurrentlyCreatedProject = pollUntilPresent("wait for project " + projectName, () -> configurationServiceWrapper.getProjectByExactName(projectName));
+            if (concurrentlyCreatedProject.isPresent()) {
+                logger.info(String.format("Project '%s' was created by another build in the meantime", projectName));
+                return concurrentlyCreatedProject.get();
+            }
+            logger.error(String.format("Could not create project '%s': %s", projectName, e.getMessage()));
+            provisioningCache.recordFailure(coverityServerUrl, projectName, streamName, String.format("project '%s' could not be created: %s", projectName, e.getMessage()));
+            throw e;
+        }
+
+        logger.info(String.format("Successfully created project '%s'", projectName));
+        // Connect only answers a create once it has been committed, so there is nothing to wait for
+        ProjectIdDataObj projectId = new ProjectIdDataObj();
+        projectId.setName(projectName);
+        ProjectDataObj createdProject = new ProjectDataObj();
+        createdProject.setId(projectId);
+        return createdProject;
+    }
+
+    private void createStream(ConfigurationServiceWrapper configurationServiceWrapper, ProjectIdDataObj projectId) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        try {
+            resilientConnectExecutor.executeOnce("create stream " + streamName, () -> {
+                configurationServiceWrapper.createSimpleStreamInProject(projectId, streamName);
+                return null;
+            });
+        } catch (CovRemoteServiceException_Exception e) {
+            Optional<StreamDataObj> concurrentlyCreatedStream = pollUntilPresent("wait for stream " + streamName, () -> configurationServiceWrapper.getStreamByExactName(streamName));
+            if (concurrentlyCreatedStream.isPresent()) {
+                logger.info(String.format("Stream '%s' was created by another build in the meantime", streamName));
+                return;
+            }
+            logger.error(String.format("Could not create stream '%s': %s", streamName, e.getMessage()));
+            provisioningCache.recordFailure(coverityServerUrl, projectName, streamName, String.format("stream '%s' could not be created: %s", streamName, e.getMessage()));
+            throw e;
+        }
+
+        logger.info(String.format("Successfully created stream '%s'", streamName));
+    }
+
+    private <T> Optional<T> pollUntilPresent(String description, ConnectOperation<Optional<T>> lookup) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        int attempt = 1;
+        while (true) {
+            Optional<T> result = resilientConnectExecutor.executeIdempotent(description, lookup);
+            if (result.isPresent() || attempt >= pollingPolicy.getMaxAttempts()) {
+                return result;
+            }
+            Thread.sleep(pollingPolicy.getDelayInMillis(attempt));
+            attempt++;
+        }
+    }
+
 }
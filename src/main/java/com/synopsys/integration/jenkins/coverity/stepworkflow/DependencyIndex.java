@@ -0,0 +1,200 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Which C and C++ files include which, for one workspace. Refreshing only rereads the files whose size or modification time changed, so keeping the index
+ * between builds makes each refresh little more than a directory walk.
+ */
+public class DependencyIndex {
+    public static final Set<String> TRANSLATION_UNIT_EXTENSIONS = new HashSet<>(Arrays.asList("c", "cc", "cp", "cpp", "cxx", "c++", "m", "mm", "cu"));
+    public static final Set<String> HEADER_EXTENSIONS = new HashSet<>(Arrays.asList("h", "hh", "hp", "hpp", "hxx", "h++", "inl", "ipp", "tcc", "tpp", "cuh"));
+    private static final Pattern INCLUDE_DIRECTIVE = Pattern.compile("^\\s*#\\s*(?:include|import)\\s*[<\"]([^>\"]+)[>\"]");
+
+    private final Map<String, IndexedFile> indexedFiles = new HashMap<>();
+    // File name to the indexed paths with that name, to resolve includes that are relative to an include directory rather than to the including file
+    private final Map<String, List<String>> pathsByFileName = new HashMap<>();
+    private Map<String, Set<String>> includedBy = Collections.emptyMap();
+
+    /**
+     * Brings the index in line with the files under the root, skipping hidden directories and the given excluded directories.
+     */
+    public void refresh(Path root, Collection<Path> excludedDirectories) throws IOException {
+        Set<String> seenPaths = new HashSet<>();
+        boolean[] changed = { false };
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                boolean hidden = !directory.equals(root) && directory.getFileName().toString().startsWith(".");
+                return hidden || excludedDirectories.contains(directory) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                String extension = StringUtils.lowerCase(FilenameUtils.getExtension(file.getFileName().toString()));
+                if (!attributes.isRegularFile() || (!TRANSLATION_UNIT_EXTENSIONS.contains(extension) && !HEADER_EXTENSIONS.contains(extension))) {
+                    return FileVisitResult.CONTINUE;
+                }
+
+                String relativePath = toRelativePath(root, file);
+                seenPaths.add(relativePath);
+                IndexedFile indexedFile = indexedFiles.get(relativePath);
+                long lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+                if (indexedFile == null || indexedFile.lastModifiedMillis != lastModifiedMillis || indexedFile.size != attributes.size()) {
+                    indexedFiles.put(relativePath, new IndexedFile(lastModifiedMillis, attributes.size(), readIncludes(file)));
+                    changed[0] = true;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exception) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        if (indexedFiles.keySet().retainAll(seenPaths) || changed[0]) {
+            rebuildReverseIndex();
+        }
+    }
+
+    /**
+     * The changed files, followed by every translation unit that includes one of them, directly or through other headers.
+     */
+    public List<String> expand(Collection<String> changedFiles) {
+        Set<String> expandedFiles = new LinkedHashSet<>(changedFiles);
+        Set<String> visited = new HashSet<>(changedFiles);
+        Deque<String> pending = new ArrayDeque<>(changedFiles);
+        while (!pending.isEmpty()) {
+            for (String includingFile : includedBy.getOrDefault(pending.removeFirst(), Collections.emptySet())) {
+                if (visited.add(includingFile)) {
+                    pending.addLast(includingFile);
+                    if (TRANSLATION_UNIT_EXTENSIONS.contains(StringUtils.lowerCase(FilenameUtils.getExtension(includingFile)))) {
+                        expandedFiles.add(includingFile);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(expandedFiles);
+    }
+
+    public int size() {
+        return indexedFiles.size();
+    }
+
+    private void rebuildReverseIndex() {
+        pathsByFileName.clear();
+        for (String path : indexedFiles.keySet()) {
+            pathsByFileName.computeIfAbsent(FilenameUtils.getName(path), ignored -> new ArrayList<>()).add(path);
+        }
+
+        Map<String, Set<String>> reverseIndex = new HashMap<>();
+        for (Map.Entry<String, IndexedFile> entry : indexedFiles.entrySet()) {
+            for (String include : entry.getValue().includes) {
+                for (String includedPath : resolve(entry.getKey(), include)) {
+                    reverseIndex.computeIfAbsent(includedPath, ignored -> new TreeSet<>()).add(entry.getKey());
+                }
+            }
+        }
+        includedBy = reverseIndex;
+    }
+
+    // Relative to the including file first, like the compiler does for quoted includes, otherwise every indexed file the include could name
+    private List<String> resolve(String includingPath, String include) {
+        String siblingPath = FilenameUtils.normalize(FilenameUtils.getPath(includingPath) + include, true);
+        if (siblingPath != null && indexedFiles.containsKey(siblingPath)) {
+            return Collections.singletonList(siblingPath);
+        }
+
+        // Leading ../ segments only make sense relative to a directory we do not know, the rest of the path still narrows the candidates down
+        String includeSuffix = FilenameUtils.separatorsToUnix(include).replaceFirst("^(\\.{1,2}/)+", "");
+        List<String> candidates = new ArrayList<>();
+        for (String candidate : pathsByFileName.getOrDefault(FilenameUtils.getName(includeSuffix), Collections.emptyList())) {
+            if (candidate.equals(includeSuffix) || candidate.endsWith("/" + includeSuffix)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private static String toRelativePath(Path root, Path file) {
+        return FilenameUtils.separatorsToUnix(root.relativize(file).toString());
+    }
+
+    private static List<String> readIncludes(Path file) {
+        List<String> includes = new ArrayList<>();
+        // Latin-1 decodes any byte, so a file in an unexpected encoding still yields its ASCII include directives
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = INCLUDE_DIRECTIVE.matcher(line);
+                if (matcher.find()) {
+                    includes.add(matcher.group(1).trim());
+                }
+            }
+        } catch (IOException e) {
+            // An unreadable file simply contributes no dependencies
+        }
+        return includes;
+    }
+
+    private static final class IndexedFile {
+        private final long lastModifiedMillis;
+        private final long size;
+        private final List<String> includes;
+
+        private IndexedFile(long lastModifiedMillis, long size, List<String> includes) {
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.size = size;
+            this.includes = includes;
+        }
+    }
+
+}
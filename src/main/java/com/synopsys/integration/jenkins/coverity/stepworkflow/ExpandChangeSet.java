@@ -0,0 +1,84 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.stepworkflow.AbstractExecutingSubStep;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Adds the translation units that include a changed header to $CHANGE_SET, so that an incremental analysis covers the code a header change can affect.
+ */
+public class ExpandChangeSet extends AbstractExecutingSubStep {
+    private final CoverityJenkinsIntLogger logger;
+    private final IntEnvironmentVariables intEnvironmentVariables;
+    private final VirtualChannel virtualChannel;
+    private final String workspaceRemotePath;
+    private final String intermediateDirectoryPath;
+    private final boolean expandChangeSetDependencies;
+
+    public ExpandChangeSet(CoverityJenkinsIntLogger logger, IntEnvironmentVariables intEnvironmentVariables, VirtualChannel virtualChannel, String workspaceRemotePath, String intermediateDirectoryPath,
+        boolean expandChangeSetDependencies) {
+        this.logger = logger;
+        this.intEnvironmentVariables = intEnvironmentVariables;
+        this.virtualChannel = virtualChannel;
+        this.workspaceRemotePath = workspaceRemotePath;
+        this.intermediateDirectoryPath = intermediateDirectoryPath;
+        this.expandChangeSetDependencies = expandChangeSetDependencies;
+    }
+
+    @Override
+    public SubStepResponse<Object> run() {
+        List<String> changedFiles = ChooseAnalysisByCost.getChangedFiles(intEnvironmentVariables);
+        if (!expandChangeSetDependencies || changedFiles.isEmpty()) {
+            return SubStepResponse.SUCCESS();
+        }
+
+        String streamName = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString());
+        List<String> expandedFiles;
+        try {
+            expandedFiles = virtualChannel.call(new ExpandChangeSetDependencies(logger, workspaceRemotePath, intermediateDirectoryPath, streamName, changedFiles));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SubStepResponse.FAILURE(e);
+        } catch (IOException | IntegrationException e) {
+            // The unexpanded change set is still a valid, if narrower, incremental analysis
+            logger.warn("Could not expand the $CHANGE_SET with dependent files: " + e.getMessage());
+            return SubStepResponse.SUCCESS();
+        }
+
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.CHANGE_SET.toString(), String.join(" ", expandedFiles));
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.CHANGE_SET_SIZE.toString(), String.valueOf(expandedFiles.size()));
+        logger.alwaysLog(String.format("Expanded the $CHANGE_SET from %d to %d files with the translation units that include changed files", changedFiles.size(), expandedFiles.size()));
+        return SubStepResponse.SUCCESS();
+    }
+
+}
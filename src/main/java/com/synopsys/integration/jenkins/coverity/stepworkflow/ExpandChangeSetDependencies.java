@@ -0,0 +1,77 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+
+public class ExpandChangeSetDependencies extends CoverityRemoteCallable<List<String>> {
+    public static final int MAX_CACHED_INDEXES = 16;
+    private static final long serialVersionUID = 5316497465730584126L;
+    // Lives in the agent JVM, one index per workspace and stream, so that consecutive builds only reread what changed
+    private static final Map<String, DependencyIndex> DEPENDENCY_INDEXES = Collections.synchronizedMap(new LinkedHashMap<String, DependencyIndex>(16, 0.75f, true) {
+        private static final long serialVersionUID = 2884807313226914473L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DependencyIndex> eldest) {
+            return size() > MAX_CACHED_INDEXES;
+        }
+    });
+    private final String workspaceRemotePath;
+    private final String intermediateDirectoryPath;
+    private final String streamName;
+    private final ArrayList<String> changedFiles;
+
+    public ExpandChangeSetDependencies(CoverityJenkinsIntLogger logger, String workspaceRemotePath, String intermediateDirectoryPath, String streamName, List<String> changedFiles) {
+        super(logger);
+        this.workspaceRemotePath = workspaceRemotePath;
+        this.intermediateDirectoryPath = intermediateDirectoryPath;
+        this.streamName = streamName;
+        this.changedFiles = new ArrayList<>(changedFiles);
+    }
+
+    @Override
+    public List<String> call() throws CoverityJenkinsException {
+        Path workspace = Paths.get(workspaceRemotePath).normalize();
+        DependencyIndex dependencyIndex = DEPENDENCY_INDEXES.computeIfAbsent(workspaceRemotePath + "#" + streamName, ignored -> new DependencyIndex());
+        // Concurrent builds of the same job and stream take turns, the second one finds the index already fresh
+        synchronized (dependencyIndex) {
+            try {
+                dependencyIndex.refresh(workspace, Collections.singleton(Paths.get(intermediateDirectoryPath).normalize()));
+            } catch (IOException e) {
+                throw new CoverityJenkinsException("Could not index the dependencies of the workspace: " + e.getMessage(), e);
+            }
+            return dependencyIndex.expand(changedFiles);
+        }
+    }
+
+}
@@ -22,13 +22,18 @@
  */
 package com.synopsys.integration.jenkins.coverity.stepworkflow;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.tools.ant.types.Commandline;
+import org.apache.tools.ant.BuildException;
 
 import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
 import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
@@ -44,9 +49,13 @@ import com.synopsys.integration.stepworkflow.AbstractSupplyingSubStep;
 import com.synopsys.integration.stepworkflow.SubStepResponse;
 import com.synopsys.integration.util.IntEnvironmentVariables;
 
-import hudson.Util;
-
 public class GetCoverityCommands extends AbstractSupplyingSubStep<List<List<String>>> {
+    private static final Pattern ANALYSIS_WORKERS_OPTION = Pattern.compile("(^|\\s)(-j|--jobs)(\\s|=|\\d|$)");
+    private static final Pattern TRANSLATION_WORKERS_OPTION = Pattern.compile("(^|\\s)--parallel-translate(\\s|=|$)");
+    private static final String WORKSPACE = "WORKSPACE";
+    private static final List<String> UNBOUND_VARIABLES = Arrays.asList(WORKSPACE, JenkinsCoverityEnvironmentVariable.TEMPORARY_AUTH_KEY_PATH.toString(),
+        JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS.toString(), JenkinsCoverityEnvironmentVariable.COVERITY_TRANSLATION_WORKERS.toString(),
+        JenkinsCoverityEnvironmentVariable.CHANGE_SET.toString());
     private final IntLogger logger;
     private final IntEnvironmentVariables intEnvironmentVariables;
     private final CoverityRunConfiguration coverityRunConfiguration;
@@ -60,37 +69,88 @@ public class GetCoverityCommands extends AbstractSupplyingSubStep<List<List<Stri
     public SubStepResponse<List<List<String>>> run() {
         logger.debug("Preparing Coverity commands");
         try {
-            RepeatableCommand[] commands;
-            int changeSetSize = Integer.parseInt(intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.CHANGE_SET_SIZE.toString()));
-
-            if (CoverityRunConfiguration.RunConfigurationType.ADVANCED.equals(coverityRunConfiguration.getRunConFigurationType())) {
-                commands = ((AdvancedCoverityRunConfiguration) coverityRunConfiguration).getCommands();
-            } else {
-                String pathToAuthKeyFile = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.TEMPORARY_AUTH_KEY_PATH.toString());
-                commands = this.getSimpleModeCommands((SimpleCoverityRunConfiguration) coverityRunConfiguration, changeSetSize, pathToAuthKeyFile);
-            }
-
-            if (Arrays.stream(commands).map(RepeatableCommand::getCommand).allMatch(StringUtils::isBlank)) {
-                throw new CoverityJenkinsException("[ERROR] The are no non-empty Coverity commands configured.");
-            }
-
-            return Arrays.stream(commands)
-                       .map(RepeatableCommand::getCommand)
-                       .filter(StringUtils::isNotBlank)
-                       .map(this::toParameters)
+            Map<String, String> variables = intEnvironmentVariables.getVariables();
+            return Arrays.stream(getCommands())
+                       .map(RepeatableCommand::getCommandTemplate)
+                       .map(commandTemplate -> commandTemplate.bind(variables))
                        .collect(Collectors.collectingAndThen(Collectors.toList(), SubStepResponse::SUCCESS));
         } catch (CoverityJenkinsException e) {
             return SubStepResponse.FAILURE(e);
         }
     }
 
+    /**
+     * The commands as they would run, with every variable expanded except the values that change from build to build without changing the analysis: the paths of the
+     * authentication key file and of the workspace, and the tuned worker counts, which are left as references. $CHANGE_SET is left as a reference as well, so
+     * that whoever uses the commands can tell whether they depend on it.
+     */
+    public List<List<String>> getCommandConfiguration() throws CoverityJenkinsException {
+        Map<String, String> variables = new HashMap<>(intEnvironmentVariables.getVariables());
+        UNBOUND_VARIABLES.forEach(variables::remove);
+
+        // The key file may be in the workspace, so its path is replaced first
+        Map<String, String> placeholdersByValue = new LinkedHashMap<>();
+        addPlaceholder(placeholdersByValue, JenkinsCoverityEnvironmentVariable.TEMPORARY_AUTH_KEY_PATH.toString());
+        addPlaceholder(placeholdersByValue, WORKSPACE);
+
+        try {
+            List<List<String>> commandConfiguration = new ArrayList<>();
+            for (RepeatableCommand command : getCommands()) {
+                commandConfiguration.add(command.getCommandTemplate().bind(variables).stream()
+                                             .map(argument -> replaceValues(argument, placeholdersByValue))
+                                             .collect(Collectors.toList()));
+            }
+            return commandConfiguration;
+        } catch (BuildException e) {
+            throw new CoverityJenkinsException("[ERROR] A Coverity command could not be split into arguments: " + e.getMessage());
+        }
+    }
+
+    private void addPlaceholder(Map<String, String> placeholdersByValue, String variableName) {
+        String value = intEnvironmentVariables.getValue(variableName);
+        if (StringUtils.isNotBlank(value)) {
+            placeholdersByValue.put(value, "${" + variableName + "}");
+        }
+    }
+
+    private String replaceValues(String argument, Map<String, String> placeholdersByValue) {
+        String replacedArgument = argument;
+        for (Map.Entry<String, String> placeholder : placeholdersByValue.entrySet()) {
+            replacedArgument = replacedArgument.replace(placeholder.getKey(), placeholder.getValue());
+        }
+        return replacedArgument;
+    }
+
+    private RepeatableCommand[] getCommands() throws CoverityJenkinsException {
+        RepeatableCommand[] commands;
+        int changeSetSize = Integer.parseInt(intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.CHANGE_SET_SIZE.toString()));
+
+        if (CoverityRunConfiguration.RunConfigurationType.ADVANCED.equals(coverityRunConfiguration.getRunConFigurationType())) {
+            commands = ((AdvancedCoverityRunConfiguration) coverityRunConfiguration).getCommands();
+        } else {
+            String pathToAuthKeyFile = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.TEMPORARY_AUTH_KEY_PATH.toString());
+            commands = this.getSimpleModeCommands((SimpleCoverityRunConfiguration) coverityRunConfiguration, changeSetSize, pathToAuthKeyFile);
+        }
+
+        if (Arrays.stream(commands).map(RepeatableCommand::getCommand).allMatch(StringUtils::isBlank)) {
+            throw new CoverityJenkinsException("[ERROR] The are no non-empty Coverity commands configured.");
+        }
+
+        return Arrays.stream(commands)
+                   .filter(command -> StringUtils.isNotBlank(command.getCommand()))
+                   .toArray(RepeatableCommand[]::new);
+    }
+
     public RepeatableCommand[] getSimpleModeCommands(SimpleCoverityRunConfiguration simpleCoverityRunConfiguration, int changeSetSize, String pathToAuthKeyFile) throws CoverityJenkinsException {
-        RepeatableCommand[] repeatableCommands = new RepeatableCommand[3];
+        List<String> additionalCommitStreamNames = simpleCoverityRunConfiguration.getAdditionalCommitStreamNames();
+        RepeatableCommand[] repeatableCommands = new RepeatableCommand[3 + additionalCommitStreamNames.size()];
 
         CommandArguments commandArguments = simpleCoverityRunConfiguration.getCommandArguments();
-        String covBuildArguments = getArgumentsIfAvailable(commandArguments, CommandArguments::getCovBuildArguments);
+        String covBuildArguments = withTunedWorkers(getArgumentsIfAvailable(commandArguments, CommandArguments::getCovBuildArguments), TRANSLATION_WORKERS_OPTION, "--parallel-translate=",
+            JenkinsCoverityEnvironmentVariable.COVERITY_TRANSLATION_WORKERS);
         String covCaptureArguments = getArgumentsIfAvailable(commandArguments, CommandArguments::getCovCaptureArguments);
-        String covAnalyzeArguments = getArgumentsIfAvailable(commandArguments, CommandArguments::getCovAnalyzeArguments);
+        String covAnalyzeArguments = withTunedWorkers(getArgumentsIfAvailable(commandArguments, CommandArguments::getCovAnalyzeArguments), ANALYSIS_WORKERS_OPTION, "-j ",
+            JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS);
         String covRunDesktopArguments = getArgumentsIfAvailable(commandArguments, CommandArguments::getCovRunDesktopArguments);
         String covCommitDefectsArguments = getArgumentsIfAvailable(commandArguments, CommandArguments::getCovCommitDefectsArguments);
 
@@ -108,7 +168,7 @@ public class GetCoverityCommands extends AbstractSupplyingSubStep<List<List<Stri
             repeatableCommands[0] = RepeatableCommand.COV_BUILD(sourceArgument, covBuildArguments);
         }
 
-        CoverityAnalysisType coverityAnalysisType = simpleCoverityRunConfiguration.getCoverityAnalysisType();
+        CoverityAnalysisType coverityAnalysisType = ChooseAnalysisByCost.resolveAnalysisType(simpleCoverityRunConfiguration.getCoverityAnalysisType(), intEnvironmentVariables);
 
         if (coverityAnalysisType == CoverityAnalysisType.COV_ANALYZE || (coverityAnalysisType == CoverityAnalysisType.THRESHOLD && changeSetSize >= simpleCoverityRunConfiguration.getChangeSetAnalysisThreshold())) {
             repeatableCommands[1] = RepeatableCommand.COV_ANALYZE(covAnalyzeArguments);
@@ -119,10 +179,20 @@ public class GetCoverityCommands extends AbstractSupplyingSubStep<List<List<Stri
         }
 
         repeatableCommands[2] = RepeatableCommand.COV_COMMIT_DEFECTS(pathToAuthKeyFile, covCommitDefectsArguments);
+        for (int i = 0; i < additionalCommitStreamNames.size(); i++) {
+            repeatableCommands[3 + i] = RepeatableCommand.COV_COMMIT_DEFECTS(pathToAuthKeyFile, covCommitDefectsArguments, additionalCommitStreamNames.get(i));
+        }
 
         return repeatableCommands;
     }
 
+    private String withTunedWorkers(String arguments, Pattern workersOption, String workersArgumentPrefix, JenkinsCoverityEnvironmentVariable workersVariable) {
+        if (StringUtils.isBlank(intEnvironmentVariables.getValue(workersVariable.toString())) || (arguments != null && workersOption.matcher(arguments).find())) {
+            return arguments;
+        }
+        return workersArgumentPrefix + workersVariable.expansionString() + " " + StringUtils.defaultString(arguments);
+    }
+
     private String getArgumentsIfAvailable(CommandArguments commandArguments, Function<CommandArguments, String> getter) {
         if (commandArguments == null) {
             return StringUtils.EMPTY;
@@ -131,10 +201,4 @@ public class GetCoverityCommands extends AbstractSupplyingSubStep<List<List<Stri
         }
     }
 
-    private List<String> toParameters(String command) {
-        return Arrays.stream(Commandline.translateCommandline(command))
-                   .map(parameter -> Util.replaceMacro(parameter, intEnvironmentVariables.getVariables()))
-                   .collect(Collectors.toList());
-    }
-
 }
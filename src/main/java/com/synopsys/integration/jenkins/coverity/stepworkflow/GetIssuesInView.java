@@ -33,6 +33,7 @@ import com.synopsys.integration.coverity.ws.view.ViewReportWrapper;
 import com.synopsys.integration.coverity.ws.view.ViewService;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
 import com.synopsys.integration.stepworkflow.AbstractSupplyingSubStep;
 import com.synopsys.integration.stepworkflow.SubStepResponse;
 
@@ -41,14 +42,17 @@ import hudson.AbortException;
 public class GetIssuesInView extends AbstractSupplyingSubStep<ViewReportWrapper> {
     private final ConfigurationServiceWrapper configurationServiceWrapper;
     private final ViewService viewService;
+    private final ResilientConnectExecutor resilientConnectExecutor;
     private final String projectName;
     private final String viewName;
     private final CoverityJenkinsIntLogger logger;
 
-    public GetIssuesInView(final CoverityJenkinsIntLogger logger, final ConfigurationServiceWrapper configurationServiceWrapper, final ViewService viewService, final String projectName, final String viewName) {
+    public GetIssuesInView(final CoverityJenkinsIntLogger logger, final ConfigurationServiceWrapper configurationServiceWrapper, final ViewService viewService, final ResilientConnectExecutor resilientConnectExecutor, final String projectName,
+        final String viewName) {
         this.logger = logger;
         this.configurationServiceWrapper = configurationServiceWrapper;
         this.viewService = viewService;
+        this.resilientConnectExecutor = resilientConnectExecutor;
         this.projectName = projectName;
         this.viewName = viewName;
     }
@@ -56,22 +60,29 @@ public class GetIssuesInView extends AbstractSupplyingSubStep<ViewReportWrapper>
     public SubStepResponse<ViewReportWrapper> run() {
         try {
             logger.alwaysLog(String.format("Checking for issues in project \"%s\", view \"%s\".", projectName, viewName));
-            final ProjectDataObj project = configurationServiceWrapper.getProjectByExactName(projectName)
-                                               .orElseThrow(() -> new AbortException("Coverity Issues could not be retrieved: No project with name " + projectName + " could be found. "
-                                                                                         + "It either does not exist or the credentials configured in the Jenkins system configuration are insufficient to access it."));
-
-            final View view = viewService.getViewByExactName(viewName)
-                                  .orElseThrow(() -> new AbortException("Coverity Issues could not be retrieved: No view with name " + viewName + " could be found. "
-                                                                            + "It either does not exist or the credentials configured in the Jenkins system configuration are insufficient to access it."));
-
-            final ViewContents viewContents = viewService.getViewContents(project, view, 1, 0);
-            final String viewReportUrl = viewService.getProjectViewReportUrl(project, view);
-            final ViewReportWrapper viewReportWrapper = new ViewReportWrapper(viewContents, viewReportUrl);
+            final ViewReportWrapper viewReportWrapper = resilientConnectExecutor.executeIdempotent("retrieve the issues in view " + viewName, this::getViewReport);
 
             return SubStepResponse.SUCCESS(viewReportWrapper);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SubStepResponse.FAILURE(e);
         } catch (final IOException | IntegrationException | CovRemoteServiceException_Exception e) {
             return SubStepResponse.FAILURE(e);
         }
     }
 
+    private ViewReportWrapper getViewReport() throws IOException, IntegrationException, CovRemoteServiceException_Exception {
+        final ProjectDataObj project = configurationServiceWrapper.getProjectByExactName(projectName)
+                                           .orElseThrow(() -> new AbortException("Coverity Issues could not be retrieved: No project with name " + projectName + " could be found. "
+                                                                                     + "It either does not exist or the credentials configured in the Jenkins system configuration are insufficient to access it."));
+
+        final View view = viewService.getViewByExactName(viewName)
+                              .orElseThrow(() -> new AbortException("Coverity Issues could not be retrieved: No view with name " + viewName + " could be found. "
+                                                                        + "It either does not exist or the credentials configured in the Jenkins system configuration are insufficient to access it."));
+
+        final ViewContents viewContents = viewService.getViewContents(project, view, 1, 0);
+        final String viewReportUrl = viewService.getProjectViewReportUrl(project, view);
+        return new ViewReportWrapper(viewContents, viewReportUrl);
+    }
+
 }
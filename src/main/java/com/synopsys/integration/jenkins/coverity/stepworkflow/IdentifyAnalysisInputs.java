@@ -0,0 +1,112 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+
+/**
+ * Identifies the sources and the Coverity analysis installation an analysis would run on, as the git tree of the workspace and a digest of the installation's VERSION file.
+ * Returns null when either cannot be identified, which includes workspaces with uncommitted changes to tracked files.
+ */
+public class IdentifyAnalysisInputs extends CoverityRemoteCallable<String> {
+    private static final long serialVersionUID = 2170455468563219381L;
+    private static final long GIT_TIMEOUT_SECONDS = 60;
+    private final String workspaceRemotePath;
+    private final String coverityToolHome;
+
+    public IdentifyAnalysisInputs(CoverityJenkinsIntLogger logger, String workspaceRemotePath, String coverityToolHome) {
+        super(logger);
+        this.workspaceRemotePath = workspaceRemotePath;
+        this.coverityToolHome = coverityToolHome;
+    }
+
+    @Override
+    public String call() {
+        if (StringUtils.isBlank(coverityToolHome)) {
+            return null;
+        }
+
+        Path versionFile = Paths.get(coverityToolHome, "VERSION");
+        String toolkitDigest;
+        try {
+            toolkitDigest = DigestUtils.sha256Hex(Files.readAllBytes(versionFile));
+        } catch (IOException e) {
+            logger.debug(String.format("Could not read %s: %s", versionFile, e.getMessage()));
+            return null;
+        }
+
+        File workspace = new File(workspaceRemotePath);
+        String treeHash = runGit(workspace, "rev-parse", "--verify", "HEAD^{tree}");
+        // Untracked files are ignored, the intermediate directory and build outputs are usually among them
+        String uncommittedChanges = runGit(workspace, "status", "--porcelain", "--untracked-files=no");
+        if (StringUtils.isBlank(treeHash) || uncommittedChanges == null) {
+            logger.debug("The workspace is not a git working tree, its sources cannot be identified.");
+            return null;
+        }
+        if (StringUtils.isNotBlank(uncommittedChanges)) {
+            logger.debug("The workspace has uncommitted changes, its sources cannot be identified by the git tree.");
+            return null;
+        }
+
+        return String.format("tree=%s toolkit=%s", treeHash.trim(), toolkitDigest);
+    }
+
+    private String runGit(File workingDirectory, String... arguments) {
+        String[] command = new String[arguments.length + 1];
+        command[0] = "git";
+        System.arraycopy(arguments, 0, command, 1, arguments.length);
+
+        try {
+            Process process = new ProcessBuilder(command).directory(workingDirectory).redirectErrorStream(true).start();
+            String output;
+            try (InputStream outputStream = process.getInputStream()) {
+                output = IOUtils.toString(outputStream, StandardCharsets.UTF_8);
+            }
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            return process.exitValue() == 0 ? output : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            logger.debug(String.format("Could not run git %s: %s", String.join(" ", arguments), e.getMessage()));
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+
+public class ProbeAgentResources extends CoverityRemoteCallable<AgentResources> {
+    private static final long serialVersionUID = -1764213340811592066L;
+    // cgroup v1 reports "no limit" as a page-aligned Long.MAX_VALUE rather than a sentinel, anything this large is unlimited
+    private static final long UNLIMITED_MEMORY_THRESHOLD = 1L << 60;
+    private final String cgroupRoot;
+
+    public ProbeAgentResources(CoverityJenkinsIntLogger logger) {
+        this(logger, "/sys/fs/cgroup");
+    }
+
+    public ProbeAgentResources(CoverityJenkinsIntLogger logger, String cgroupRoot) {
+        super(logger);
+        this.cgroupRoot = cgroupRoot;
+    }
+
+    @Override
+    public AgentResources call() {
+        Path cgroupRootPath = Paths.get(cgroupRoot);
+        return new AgentResources(Runtime.getRuntime().availableProcessors(), getCpuQuota(cgroupRootPath), getPhysicalMemoryBytes(), getMemoryLimitBytes(cgroupRootPath));
+    }
+
+    private double getCpuQuota(Path cgroupRootPath) {
+        // cgroup v2: "<quota> <period>", or "max <period>" when unlimited
+        Optional<String[]> cpuMax = readFirstLine(cgroupRootPath.resolve("cpu.max")).map(line -> line.trim().split("\\s+"));
+        if (cpuMax.isPresent()) {
+            String[] quotaAndPeriod = cpuMax.get();
+            return quotaAndPeriod.length == 2 ? toQuota(quotaAndPeriod[0], quotaAndPeriod[1]) : 0;
+        }
+
+        // cgroup v1: the quota is -1 when unlimited
+        Optional<String> cfsQuota = readFirstLine(cgroupRootPath.resolve("cpu/cpu.cfs_quota_us"));
+        Optional<String> cfsPeriod = readFirstLine(cgroupRootPath.resolve("cpu/cpu.cfs_period_us"));
+        if (cfsQuota.isPresent() && cfsPeriod.isPresent()) {
+            return toQuota(cfsQuota.get().trim(), cfsPeriod.get().trim());
+        }
+        return 0;
+    }
+
+    private double toQuota(String quota, String period) {
+        long quotaMicros = NumberUtils.toLong(quota, -1);
+        long periodMicros = NumberUtils.toLong(period, -1);
+        if (quotaMicros <= 0 || periodMicros <= 0) {
+            return 0;
+        }
+        return (double) quotaMicros / periodMicros;
+    }
+
+    private long getMemoryLimitBytes(Path cgroupRootPath) {
+        Optional<String> memoryLimit = readFirstLine(cgroupRootPath.resolve("memory.max"));
+        if (!memoryLimit.isPresent()) {
+            memoryLimit = readFirstLine(cgroupRootPath.resolve("memory/memory.limit_in_bytes"));
+        }
+
+        long memoryLimitBytes = memoryLimit.map(String::trim).map(limit -> NumberUtils.toLong(limit, 0)).orElse(0L);
+        return memoryLimitBytes < UNLIMITED_MEMORY_THRESHOLD ? memoryLimitBytes : 0;
+    }
+
+    private long getPhysicalMemoryBytes() {
+        OperatingSystemMXBean operatingSystemMXBean = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystemMXBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystemMXBean).getTotalPhysicalMemorySize();
+        }
+        return 0;
+    }
+
+    private Optional<String> readFirstLine(Path path) {
+        if (!Files.isReadable(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                       .filter(StringUtils::isNotBlank)
+                       .findFirst();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,318 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import com.synopsys.integration.coverity.api.ws.configuration.ConfigurationService;
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectFilterSpecDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectIdDataObj;
+import com.synopsys.integration.coverity.ws.ConfigurationServiceWrapper;
+import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.function.ThrowingSupplier;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsAbortException;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+import com.synopsys.integration.jenkins.coverity.extensions.pipeline.ProjectStreamPair;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamCache;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
+import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
+import com.synopsys.integration.stepworkflow.AbstractSupplyingSubStep;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Provisions many (project, stream) pairs at once: the requested pairs are diffed against a single getProjects snapshot, and only the missing projects, then the
+ * missing streams, are created in batches on a bounded number of threads. Each thread uses its own configuration service port.
+ */
+public class ProvisionProjectsAndStreams extends AbstractSupplyingSubStep<Integer> {
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int MAX_PARALLELISM = 16;
+
+    private final JenkinsIntLogger logger;
+    private final ThrowingSupplier<WebServiceFactory, CoverityJenkinsAbortException> webServiceFactorySupplier;
+    private final ResilientConnectExecutor resilientConnectExecutor;
+    private final ProjectStreamCache projectStreamCache;
+    private final ProvisioningCache provisioningCache;
+    private final String coverityServerUrl;
+    private final List<ProjectStreamPair> projectStreamPairs;
+    private final int parallelism;
+
+    public ProvisionProjectsAndStreams(JenkinsIntLogger logger, ThrowingSupplier<WebServiceFactory, CoverityJenkinsAbortException> webServiceFactorySupplier, ResilientConnectExecutor resilientConnectExecutor,
+        ProjectStreamCache projectStreamCache, ProvisioningCache provisioningCache, String coverityServerUrl, List<ProjectStreamPair> projectStreamPairs, int parallelism) {
+        this.logger = logger;
+        this.webServiceFactorySupplier = webServiceFactorySupplier;
+        this.resilientConnectExecutor = resilientConnectExecutor;
+        this.projectStreamCache = projectStreamCache;
+        this.provisioningCache = provisioningCache;
+        this.coverityServerUrl = coverityServerUrl;
+        this.projectStreamPairs = projectStreamPairs;
+        this.parallelism = Math.max(1, Math.min(MAX_PARALLELISM, parallelism));
+    }
+
+    @Override
+    public SubStepResponse<Integer> run() {
+        List<ProjectStreamPair> unverifiedPairs = projectStreamPairs.stream()
+                                                      .filter(pair -> !provisioningCache.isVerified(coverityServerUrl, pair.getProjectName(), pair.getStreamName()))
+                                                      .collect(Collectors.toList());
+        if (unverifiedPairs.isEmpty()) {
+            logger.info(String.format("All %d requested Coverity streams were recently verified to exist.", projectStreamPairs.size()));
+            return SubStepResponse.SUCCESS(0);
+        }
+
+        try {
+            WebServiceFactory webServiceFactory = webServiceFactorySupplier.get();
+            ConfigurationService configurationService = webServiceFactory.createConfigurationService();
+            List<ProjectDataObj> existingProjects = resilientConnectExecutor.executeIdempotent("retrieve the Coverity projects", () -> configurationService.getProjects(new ProjectFilterSpecDataObj()));
+
+            Set<String> existingProjectNames = new HashSet<>();
+            Set<String> existingStreamNames = new HashSet<>();
+            for (ProjectDataObj project : existingProjects) {
+                if (project.getId() != null) {
+                    existingProjectNames.add(project.getId().getName());
+                }
+                project.getStreams().stream()
+                    .filter(stream -> stream.getId() != null)
+                    .map(stream -> stream.getId().getName())
+                    .forEach(existingStreamNames::add);
+            }
+
+            // Stream names are unique across all of Connect, so a stream that already exists in another project counts as existing
+            Set<String> missingProjectNames = new LinkedHashSet<>();
+            Map<String, ProjectStreamPair> missingStreams = new LinkedHashMap<>();
+            for (ProjectStreamPair pair : unverifiedPairs) {
+                if (!existingProjectNames.contains(pair.getProjectName())) {
+                    missingProjectNames.add(pair.getProjectName());
+                }
+                if (!existingStreamNames.contains(pair.getStreamName())) {
+                    ProjectStreamPair previous = missingStreams.putIfAbsent(pair.getStreamName(), pair);
+                    if (previous != null && !previous.getProjectName().equals(pair.getProjectName())) {
+                        logger.warn(String.format("Stream '%s' was requested in both project '%s' and project '%s'; it will only be created in '%s'.", pair.getStreamName(), previous.getProjectName(),
+                            pair.getProjectName(), previous.getProjectName()));
+                    }
+                }
+            }
+
+            logger.info(String.format("Of %d requested Coverity streams, %d projects and %d streams are missing and will be created using %d threads.", projectStreamPairs.size(), missingProjectNames.size(),
+                missingStreams.size(), parallelism));
+
+            List<String> failures = Collections.synchronizedList(new ArrayList<>());
+            Set<String> createdProjectNames = Collections.emptySet();
+            Set<String> createdStreamNames = Collections.emptySet();
+            int workerCount = Math.max(1, Math.min(parallelism, Math.max(missingProjectNames.size(), missingStreams.size())));
+            ConfigurationServiceWrapper[] configurationServiceWrappers = new ConfigurationServiceWrapper[workerCount];
+            ExecutorService executorService = Executors.newFixedThreadPool(workerCount, new NamingThreadFactory(new DaemonThreadFactory(), "Coverity provisioning"));
+            try {
+                createdProjectNames = runInBatches(executorService, webServiceFactory, configurationServiceWrappers, missingProjectNames, failures,
+                    (configurationServiceWrapper, projectName) -> createProject(configurationServiceWrapper, projectName, failures));
+
+                List<ProjectStreamPair> creatableStreams = new ArrayList<>();
+                for (ProjectStreamPair pair : missingStreams.values()) {
+                    if (existingProjectNames.contains(pair.getProjectName()) || createdProjectNames.contains(pair.getProjectName())) {
+                        creatableStreams.add(pair);
+                    } else {
+                        failures.add(String.format("stream '%s' (project '%s' could not be created)", pair.getStreamName(), pair.getProjectName()));
+                    }
+                }
+
+                createdStreamNames = runInBatches(executorService, webServiceFactory, configurationServiceWrappers, creatableStreams, failures,
+                    (configurationServiceWrapper, pair) -> createStream(configurationServiceWrapper, pair, failures))
+                                         .stream()
+                                         .map(ProjectStreamPair::getStreamName)
+                                         .collect(Collectors.toSet());
+            } finally {
+                executorService.shutdownNow();
+            }
+
+            for (ProjectStreamPair pair : unverifiedPairs) {
+                boolean projectExists = existingProjectNames.contains(pair.getProjectName()) || createdProjectNames.contains(pair.getProjectName());
+                boolean streamExists = existingStreamNames.contains(pair.getStreamName()) || createdStreamNames.contains(pair.getStreamName());
+                if (projectExists && streamExists) {
+                    provisioningCache.recordVerified(coverityServerUrl, pair.getProjectName(), pair.getStreamName());
+                }
+            }
+
+            logger.info(String.format("Created %d Coverity projects and %d Coverity streams.", createdProjectNames.size(), createdStreamNames.size()));
+            if (!failures.isEmpty()) {
+                return SubStepResponse.FAILURE(new CoverityJenkinsException("Could not provision " + String.join(", ", failures)));
+            }
+
+            return SubStepResponse.SUCCESS(createdStreamNames.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SubStepResponse.FAILURE(e);
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception e) {
+            return SubStepResponse.FAILURE(e);
+        }
+    }
+
+    private boolean createProject(ConfigurationServiceWrapper configurationServiceWrapper, String projectName, List<String> failures) throws InterruptedException {
+        try {
+            resilientConnectExecutor.executeOnce("create project " + projectName, () -> {
+                configurationServiceWrapper.createSimpleProject(projectName);
+                return null;
+            });
+        } catch (CovRemoteServiceException_Exception e) {
+            // Most likely a build or another scan created it in the meantime
+            if (!projectExists(configurationServiceWrapper, projectName)) {
+                failures.add(String.format("project '%s' (%s)", projectName, e.getMessage()));
+                return false;
+            }
+        } catch (IOException | IntegrationException e) {
+            failures.add(String.format("project '%s' (%s)", projectName, e.getMessage()));
+            return false;
+        }
+
+        logger.info(String.format("Successfully created project '%s'", projectName));
+        projectStreamCache.recordProject(projectName);
+        return true;
+    }
+
+    private boolean createStream(ConfigurationServiceWrapper configurationServiceWrapper, ProjectStreamPair pair, List<String> failures) throws InterruptedException {
+        String streamName = pair.getStreamName();
+        ProjectIdDataObj projectId = toProjectId(pair.getProjectName());
+        try {
+            resilientConnectExecutor.executeOnce("create stream " + streamName, () -> {
+                configurationServiceWrapper.createSimpleStreamInProject(projectId, streamName);
+                return null;
+            });
+        } catch (CovRemoteServiceException_Exception e) {
+            if (!streamExists(configurationServiceWrapper, streamName)) {
+                failures.add(String.format("stream '%s' (%s)", streamName, e.getMessage()));
+                return false;
+            }
+        } catch (IOException | IntegrationException e) {
+            failures.add(String.format("stream '%s' (%s)", streamName, e.getMessage()));
+            return false;
+        }
+
+        logger.info(String.format("Successfully created stream '%s'", streamName));
+        projectStreamCache.recordStream(pair.getProjectName(), streamName);
+        return true;
+    }
+
+    private boolean projectExists(ConfigurationServiceWrapper configurationServiceWrapper, String projectName) throws InterruptedException {
+        try {
+            return resilientConnectExecutor.executeIdempotent("look up project " + projectName, () -> configurationServiceWrapper.getProjectByExactName(projectName)).isPresent();
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception e) {
+            return false;
+        }
+    }
+
+    private boolean streamExists(ConfigurationServiceWrapper configurationServiceWrapper, String streamName) throws InterruptedException {
+        try {
+            return resilientConnectExecutor.executeIdempotent("look up stream " + streamName, () -> configurationServiceWrapper.getStreamByExactName(streamName)).isPresent();
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception e) {
+            return false;
+        }
+    }
+
+    private ProjectIdDataObj toProjectId(String projectName) {
+        ProjectIdDataObj projectId = new ProjectIdDataObj();
+        projectId.setName(projectName);
+        return projectId;
+    }
+
+    /**
+     * Splits the items round-robin into one batch per worker and returns the items that were provisioned successfully.
+     */
+    private <T> Set<T> runInBatches(ExecutorService executorService, WebServiceFactory webServiceFactory, ConfigurationServiceWrapper[] configurationServiceWrappers, Collection<T> items, List<String> failures,
+        ProvisioningAction<T> provisioningAction) throws InterruptedException, CoverityJenkinsException {
+        if (items.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < Math.min(configurationServiceWrappers.length, items.size()); i++) {
+            batches.add(new ArrayList<>());
+        }
+        int index = 0;
+        for (T item : items) {
+            batches.get(index % batches.size()).add(item);
+            index++;
+        }
+
+        ClassLoader pluginClassLoader = this.getClass().getClassLoader();
+        List<Callable<Set<T>>> tasks = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            int workerIndex = i;
+            List<T> batch = batches.get(i);
+            tasks.add(() -> {
+                // Coverity Common uses JAX-WS, which needs the plugin classloader on every thread that talks to Connect
+                Thread.currentThread().setContextClassLoader(pluginClassLoader);
+                Set<T> provisioned = new HashSet<>();
+                if (configurationServiceWrappers[workerIndex] == null) {
+                    try {
+                        configurationServiceWrappers[workerIndex] = webServiceFactory.createConfigurationServiceWrapper();
+                    } catch (MalformedURLException e) {
+                        failures.add(String.format("%d items (%s)", batch.size(), e.getMessage()));
+                        return provisioned;
+                    }
+                }
+                for (T item : batch) {
+                    if (provisioningAction.provision(configurationServiceWrappers[workerIndex], item)) {
+                        provisioned.add(item);
+                    }
+                }
+                return provisioned;
+            });
+        }
+
+        Set<T> provisioned = new HashSet<>();
+        for (Future<Set<T>> future : executorService.invokeAll(tasks)) {
+            try {
+                provisioned.addAll(future.get());
+            } catch (ExecutionException e) {
+                throw new CoverityJenkinsException("Provisioning Coverity projects and streams failed unexpectedly", e.getCause());
+            }
+        }
+        return provisioned;
+    }
+
+    @FunctionalInterface
+    private interface ProvisioningAction<T> {
+        boolean provision(ConfigurationServiceWrapper configurationServiceWrapper, T item) throws InterruptedException;
+    }
+
+}
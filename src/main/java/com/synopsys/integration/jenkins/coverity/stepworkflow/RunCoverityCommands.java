@@ -23,19 +23,38 @@
 package com.synopsys.integration.jenkins.coverity.stepworkflow;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
 import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
 import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
 import com.synopsys.integration.jenkins.coverity.extensions.OnCommandFailure;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.RepeatableCommand;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.AnalysisCostHistory;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
 import com.synopsys.integration.stepworkflow.AbstractConsumingSubStep;
 import com.synopsys.integration.stepworkflow.SubStepResponse;
 import com.synopsys.integration.util.IntEnvironmentVariables;
 
+import hudson.Util;
 import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
 public class RunCoverityCommands extends AbstractConsumingSubStep<List<List<String>>> {
     private final CoverityJenkinsIntLogger logger;
@@ -43,38 +62,66 @@ public class RunCoverityCommands extends AbstractConsumingSubStep<List<List<Stri
     private final String remoteWorkingDirectory;
     private final OnCommandFailure onCommandFailure;
     private final VirtualChannel virtualChannel;
+    private final ProvisioningCache provisioningCache;
+    private final BiConsumer<String, CoverityToolResult> commitResultConsumer;
+    private final int maxParallelCommits;
+    // Null when the node does not limit its analyses
+    private final AnalysisAdmissionController analysisAdmissionController;
+    private AnalysisAdmissionController.Limits analysisLimits;
+    // Null unless the analysis type is cost based, so that only those jobs record their analysis durations
+    private final AnalysisCostHistory analysisCostHistory;
+
+    // Remembered across commands so that a cov-analyze defect count can be reported with the snapshot it was committed as
+    private Integer defectOccurrences;
+    private final Map<String, String> timings = new LinkedHashMap<>();
 
     public RunCoverityCommands(final CoverityJenkinsIntLogger logger, final IntEnvironmentVariables intEnvironmentVariables, final String remoteWorkingDirectory, final OnCommandFailure onCommandFailure,
-        final VirtualChannel virtualChannel) {
+        final VirtualChannel virtualChannel, final ProvisioningCache provisioningCache, final BiConsumer<String, CoverityToolResult> commitResultConsumer, final int maxParallelCommits,
+        final AnalysisAdmissionController analysisAdmissionController, final AnalysisAdmissionController.Limits analysisLimits, final AnalysisCostHistory analysisCostHistory) {
         this.logger = logger;
         this.intEnvironmentVariables = intEnvironmentVariables;
         this.remoteWorkingDirectory = remoteWorkingDirectory;
         this.onCommandFailure = onCommandFailure;
         this.virtualChannel = virtualChannel;
+        this.provisioningCache = provisioningCache;
+        this.commitResultConsumer = commitResultConsumer;
+        this.maxParallelCommits = Math.max(1, maxParallelCommits);
+        this.analysisAdmissionController = analysisAdmissionController;
+        this.analysisLimits = analysisLimits;
+        this.analysisCostHistory = analysisCostHistory;
     }
 
     public SubStepResponse<Object> run(final List<List<String>> commands) {
         try {
             boolean oneOrMoreCommandsFailed = false;
-            for (final List<String> arguments : commands) {
+            int index = 0;
+            while (index < commands.size()) {
+                final List<String> arguments = commands.get(index);
                 if (arguments.isEmpty()) {
+                    index++;
                     continue;
                 }
 
-                final CoverityRemoteToolRunner coverityRemoteToolRunner = new CoverityRemoteToolRunner(logger, intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString()), arguments,
-                    remoteWorkingDirectory, (HashMap<String, String>) intEnvironmentVariables.getVariables());
-
-                final Integer exitCode = virtualChannel.call(coverityRemoteToolRunner);
+                // Consecutive commits only read the analyzed intermediate directory, so they can go to their streams side by side
+                final List<List<String>> commitBatch = new ArrayList<>();
+                while (maxParallelCommits > 1 && index < commands.size() && !commands.get(index).isEmpty() && isCommitCommand(commands.get(index))) {
+                    commitBatch.add(commands.get(index));
+                    index++;
+                }
 
-                if (exitCode != null && exitCode != 0) {
-                    final String exitCodeErrorMessage = "Coverity failed with exit code: " + exitCode;
+                final int exitCode;
+                if (commitBatch.size() > 1) {
+                    exitCode = runCommitsInParallel(commitBatch);
+                } else {
+                    exitCode = handleResult(arguments, runTool(arguments));
+                    index = commitBatch.isEmpty() ? index + 1 : index;
+                }
 
+                if (exitCode != 0) {
                     if (OnCommandFailure.SKIP_REMAINING_COMMANDS.equals(onCommandFailure)) {
-                        throw new CoverityJenkinsException(exitCodeErrorMessage);
-                    } else {
-                        oneOrMoreCommandsFailed = true;
-                        logger.error(exitCodeErrorMessage);
+                        throw new CoverityJenkinsException("Coverity failed with exit code: " + exitCode);
                     }
+                    oneOrMoreCommandsFailed = true;
                 }
             }
 
@@ -91,4 +138,202 @@ public class RunCoverityCommands extends AbstractConsumingSubStep<List<List<Stri
         return SubStepResponse.SUCCESS();
     }
 
+    // Returns the exit code of the first commit that failed, in command order, or 0 when they all succeeded
+    private int runCommitsInParallel(final List<List<String>> commitBatch) throws IOException, InterruptedException, IntegrationException {
+        final int threadCount = Math.min(commitBatch.size(), maxParallelCommits);
+        logger.alwaysLog(String.format("Committing to %d Coverity streams using %d threads", commitBatch.size(), threadCount));
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threadCount, new NamingThreadFactory(new DaemonThreadFactory(), "Coverity commit"));
+        try {
+            final List<Future<CoverityToolResult>> futures = new ArrayList<>();
+            for (final List<String> arguments : commitBatch) {
+                // Each commit holds its output back, so that the outputs of the commits are not interleaved in the log
+                final CoverityRemoteToolRunner coverityRemoteToolRunner = createToolRunner(arguments, true);
+                futures.add(executorService.submit(() -> virtualChannel.call(coverityRemoteToolRunner)));
+            }
+
+            // Outputs and results are printed and recorded on this thread, in command order, as the commits finish
+            int failedCommits = 0;
+            int firstFailedExitCode = 0;
+            Throwable firstCommitException = null;
+            for (int i = 0; i < commitBatch.size(); i++) {
+                final String streamName = getStreamName(commitBatch.get(i));
+                final CoverityToolResult coverityToolResult;
+                try {
+                    coverityToolResult = futures.get(i).get();
+                } catch (final ExecutionException e) {
+                    logger.error(String.format("Committing to stream '%s' failed: %s", streamName, e.getCause().getMessage()));
+                    invalidateProvisioning(streamName);
+                    failedCommits++;
+                    firstCommitException = firstCommitException == null ? e.getCause() : firstCommitException;
+                    continue;
+                }
+                coverityToolResult.getBufferedOutput().ifPresent(output -> {
+                    logger.alwaysLog(String.format("Output of cov-commit-defects for stream '%s':", streamName));
+                    logger.alwaysLog(StringUtils.chomp(output));
+                });
+                final int exitCode = handleResult(commitBatch.get(i), coverityToolResult);
+                if (exitCode != 0) {
+                    failedCommits++;
+                    firstFailedExitCode = firstFailedExitCode == 0 ? exitCode : firstFailedExitCode;
+                }
+            }
+
+            if (failedCommits > 0) {
+                logger.error(String.format("%d of %d Coverity commits failed", failedCommits, commitBatch.size()));
+            }
+            // Like a commit that runs on its own, a commit that could not be run at all fails the step regardless of the exit codes
+            if (firstCommitException instanceof IntegrationException) {
+                throw (IntegrationException) firstCommitException;
+            } else if (firstCommitException != null) {
+                throw new CoverityJenkinsException(firstCommitException);
+            }
+            return firstFailedExitCode;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private CoverityToolResult runTool(final List<String> arguments) throws IOException, InterruptedException, IntegrationException {
+        final CoverityRemoteToolRunner coverityRemoteToolRunner = createToolRunner(arguments);
+        if (!isAnalysisCommand(arguments)) {
+            return virtualChannel.call(coverityRemoteToolRunner);
+        } else if (analysisAdmissionController == null) {
+            return runAnalysis(arguments, coverityRemoteToolRunner);
+        }
+
+        final String toolName = FilenameUtils.getBaseName(arguments.get(0));
+        final int analysisWorkers = getAnalysisWorkers(arguments);
+        try (final AnalysisAdmissionController.Admission admission = analysisAdmissionController.admit(getAnalysisLimits(), analysisWorkers * TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES)) {
+            final String queueMessage = String.format("%s with %d worker(s) was admitted by the node's Coverity analysis limits after waiting %s", toolName, analysisWorkers, Util.getTimeSpanString(admission.getQueuedMillis()));
+            if (admission.getQueuedMillis() >= 1000) {
+                logger.alwaysLog(queueMessage);
+            } else {
+                logger.debug(queueMessage);
+            }
+            return runAnalysis(arguments, coverityRemoteToolRunner);
+        }
+    }
+
+    private CoverityToolResult runAnalysis(final List<String> arguments, final CoverityRemoteToolRunner coverityRemoteToolRunner) throws IOException, InterruptedException, IntegrationException {
+        final long startMillis = System.currentTimeMillis();
+        final CoverityToolResult coverityToolResult = virtualChannel.call(coverityRemoteToolRunner);
+        final long elapsedMillis = System.currentTimeMillis() - startMillis;
+
+        if (analysisCostHistory != null && coverityToolResult.getExitCode() == 0) {
+            try {
+                if ("cov-analyze".equals(FilenameUtils.getBaseName(arguments.get(0)))) {
+                    analysisCostHistory.recordFullAnalysis(elapsedMillis);
+                } else {
+                    analysisCostHistory.recordIncrementalAnalysis(ChooseAnalysisByCost.getChangedFiles(intEnvironmentVariables), elapsedMillis);
+                }
+            } catch (final IOException e) {
+                logger.warn("Could not record the duration of this analysis: " + e.getMessage());
+            }
+        }
+        return coverityToolResult;
+    }
+
+    // Without a configured budget, the analyses share whatever memory the agent, or its container, has
+    private AnalysisAdmissionController.Limits getAnalysisLimits() throws IOException, InterruptedException, IntegrationException {
+        if (analysisLimits.getMemoryBudgetBytes() <= 0) {
+            final OptionalLong effectiveMemoryBytes = virtualChannel.call(new ProbeAgentResources(logger)).getEffectiveMemoryBytes();
+            if (effectiveMemoryBytes.isPresent()) {
+                analysisLimits = analysisLimits.withMemoryBudgetBytes(Math.max(TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES, effectiveMemoryBytes.getAsLong() - TuneCoverityParallelism.RESERVED_MEMORY_BYTES));
+            }
+        }
+        return analysisLimits;
+    }
+
+    private int getAnalysisWorkers(final List<String> arguments) {
+        for (int i = 1; i < arguments.size(); i++) {
+            final String argument = arguments.get(i);
+            final String workers;
+            if (("-j".equals(argument) || "--jobs".equals(argument)) && i + 1 < arguments.size()) {
+                workers = arguments.get(i + 1);
+            } else if (argument.startsWith("--jobs=")) {
+                workers = argument.substring("--jobs=".length());
+            } else if (argument.startsWith("-j")) {
+                workers = argument.substring("-j".length());
+            } else {
+                continue;
+            }
+            // "-j auto" and friends cannot be sized up front, so they count as one worker
+            return Math.max(1, NumberUtils.toInt(workers, 1));
+        }
+        return 1;
+    }
+
+    private CoverityRemoteToolRunner createToolRunner(final List<String> arguments) {
+        return createToolRunner(arguments, false);
+    }
+
+    private CoverityRemoteToolRunner createToolRunner(final List<String> arguments, final boolean bufferOutput) {
+        return new CoverityRemoteToolRunner(logger, intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString()), arguments, remoteWorkingDirectory,
+            (HashMap<String, String>) intEnvironmentVariables.getVariables(), bufferOutput);
+    }
+
+    // Returns the exit code of the tool, which is 0 when it succeeded
+    private int handleResult(final List<String> arguments, final CoverityToolResult coverityToolResult) {
+        final int exitCode = coverityToolResult.getExitCode();
+        final boolean isCommit = isCommitCommand(arguments);
+        final String streamName = isCommit ? getStreamName(arguments) : null;
+        final String timingPrefix = isCommit ? String.format("%s (%s)", coverityToolResult.getToolName(), streamName) : coverityToolResult.getToolName();
+
+        defectOccurrences = coverityToolResult.getDefectOccurrences().orElse(defectOccurrences);
+        coverityToolResult.getTimings().forEach((label, value) -> timings.put(timingPrefix + ": " + label, value));
+        if (coverityToolResult.getSnapshotId().isPresent()) {
+            recordCommit(streamName, new CoverityToolResult(coverityToolResult.getToolName(), exitCode, coverityToolResult.getSnapshotId().get(), defectOccurrences, new LinkedHashMap<>(timings)));
+        }
+
+        if (exitCode == 0) {
+            return 0;
+        }
+
+        if (isCommit) {
+            logger.error(String.format("Coverity failed with exit code: %d while committing to stream '%s'", exitCode, streamName));
+            invalidateProvisioning(streamName);
+        } else {
+            logger.error("Coverity failed with exit code: " + exitCode);
+        }
+        return exitCode;
+    }
+
+    private void recordCommit(final String streamName, final CoverityToolResult commitResult) {
+        final String snapshotId = String.valueOf(commitResult.getSnapshotId().orElse(null));
+        // $COV_SNAPSHOT_ID always refers to the configured stream, even when the same analysis is committed to others as well
+        final String primaryStreamName = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString());
+        if (primaryStreamName == null || primaryStreamName.equals(streamName) || intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString()) == null) {
+            intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString(), snapshotId);
+        }
+        logger.alwaysLog(String.format("Coverity committed snapshot %s to stream '%s'%s", snapshotId, streamName,
+            commitResult.getDefectOccurrences().map(count -> " with " + count + " defect occurrences").orElse("")));
+        commitResultConsumer.accept(streamName, commitResult);
+    }
+
+    private boolean isCommitCommand(final List<String> arguments) {
+        return "cov-commit-defects".equals(FilenameUtils.getBaseName(arguments.get(0)));
+    }
+
+    private boolean isAnalysisCommand(final List<String> arguments) {
+        final String toolName = FilenameUtils.getBaseName(arguments.get(0));
+        return "cov-analyze".equals(toolName) || "cov-run-desktop".equals(toolName);
+    }
+
+    private String getStreamName(final List<String> arguments) {
+        final int streamArgumentIndex = arguments.indexOf(RepeatableCommand.Argument.STREAM.toString());
+        if (streamArgumentIndex >= 0 && streamArgumentIndex + 1 < arguments.size()) {
+            return arguments.get(streamArgumentIndex + 1);
+        }
+        return intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString());
+    }
+
+    // The stream may have been deleted or made inaccessible on Coverity Connect since it was last verified, so the next build should check again
+    private void invalidateProvisioning(final String streamName) {
+        final String coverityServerUrl = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString());
+        final String projectName = intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_PROJECT.toString());
+        provisioningCache.invalidate(coverityServerUrl, projectName, streamName);
+        logger.debug(String.format("cov-commit-defects failed, project '%s' and stream '%s' will be verified again by the next build.", projectName, streamName));
+    }
+
 }
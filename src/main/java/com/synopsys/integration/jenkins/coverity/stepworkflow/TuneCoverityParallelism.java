@@ -0,0 +1,107 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import java.io.IOException;
+import java.util.OptionalLong;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.CoverityRunConfiguration;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.SimpleCoverityRunConfiguration;
+import com.synopsys.integration.stepworkflow.AbstractExecutingSubStep;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.remoting.VirtualChannel;
+
+/**
+ * Sizes cov-analyze and cov-build worker counts to what the agent can actually give this build, so that GetCoverityCommands can pass them on.
+ */
+public class TuneCoverityParallelism extends AbstractExecutingSubStep {
+    public static final long ANALYSIS_WORKER_MEMORY_BYTES = 2L * 1024 * 1024 * 1024;
+    public static final long TRANSLATION_WORKER_MEMORY_BYTES = 1024L * 1024 * 1024;
+    // Left for the operating system and the agent JVM
+    public static final long RESERVED_MEMORY_BYTES = 1024L * 1024 * 1024;
+    private final CoverityJenkinsIntLogger logger;
+    private final IntEnvironmentVariables intEnvironmentVariables;
+    private final VirtualChannel virtualChannel;
+    private final CoverityRunConfiguration coverityRunConfiguration;
+    private final int concurrentBuilds;
+
+    public TuneCoverityParallelism(CoverityJenkinsIntLogger logger, IntEnvironmentVariables intEnvironmentVariables, VirtualChannel virtualChannel, CoverityRunConfiguration coverityRunConfiguration, int concurrentBuilds) {
+        this.logger = logger;
+        this.intEnvironmentVariables = intEnvironmentVariables;
+        this.virtualChannel = virtualChannel;
+        this.coverityRunConfiguration = coverityRunConfiguration;
+        this.concurrentBuilds = concurrentBuilds;
+    }
+
+    @Override
+    public SubStepResponse<Object> run() {
+        if (!(coverityRunConfiguration instanceof SimpleCoverityRunConfiguration) || !((SimpleCoverityRunConfiguration) coverityRunConfiguration).isAutoTuneParallelism()) {
+            return SubStepResponse.SUCCESS();
+        }
+
+        AgentResources agentResources;
+        try {
+            agentResources = virtualChannel.call(new ProbeAgentResources(logger));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SubStepResponse.FAILURE(e);
+        } catch (IOException | IntegrationException e) {
+            // The user's own arguments still work, they just are not tuned
+            logger.warn("Could not determine the resources of this agent, Coverity parallelism will not be tuned: " + e.getMessage());
+            return SubStepResponse.SUCCESS();
+        }
+
+        int analysisWorkers = computeWorkers(agentResources, concurrentBuilds, ANALYSIS_WORKER_MEMORY_BYTES);
+        int translationWorkers = computeWorkers(agentResources, concurrentBuilds, TRANSLATION_WORKER_MEMORY_BYTES);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS.toString(), String.valueOf(analysisWorkers));
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_TRANSLATION_WORKERS.toString(), String.valueOf(translationWorkers));
+
+        String memory = agentResources.getEffectiveMemoryBytes().isPresent() ? toMebibytes(agentResources.getEffectiveMemoryBytes().getAsLong()) + " MiB" : "unknown";
+        logger.alwaysLog(String.format("Tuned Coverity parallelism for %d processor(s) and %s of memory shared by %d build(s): %s=%d, %s=%d", agentResources.getEffectiveProcessors(), memory, Math.max(1, concurrentBuilds),
+            JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS.toString(), analysisWorkers, JenkinsCoverityEnvironmentVariable.COVERITY_TRANSLATION_WORKERS.toString(), translationWorkers));
+        return SubStepResponse.SUCCESS();
+    }
+
+    static int computeWorkers(AgentResources agentResources, int concurrentBuilds, long memoryPerWorkerBytes) {
+        int sharingBuilds = Math.max(1, concurrentBuilds);
+        int workers = agentResources.getEffectiveProcessors() / sharingBuilds;
+
+        OptionalLong effectiveMemoryBytes = agentResources.getEffectiveMemoryBytes();
+        if (effectiveMemoryBytes.isPresent()) {
+            long usableMemoryBytes = (effectiveMemoryBytes.getAsLong() - RESERVED_MEMORY_BYTES) / sharingBuilds;
+            workers = (int) Math.min(workers, usableMemoryBytes / memoryPerWorkerBytes);
+        }
+
+        return Math.max(1, workers);
+    }
+
+    private long toMebibytes(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+}
@@ -26,7 +26,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
@@ -39,6 +43,8 @@ import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsExcept
 public class ValidateCoverityInstallation extends CoverityRemoteCallable<Boolean> {
     public static final CoverityVersion MINIMUM_SUPPORTED_VERSION = CoverityVersion.VERSION_PACIFIC;
     private static final long serialVersionUID = -460886461718309214L;
+    // Lives in the agent JVM, so it survives for as long as the agent stays connected
+    private static final Map<String, ValidatedInstallation> VALIDATED_INSTALLATIONS = new ConcurrentHashMap<>();
     private final String coverityToolHome;
     private final Boolean validateVersion;
 
@@ -54,13 +60,20 @@ public class ValidateCoverityInstallation extends CoverityRemoteCallable<Boolean
         }
 
         Path pathToCoverityToolHome = Paths.get(coverityToolHome);
+        Path pathToAnalysisVersionFile = pathToCoverityToolHome.resolve("VERSION");
+
+        // Replacing or upgrading the installation rewrites VERSION, so an unchanged VERSION means the earlier validation still holds
+        VersionFileStamp versionFileStamp = VersionFileStamp.of(pathToAnalysisVersionFile).orElse(null);
+        ValidatedInstallation validatedInstallation = VALIDATED_INSTALLATIONS.get(coverityToolHome);
+        if (versionFileStamp != null && validatedInstallation != null && validatedInstallation.covers(versionFileStamp, Boolean.TRUE.equals(validateVersion))) {
+            return true;
+        }
 
         if (!Files.exists(pathToCoverityToolHome)) {
             throw new CoverityJenkinsException("The specified Analysis installation directory doesn't exist.");
         }
 
         if (Boolean.TRUE.equals(validateVersion)) {
-            Path pathToAnalysisVersionFile = pathToCoverityToolHome.resolve("VERSION");
             Path pathToAnalysisVersionXml = pathToCoverityToolHome.resolve("VERSION.xml");
             if (Files.notExists(pathToAnalysisVersionXml) || Files.notExists(pathToAnalysisVersionFile)) {
                 throw new CoverityJenkinsException(String.format("%s and %s were not found.", pathToAnalysisVersionFile.toString(), pathToAnalysisVersionXml.toString()));
@@ -82,6 +95,10 @@ public class ValidateCoverityInstallation extends CoverityRemoteCallable<Boolean
             throw new CoverityJenkinsException(String.format("%s was not found", pathToBinDirectory.toString()));
         }
 
+        if (versionFileStamp != null) {
+            VALIDATED_INSTALLATIONS.put(coverityToolHome, new ValidatedInstallation(versionFileStamp, Boolean.TRUE.equals(validateVersion)));
+        }
+
         return true;
     }
 
@@ -103,4 +120,56 @@ public class ValidateCoverityInstallation extends CoverityRemoteCallable<Boolean
         }
     }
 
-}
\ No newline at end of file
+    private static final class ValidatedInstallation {
+        private final VersionFileStamp versionFileStamp;
+        private final boolean versionValidated;
+
+        private ValidatedInstallation(VersionFileStamp versionFileStamp, boolean versionValidated) {
+            this.versionFileStamp = versionFileStamp;
+            this.versionValidated = versionValidated;
+        }
+
+        private boolean covers(VersionFileStamp currentVersionFileStamp, boolean validateVersion) {
+            return versionFileStamp.equals(currentVersionFileStamp) && (versionValidated || !validateVersion);
+        }
+    }
+
+    private static final class VersionFileStamp {
+        private final long lastModifiedMillis;
+        private final long size;
+        private final Object fileKey;
+
+        private VersionFileStamp(BasicFileAttributes attributes) {
+            this.lastModifiedMillis = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            // The inode where the file system provides one, so that a file swapped in with the same timestamp is still noticed
+            this.fileKey = attributes.fileKey();
+        }
+
+        private static Optional<VersionFileStamp> of(Path versionFile) {
+            try {
+                return Optional.of(new VersionFileStamp(Files.readAttributes(versionFile, BasicFileAttributes.class)));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            VersionFileStamp that = (VersionFileStamp) o;
+            return lastModifiedMillis == that.lastModifiedMillis && size == that.size && Objects.equals(fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModifiedMillis, size, fileKey);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.ws;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import com.synopsys.integration.jenkins.extensions.JenkinsSelectBoxEnum;
+
+public class CircuitBreaker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(60);
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state;
+    private int consecutiveFailures;
+    private boolean trialCallInFlight;
+    private Instant openedAt;
+    private String lastFailureMessage;
+
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, Clock clock) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+        this.clock = clock;
+        this.state = State.CLOSED;
+    }
+
+    /**
+     * Returns true if a call may be attempted. Once the open period has elapsed, exactly one trial call is let through to probe whether Connect has recovered.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (State.OPEN.equals(state) && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            trialCallInFlight = false;
+        }
+
+        if (State.HALF_OPEN.equals(state)) {
+            if (trialCallInFlight) {
+                return false;
+            }
+            trialCallInFlight = true;
+            return true;
+        }
+
+        return State.CLOSED.equals(state);
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialCallInFlight = false;
+        openedAt = null;
+    }
+
+    public synchronized void recordFailure(Throwable throwable) {
+        consecutiveFailures++;
+        lastFailureMessage = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+
+        if (State.HALF_OPEN.equals(state) || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            trialCallInFlight = false;
+        }
+    }
+
+    // For a call that was interrupted or failed in a way that says nothing about the health of Connect: only the trial permission is handed back
+    public synchronized void recordInconclusive() {
+        trialCallInFlight = false;
+    }
+
+    public synchronized void reset() {
+        recordSuccess();
+        lastFailureMessage = null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized String getLastFailureMessage() {
+        return lastFailureMessage;
+    }
+
+    public synchronized Instant getOpenedAt() {
+        return openedAt;
+    }
+
+    public synchronized Instant getRetryAfter() {
+        if (openedAt == null) {
+            return null;
+        }
+        return openedAt.plus(openDuration);
+    }
+
+    public enum State implements JenkinsSelectBoxEnum {
+        CLOSED("Healthy"),
+        OPEN("Unavailable (failing fast)"),
+        HALF_OPEN("Recovering (probing)");
+
+        private final String displayName;
+
+        State(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.ws;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+public class CircuitBreakerRegistry {
+    private static final ConcurrentHashMap<String, CircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+
+    private CircuitBreakerRegistry() {
+        // This class should not be instantiated
+    }
+
+    public static CircuitBreaker getCircuitBreaker(String coverityConnectUrl) {
+        return CIRCUIT_BREAKERS.computeIfAbsent(StringUtils.defaultString(coverityConnectUrl), CircuitBreaker::new);
+    }
+
+    public static List<CircuitBreaker> getCircuitBreakers() {
+        List<CircuitBreaker> circuitBreakers = new ArrayList<>(CIRCUIT_BREAKERS.values());
+        circuitBreakers.sort(Comparator.comparing(CircuitBreaker::getName));
+        return circuitBreakers;
+    }
+
+    public static void resetAll() {
+        CIRCUIT_BREAKERS.values().forEach(CircuitBreaker::reset);
+    }
+
+}
@@ -0,0 +1,222 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.ws;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.http.HTTPException;
+import javax.xml.ws.soap.SOAPFaultException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+import com.synopsys.integration.log.IntLogger;
+
+/**
+ * Runs Coverity Connect web service calls through the circuit breaker of the Connect instance they target. Idempotent reads are retried with jittered exponential backoff, anything that
+ * creates or modifies data on Connect is attempted once.
+ */
+public class ResilientConnectExecutor {
+    /**
+     * The error codes of CovRemoteServiceException faults that are worth retrying, separated by commas. They are listed in the error code table of the Web Services
+     * API reference that ships with each Coverity Connect version, and the client library does not define them, so no fault is retried unless its code is set here.
+     */
+    public static final String TRANSIENT_FAULT_CODES_PROPERTY = ResilientConnectExecutor.class.getName() + ".transientFaultCodes";
+    // The JAX-WS reference implementation only reports the HTTP status in the message of its ClientTransportException
+    private static final Pattern HTTP_STATUS_CODE = Pattern.compile("HTTP status code (\\d{3})");
+    private final IntLogger logger;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    private final Set<Integer> transientFaultCodes;
+
+    public ResilientConnectExecutor(IntLogger logger, CircuitBreaker circuitBreaker, RetryPolicy retryPolicy) {
+        this(logger, circuitBreaker, retryPolicy, parseFaultCodes(System.getProperty(TRANSIENT_FAULT_CODES_PROPERTY)));
+    }
+
+    public ResilientConnectExecutor(IntLogger logger, CircuitBreaker circuitBreaker, RetryPolicy retryPolicy, Set<Integer> transientFaultCodes) {
+        this.logger = logger;
+        this.circuitBreaker = circuitBreaker;
+        this.retryPolicy = retryPolicy;
+        this.transientFaultCodes = transientFaultCodes;
+    }
+
+    public static ResilientConnectExecutor forBuild(IntLogger logger, String coverityConnectUrl) {
+        return new ResilientConnectExecutor(logger, CircuitBreakerRegistry.getCircuitBreaker(coverityConnectUrl), RetryPolicy.BUILD);
+    }
+
+    public static ResilientConnectExecutor forInteractiveUse(IntLogger logger, String coverityConnectUrl) {
+        return new ResilientConnectExecutor(logger, CircuitBreakerRegistry.getCircuitBreaker(coverityConnectUrl), RetryPolicy.INTERACTIVE);
+    }
+
+    public <T> T executeIdempotent(String description, ConnectOperation<T> connectOperation) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        int attempt = 1;
+        while (true) {
+            try {
+                return executeOnce(description, connectOperation);
+            } catch (IOException | IntegrationException | CovRemoteServiceException_Exception | RuntimeException e) {
+                if (!isRetryable(e) || attempt >= retryPolicy.getMaxAttempts()) {
+                    throw e;
+                }
+
+                long delayInMillis = retryPolicy.getDelayInMillis(attempt);
+                logger.warn(String.format("Attempt %d of %d to %s failed with a transient error (%s). Retrying in %d ms.", attempt, retryPolicy.getMaxAttempts(), description, e.getMessage(), delayInMillis));
+                logger.trace("Transient Coverity Connect failure: ", e);
+                Thread.sleep(delayInMillis);
+                attempt++;
+            }
+        }
+    }
+
+    public <T> T executeOnce(String description, ConnectOperation<T> connectOperation) throws IOException, IntegrationException, CovRemoteServiceException_Exception, InterruptedException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new CoverityJenkinsException(String.format("Could not %s: Coverity Connect instance %s is unavailable after %d consecutive failures and will not be contacted again until %s. Last failure: %s",
+                description, circuitBreaker.getName(), circuitBreaker.getConsecutiveFailures(), circuitBreaker.getRetryAfter(), circuitBreaker.getLastFailureMessage()));
+        }
+
+        try {
+            T result = connectOperation.execute();
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (IOException | IntegrationException | CovRemoteServiceException_Exception | RuntimeException e) {
+            if (isConnectivityFailure(e)) {
+                circuitBreaker.recordFailure(e);
+            } else if (isAnswerFromConnect(e)) {
+                // Connect answered, it just didn't like the request
+                circuitBreaker.recordSuccess();
+            } else {
+                // Failed before or after talking to Connect, such as a bug in the operation itself
+                circuitBreaker.recordInconclusive();
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            // Nothing was learned about the health of Connect, but the trial permission must be handed back
+            circuitBreaker.recordInconclusive();
+            throw e;
+        }
+    }
+
+    public boolean isRetryable(Throwable throwable) {
+        return isConnectivityFailure(throwable) || isTransientFault(throwable);
+    }
+
+    /**
+     * Whether Connect could not be reached or could not answer: socket and transport errors, and HTTP 5xx responses. Faults and other HTTP 4xx responses, such as
+     * rejected credentials, are answers from Connect and do not count.
+     */
+    public static boolean isConnectivityFailure(Throwable throwable) {
+        if (isAnswerFromConnect(throwable)) {
+            return false;
+        }
+
+        Throwable cause = throwable;
+        int depth = 0;
+        while (cause != null && depth < 10) {
+            if (cause instanceof SocketTimeoutException || cause instanceof ConnectException || cause instanceof UnknownHostException || cause instanceof SocketException) {
+                return true;
+            }
+            int statusCode = getHttpStatusCode(cause);
+            if (statusCode >= 500 && statusCode < 600) {
+                return true;
+            }
+            // Thrown by the JAX-WS runtime when the HTTP exchange itself failed
+            if (cause instanceof WebServiceException && "ClientTransportException".equals(cause.getClass().getSimpleName())) {
+                return true;
+            }
+            cause = cause.getCause();
+            depth++;
+        }
+        return false;
+    }
+
+    // Faults of every Connect web service, SOAP faults such as rejected credentials, and HTTP 4xx responses
+    private static boolean isAnswerFromConnect(Throwable throwable) {
+        Throwable cause = throwable;
+        int depth = 0;
+        while (cause != null && depth < 10) {
+            // Each Connect web service has its own generated fault class, all with this name
+            if (cause instanceof SOAPFaultException || "CovRemoteServiceException_Exception".equals(cause.getClass().getSimpleName())) {
+                return true;
+            }
+            int statusCode = getHttpStatusCode(cause);
+            if (statusCode >= 400 && statusCode < 500) {
+                return true;
+            }
+            cause = cause.getCause();
+            depth++;
+        }
+        return false;
+    }
+
+    private boolean isTransientFault(Throwable throwable) {
+        Throwable cause = throwable;
+        int depth = 0;
+        while (cause != null && depth < 10) {
+            if (cause instanceof CovRemoteServiceException_Exception) {
+                CovRemoteServiceException_Exception covRemoteServiceException = (CovRemoteServiceException_Exception) cause;
+                return covRemoteServiceException.getFaultInfo() != null && transientFaultCodes.contains(covRemoteServiceException.getFaultInfo().getErrorCode());
+            }
+            cause = cause.getCause();
+            depth++;
+        }
+        return false;
+    }
+
+    static Set<Integer> parseFaultCodes(String faultCodes) {
+        Set<Integer> parsedFaultCodes = new HashSet<>();
+        for (String faultCode : StringUtils.split(StringUtils.defaultString(faultCodes), ", ")) {
+            if (NumberUtils.isDigits(faultCode)) {
+                parsedFaultCodes.add(Integer.parseInt(faultCode));
+            }
+        }
+        return Collections.unmodifiableSet(parsedFaultCodes);
+    }
+
+    static int getHttpStatusCode(Throwable throwable) {
+        if (throwable instanceof HTTPException) {
+            return ((HTTPException) throwable).getStatusCode();
+        }
+
+        String message = throwable.getMessage();
+        if (message != null) {
+            Matcher statusCodeMatcher = HTTP_STATUS_CODE.matcher(message);
+            if (statusCodeMatcher.find()) {
+                return Integer.parseInt(statusCodeMatcher.group(1));
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,66 @@
+/**
+ * synopsys-coverity
+ *
+ * Copyright (c) 2020 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.jenkins.coverity.ws;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class RetryPolicy {
+    // Builds can afford to wait out a short Connect hiccup, form validation and AJAX fills cannot
+    public static final RetryPolicy BUILD = new RetryPolicy(4, Duration.ofSeconds(1), Duration.ofSeconds(20));
+    public static final RetryPolicy INTERACTIVE = new RetryPolicy(2, Duration.ofMillis(250), Duration.ofSeconds(1));
+    // Only used when Connect rejected a create, typically because a concurrent build created the same project or stream a moment earlier
+    public static final RetryPolicy PROVISIONING_POLL = new RetryPolicy(6, Duration.ofMillis(100), Duration.ofSeconds(3));
+    public static final RetryPolicy NO_RETRY = new RetryPolicy(1, Duration.ZERO, Duration.ZERO);
+
+    private final int maxAttempts;
+    private final Duration initialDelay;
+    private final Duration maxDelay;
+
+    public RetryPolicy(int maxAttempts, Duration initialDelay, Duration maxDelay) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Exponential backoff with "equal jitter": half of the backoff is fixed, the other half is random so that executors that failed together do not retry together.
+     */
+    public long getDelayInMillis(int failedAttempts) {
+        long initialDelayInMillis = initialDelay.toMillis();
+        long maxDelayInMillis = maxDelay.toMillis();
+        if (initialDelayInMillis <= 0 || maxDelayInMillis <= 0) {
+            return 0;
+        }
+
+        int exponent = Math.min(Math.max(failedAttempts - 1, 0), 30);
+        long backoff = Math.min(maxDelayInMillis, initialDelayInMillis << exponent);
+        long halfBackoff = backoff / 2;
+        return halfBackoff + ThreadLocalRandom.current().nextLong(backoff - halfBackoff + 1);
+    }
+
+}
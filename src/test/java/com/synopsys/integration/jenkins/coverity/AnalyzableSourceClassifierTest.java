@@ -0,0 +1,51 @@
+package com.synopsys.integration.jenkins.coverity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class AnalyzableSourceClassifierTest {
+    private static Stream<Arguments> testDefaultClassificationArguments() {
+        return Stream.of(
+            Arguments.of("src/main/java/com/example/App.java", "Java"),
+            Arguments.of("lib/core/parser.HPP", "C/C++"),
+            Arguments.of("web/app.component.ts", "JavaScript/TypeScript"),
+            Arguments.of("native/CMakeLists.txt", "Build configuration"),
+            Arguments.of("pom.xml", "Build configuration"),
+            Arguments.of("README.md", null),
+            Arguments.of("docs/images/architecture.png", null),
+            Arguments.of(".github/workflows/ci.yml", null),
+            Arguments.of("Jenkinsfile", null)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("testDefaultClassificationArguments")
+    public void testDefaultClassification(String path, String expectedLanguage) {
+        assertEquals(Optional.ofNullable(expectedLanguage), AnalyzableSourceClassifier.createDefaultClassifier().classify(path));
+    }
+
+    @Test
+    public void testExtensionsReplaceTheDefaults() {
+        AnalyzableSourceClassifier analyzableSourceClassifier = AnalyzableSourceClassifier.fromExtensions(" .c, H, sql");
+
+        assertEquals(Optional.of("C/C++"), analyzableSourceClassifier.classify("src/main.c"));
+        assertTrue(analyzableSourceClassifier.classify("include/main.h").isPresent());
+        assertTrue(analyzableSourceClassifier.classify("db/schema.sql").isPresent());
+        assertFalse(analyzableSourceClassifier.classify("src/App.java").isPresent());
+    }
+
+    @Test
+    public void testAnyFileIsAnalyzable() {
+        assertTrue(AnalyzableSourceClassifier.fromExtensions("*").classify("README.md").isPresent());
+    }
+
+}
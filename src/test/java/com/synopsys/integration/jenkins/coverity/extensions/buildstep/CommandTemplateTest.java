@@ -0,0 +1,106 @@
+package com.synopsys.integration.jenkins.coverity.extensions.buildstep;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tools.ant.types.Commandline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import hudson.Util;
+
+public class CommandTemplateTest {
+    private static final long RANDOM_SEED = 4470417L;
+    private static final int ITERATIONS = 2000;
+    // Weighted towards the characters that make variable references
+    private static final String SIMPLE_CHARACTERS = "$$${}}._-/=abAB9COV_DIRUNSETCHANGE_SETa.b";
+    private static final Map<String, String> VARIABLES = new HashMap<>();
+
+    static {
+        VARIABLES.put("COV_DIR", "/workspace/idir");
+        VARIABLES.put("COV_URL", "https://coverity.example.com");
+        VARIABLES.put("CHANGE_SET", "src/a.c src/b.c");
+        VARIABLES.put("WITH_DOLLAR", "cost$5");
+        VARIABLES.put("a.b", "dotted");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "cov-build --dir ${COV_DIR} make -j4",
+        "cov-run-desktop --dir $COV_DIR --url ${COV_URL} ${CHANGE_SET}",
+        "cov-analyze --dir \"${COV_DIR}/with space\" --strip-path=$COV_DIR/src",
+        "cov-commit-defects --stream $UNSET_STREAM --description ${UNSET}",
+        "echo $$COV_DIR $$$COV_DIR ${a.b} $a.b ${} ${bad-name} $ trailing$",
+        "echo $WITH_DOLLAR ${WITH_DOLLAR}x 'single quoted $COV_DIR'",
+        ""
+    })
+    public void testBindMatchesTokenizingAndReplacingEachArgument(String command) {
+        List<String> expected = Arrays.stream(Commandline.translateCommandline(command))
+                                    .map(argument -> Util.replaceMacro(argument, VARIABLES))
+                                    .collect(Collectors.toList());
+
+        assertEquals(expected, CommandTemplate.compile(command).bind(VARIABLES));
+    }
+
+    @Test
+    public void testArgumentsMatchTheJoinedStringPathWhenThatPathWorks() {
+        Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            List<String> pieces = randomArguments(random, SIMPLE_CHARACTERS);
+            CommandTemplate.Builder builder = CommandTemplate.builder();
+            pieces.forEach(builder::argument);
+
+            // What RepeatableCommand used to do: join the pieces into one string, then split and expand it again
+            List<String> expected = Arrays.stream(Commandline.translateCommandline(String.join(" ", pieces)))
+                                        .map(argument -> Util.replaceMacro(argument, VARIABLES))
+                                        .collect(Collectors.toList());
+
+            assertEquals(expected, builder.build().bind(VARIABLES), "Arguments: " + pieces);
+        }
+    }
+
+    @Test
+    public void testArgumentsWithSpacesAndQuotesStaySingleArguments() {
+        Random random = new Random(RANDOM_SEED);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String quote = random.nextBoolean() ? "\"" : "'";
+            List<String> arguments = randomArguments(random, SIMPLE_CHARACTERS + "  " + quote);
+            CommandTemplate.Builder builder = CommandTemplate.builder();
+            arguments.forEach(builder::argument);
+            CommandTemplate commandTemplate = builder.build();
+
+            List<String> expected = arguments.stream()
+                                        .map(argument -> Util.replaceMacro(argument, VARIABLES))
+                                        .collect(Collectors.toList());
+
+            assertEquals(expected, commandTemplate.bind(VARIABLES), "Arguments: " + arguments);
+            assertEquals(expected, CommandTemplate.compile(commandTemplate.toCommandLine()).bind(VARIABLES), "Command line: " + commandTemplate.toCommandLine());
+        }
+    }
+
+    private List<String> randomArguments(Random random, String characters) {
+        int argumentCount = 1 + random.nextInt(6);
+        List<String> arguments = new ArrayList<>(argumentCount);
+        while (arguments.size() < argumentCount) {
+            StringBuilder argument = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                argument.append(characters.charAt(random.nextInt(characters.length())));
+            }
+            if (StringUtils.isNotBlank(argument)) {
+                arguments.add(argument.toString());
+            }
+        }
+        return arguments;
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.synopsys.integration.jenkins.coverity.extensions.global;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.tools.ToolInstallation;
+
+public class CoverityToolInstallerTest {
+    @TempDir
+    public Path temporaryDirectory;
+
+    private Path archive;
+    private String archiveSha256;
+    private Node node;
+
+    @BeforeEach
+    public void createArchive() throws Exception {
+        Path toolkit = temporaryDirectory.resolve("toolkit");
+        Files.createDirectories(toolkit.resolve("cov-analysis-linux64-2020.06").resolve("bin"));
+        Files.write(toolkit.resolve("cov-analysis-linux64-2020.06").resolve("VERSION"), Collections.singletonList("externalVersion=2020.06"), StandardCharsets.UTF_8);
+
+        archive = temporaryDirectory.resolve("cov-analysis.tar.gz");
+        try (OutputStream archiveStream = FilePath.TarCompression.GZIP.compress(Files.newOutputStream(archive))) {
+            new FilePath(toolkit.toFile()).tar(archiveStream, "**/*");
+        }
+        archiveSha256 = Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(archive)));
+
+        node = Mockito.mock(Node.class);
+        Mockito.when(node.getRootPath()).thenReturn(new FilePath(Files.createDirectories(temporaryDirectory.resolve("agent")).toFile()));
+    }
+
+    @Test
+    public void testInstallationIsUnpackedOnceAndReused() throws Exception {
+        CoverityToolInstaller coverityToolInstaller = new CoverityToolInstaller(null, archive.toUri().toString());
+        coverityToolInstaller.setSha256(archiveSha256.toUpperCase());
+
+        FilePath toolHome = coverityToolInstaller.performInstallation(Mockito.mock(ToolInstallation.class), node, TaskListener.NULL);
+
+        assertEquals("cov-analysis-linux64-2020.06", toolHome.getName());
+        assertEquals(archiveSha256, toolHome.getParent().getName());
+        assertTrue(toolHome.child("bin").isDirectory());
+
+        Files.delete(archive);
+        assertEquals(toolHome.getRemote(), coverityToolInstaller.performInstallation(Mockito.mock(ToolInstallation.class), node, TaskListener.NULL).getRemote());
+    }
+
+    @Test
+    public void testChecksumMismatchIsNotInstalled() {
+        CoverityToolInstaller coverityToolInstaller = new CoverityToolInstaller(null, archive.toUri().toString());
+        coverityToolInstaller.setSha256(new String(new char[64]).replace('\0', '0'));
+
+        assertThrows(AbortException.class, () -> coverityToolInstaller.performInstallation(Mockito.mock(ToolInstallation.class), node, TaskListener.NULL));
+        // Neither a partial nor a finished installation may be left behind
+        assertEquals(0, temporaryDirectory.resolve("agent").resolve("tools").resolve(CoverityToolInstaller.CACHE_DIRECTORY_NAME).toFile().list().length);
+    }
+
+}
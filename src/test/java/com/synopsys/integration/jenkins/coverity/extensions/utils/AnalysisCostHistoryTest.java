@@ -0,0 +1,86 @@
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AnalysisCostHistoryTest {
+    @Test
+    public void testNothingIsEstimatedWithoutHistory(@TempDir Path jobDirectory) throws Exception {
+        AnalysisCostHistory analysisCostHistory = new AnalysisCostHistory(jobDirectory.resolve(AnalysisCostHistory.FILE_NAME).toFile());
+
+        assertFalse(analysisCostHistory.estimateFullAnalysisMillis().isPresent());
+        assertFalse(analysisCostHistory.estimateIncrementalAnalysisMillis(Collections.singletonList("src/main.c")).isPresent());
+    }
+
+    @Test
+    public void testEstimatesFollowFilesAndExtensions(@TempDir Path jobDirectory) throws Exception {
+        File historyFile = jobDirectory.resolve(AnalysisCostHistory.FILE_NAME).toFile();
+        AnalysisCostHistory analysisCostHistory = new AnalysisCostHistory(historyFile);
+        analysisCostHistory.recordFullAnalysis(600_000);
+        analysisCostHistory.recordIncrementalAnalysis(Arrays.asList("include/core.h", "src/core.c"), 200_000);
+        analysisCostHistory.recordIncrementalAnalysis(Arrays.asList("test/a_test.py", "test/b_test.py", "test/c_test.py", "test/d_test.py"), 4_000);
+
+        // Read back from disk, as the next build would after a restart
+        AnalysisCostHistory reloadedHistory = new AnalysisCostHistory(historyFile);
+        assertEquals(600_000, reloadedHistory.estimateFullAnalysisMillis().getAsLong());
+        assertEquals(100_000, reloadedHistory.estimateIncrementalAnalysisMillis(Collections.singletonList("include/core.h")).getAsLong());
+        // An unseen test file is estimated from other .py files, not from the expensive header
+        assertEquals(1_000, reloadedHistory.estimateIncrementalAnalysisMillis(Collections.singletonList("test/e_test.py")).getAsLong());
+        assertEquals(0, reloadedHistory.estimateIncrementalAnalysisMillis(Collections.emptyList()).getAsLong());
+    }
+
+    @Test
+    public void testOverheadIsFittedApartFromFileCost(@TempDir Path jobDirectory) throws Exception {
+        File historyFile = jobDirectory.resolve(AnalysisCostHistory.FILE_NAME).toFile();
+        AnalysisCostHistory analysisCostHistory = new AnalysisCostHistory(historyFile);
+        // 10 seconds of overhead and 1 second per file
+        analysisCostHistory.recordIncrementalAnalysis(Collections.singletonList("src/a.c"), 11_000);
+        analysisCostHistory.recordIncrementalAnalysis(createFiles(10), 20_000);
+        analysisCostHistory.recordIncrementalAnalysis(createFiles(4), 14_000);
+
+        AnalysisCostHistory reloadedHistory = new AnalysisCostHistory(historyFile);
+        assertEquals(30_000, reloadedHistory.estimateIncrementalAnalysisMillis(createFiles(20)).getAsLong());
+        assertEquals(11_000, reloadedHistory.estimateIncrementalAnalysisMillis(Collections.singletonList("src/new.go")).getAsLong());
+    }
+
+    @Test
+    public void testForgottenJobsGetNewHistories(@TempDir Path jobsDirectory) throws Exception {
+        File jobDirectory = jobsDirectory.resolve("job").toFile();
+        AnalysisCostHistory analysisCostHistory = AnalysisCostHistory.forJob(jobDirectory);
+        assertSame(analysisCostHistory, AnalysisCostHistory.forJob(jobDirectory));
+
+        AnalysisCostHistory.forgetJobs(jobsDirectory.toFile());
+
+        assertNotSame(analysisCostHistory, AnalysisCostHistory.forJob(jobDirectory));
+    }
+
+    @Test
+    public void testNewMeasurementsAreSmoothed(@TempDir Path jobDirectory) throws Exception {
+        AnalysisCostHistory analysisCostHistory = new AnalysisCostHistory(jobDirectory.resolve(AnalysisCostHistory.FILE_NAME).toFile());
+        analysisCostHistory.recordFullAnalysis(100_000);
+        analysisCostHistory.recordFullAnalysis(200_000);
+
+        assertEquals(130_000, analysisCostHistory.estimateFullAnalysisMillis().getAsLong());
+    }
+
+    private List<String> createFiles(int count) {
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add("generated/file" + i + ".go");
+        }
+        return files;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.coverity.config.CoverityServerConfig;
+import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.jenkins.coverity.extensions.global.CoverityConnectInstance;
+import com.synopsys.integration.log.IntLogger;
+
+public class CoverityConnectDataCacheTest {
+    @Test
+    public void testConcurrentReadersShareOneFetch() throws Exception {
+        IntLogger mockedLogger = Mockito.mock(IntLogger.class);
+        CoverityConnectInstance mockedInstance = Mockito.mock(CoverityConnectInstance.class);
+        CoverityServerConfig mockedServerConfig = Mockito.mock(CoverityServerConfig.class);
+        Mockito.when(mockedInstance.getUrl()).thenReturn("https://single-flight.example.com");
+        Mockito.when(mockedInstance.getCoverityServerConfig(Mockito.any())).thenReturn(mockedServerConfig);
+        Mockito.when(mockedServerConfig.createWebServiceFactory(Mockito.any())).thenReturn(Mockito.mock(WebServiceFactory.class));
+
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        CountingCache countingCache = new CountingCache(mockedLogger, fetchStarted, releaseFetch);
+
+        int readerCount = 16;
+        ExecutorService executorService = Executors.newFixedThreadPool(readerCount);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            Callable<String> reader = () -> countingCache.getData(mockedInstance);
+            results.add(executorService.submit(reader));
+            fetchStarted.await(10, TimeUnit.SECONDS);
+            for (int i = 1; i < readerCount; i++) {
+                results.add(executorService.submit(reader));
+            }
+            releaseFetch.countDown();
+
+            for (Future<String> result : results) {
+                assertSame(CountingCache.FRESH_DATA, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, countingCache.fetchCount.get());
+    }
+
+    @Test
+    public void testStaleReaderDoesNotWaitForRefresh() throws Exception {
+        CoverityConnectInstance mockedInstance = Mockito.mock(CoverityConnectInstance.class);
+        CoverityServerConfig mockedServerConfig = Mockito.mock(CoverityServerConfig.class);
+        Mockito.when(mockedInstance.getUrl()).thenReturn("https://background-refresh.example.com");
+        Mockito.when(mockedInstance.getCoverityServerConfig(Mockito.any())).thenReturn(mockedServerConfig);
+        Mockito.when(mockedServerConfig.createWebServiceFactory(Mockito.any())).thenReturn(Mockito.mock(WebServiceFactory.class));
+
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        GatedCache gatedCache = new GatedCache(Mockito.mock(IntLogger.class), refreshStarted, releaseRefresh);
+
+        // Every snapshot is stale as soon as it is taken
+        CacheSettings.setCurrent(new CacheSettings(0, CacheSettings.DEFAULT_MAX_ENTRIES_PER_INSTANCE, CacheSettings.DEFAULT_IDLE_EVICTION_IN_MINUTES, CacheSettings.DEFAULT_MEMORY_CAP_IN_MEGABYTES));
+        try {
+            assertEquals("v1", gatedCache.getData(mockedInstance));
+            Thread.sleep(5);
+            assertEquals("v1", gatedCache.getData(mockedInstance));
+            assertTrue(refreshStarted.await(10, TimeUnit.SECONDS));
+        } finally {
+            releaseRefresh.countDown();
+            CacheSettings.setCurrent(null);
+        }
+    }
+
+    private static class GatedCache extends CountingCache {
+        private final CountDownLatch refreshStarted;
+        private final CountDownLatch releaseRefresh;
+
+        public GatedCache(IntLogger logger, CountDownLatch refreshStarted, CountDownLatch releaseRefresh) {
+            super(logger, new CountDownLatch(0), new CountDownLatch(0));
+            this.refreshStarted = refreshStarted;
+            this.releaseRefresh = releaseRefresh;
+        }
+
+        @Override
+        protected String getFreshData(WebServiceFactory webServiceFactory) {
+            int fetchNumber = fetchCount.incrementAndGet();
+            if (fetchNumber > 1) {
+                refreshStarted.countDown();
+                try {
+                    releaseRefresh.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "v" + fetchNumber;
+        }
+    }
+
+    private static class CountingCache extends CoverityConnectDataCache<String> {
+        private static final String FRESH_DATA = "fresh";
+        final AtomicInteger fetchCount = new AtomicInteger();
+        private final CountDownLatch fetchStarted;
+        private final CountDownLatch releaseFetch;
+
+        public CountingCache(IntLogger logger, CountDownLatch fetchStarted, CountDownLatch releaseFetch) {
+            super(logger);
+            this.fetchStarted = fetchStarted;
+            this.releaseFetch = releaseFetch;
+        }
+
+        @Override
+        protected String getFreshData(WebServiceFactory webServiceFactory) {
+            fetchCount.incrementAndGet();
+            fetchStarted.countDown();
+            try {
+                releaseFetch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return FRESH_DATA;
+        }
+
+        @Override
+        protected String getEmptyData() {
+            return "";
+        }
+
+        @Override
+        protected int countEntries(String data) {
+            return data.isEmpty() ? 0 : 1;
+        }
+
+        @Override
+        protected long estimateSizeInBytes(String data) {
+            return data.length() * 2L;
+        }
+
+        @Override
+        protected String limitEntries(String data, int maxEntries) {
+            return maxEntries > 0 ? data : getEmptyData();
+        }
+    }
+
+}
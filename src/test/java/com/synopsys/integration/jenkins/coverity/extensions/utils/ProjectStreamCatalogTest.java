@@ -0,0 +1,54 @@
+package com.synopsys.integration.jenkins.coverity.extensions.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectIdDataObj;
+
+public class ProjectStreamCatalogTest {
+    @Test
+    public void testFromProjects() {
+        ProjectStreamCatalog catalog = ProjectStreamCatalog.fromProjects(Arrays.asList(createProject("alpha"), new ProjectDataObj(), createProject("gamma")));
+
+        assertEquals(Arrays.asList("alpha", "gamma"), catalog.getProjectNames());
+        assertTrue(catalog.containsProject("gamma"));
+        assertFalse(catalog.containsProject("missing"));
+        assertSame("alpha", catalog.getProjectNames().get(0));
+    }
+
+    @Test
+    public void testWithProject() {
+        ProjectStreamCatalog catalog = ProjectStreamCatalog.fromProjects(Arrays.asList(createProject("alpha"), createProject("beta")));
+
+        ProjectStreamCatalog updatedCatalog = catalog.withProject("delta");
+
+        assertEquals(Arrays.asList("alpha", "beta", "delta"), updatedCatalog.getProjectNames());
+        assertEquals(Arrays.asList("alpha", "beta"), catalog.getProjectNames());
+        assertSame(updatedCatalog, updatedCatalog.withProject("beta"));
+    }
+
+    @Test
+    public void testLimitedTo() {
+        ProjectStreamCatalog catalog = ProjectStreamCatalog.fromProjects(Arrays.asList(createProject("alpha"), createProject("beta")));
+
+        assertEquals(Collections.singletonList("alpha"), catalog.limitedTo(1).getProjectNames());
+        assertSame(catalog, catalog.limitedTo(5));
+    }
+
+    private ProjectDataObj createProject(String projectName) {
+        ProjectIdDataObj projectId = new ProjectIdDataObj();
+        projectId.setName(new String(projectName));
+        ProjectDataObj project = new ProjectDataObj();
+        project.setId(projectId);
+        return project;
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+public class AnalysisAdmissionControllerTest {
+    private static final long GIBIBYTE = 1024L * 1024 * 1024;
+
+    @Test
+    public void testConcurrentAnalysesAreLimited() throws Exception {
+        AnalysisAdmissionController analysisAdmissionController = new AnalysisAdmissionController();
+        AnalysisAdmissionController.Limits limits = new AnalysisAdmissionController.Limits(1, 0);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            AnalysisAdmissionController.Admission firstAdmission = analysisAdmissionController.admit(limits, GIBIBYTE);
+            Future<AnalysisAdmissionController.Admission> secondAdmission = executorService.submit(() -> analysisAdmissionController.admit(limits, GIBIBYTE));
+
+            assertThrows(TimeoutException.class, () -> secondAdmission.get(200, TimeUnit.MILLISECONDS));
+            firstAdmission.close();
+            secondAdmission.get(10, TimeUnit.SECONDS).close();
+            assertEquals(0, analysisAdmissionController.getRunningAnalyses());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMemoryBudgetIsShared() throws Exception {
+        AnalysisAdmissionController analysisAdmissionController = new AnalysisAdmissionController();
+        AnalysisAdmissionController.Limits limits = new AnalysisAdmissionController.Limits(0, 6 * GIBIBYTE);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            AnalysisAdmissionController.Admission firstAdmission = analysisAdmissionController.admit(limits, 4 * GIBIBYTE);
+            AnalysisAdmissionController.Admission secondAdmission = analysisAdmissionController.admit(limits, 2 * GIBIBYTE);
+            Future<AnalysisAdmissionController.Admission> thirdAdmission = executorService.submit(() -> analysisAdmissionController.admit(limits, 2 * GIBIBYTE));
+
+            assertThrows(TimeoutException.class, () -> thirdAdmission.get(200, TimeUnit.MILLISECONDS));
+            secondAdmission.close();
+            thirdAdmission.get(10, TimeUnit.SECONDS).close();
+            firstAdmission.close();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOversizedAnalysisRunsAlone() throws Exception {
+        AnalysisAdmissionController analysisAdmissionController = new AnalysisAdmissionController();
+        AnalysisAdmissionController.Limits limits = new AnalysisAdmissionController.Limits(0, 4 * GIBIBYTE);
+
+        try (AnalysisAdmissionController.Admission admission = analysisAdmissionController.admit(limits, 16 * GIBIBYTE)) {
+            assertEquals(1, analysisAdmissionController.getRunningAnalyses());
+            assertTrue(admission.getQueuedMillis() >= 0);
+        }
+        assertEquals(0, analysisAdmissionController.getRunningAnalyses());
+    }
+
+    @Test
+    public void testInterruptedRequestLeavesTheQueue() throws Exception {
+        AnalysisAdmissionController analysisAdmissionController = new AnalysisAdmissionController();
+        AnalysisAdmissionController.Limits limits = new AnalysisAdmissionController.Limits(1, 0);
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            AnalysisAdmissionController.Admission firstAdmission = analysisAdmissionController.admit(limits, GIBIBYTE);
+            Future<AnalysisAdmissionController.Admission> abortedAdmission = executorService.submit(() -> analysisAdmissionController.admit(limits, GIBIBYTE));
+            assertThrows(TimeoutException.class, () -> abortedAdmission.get(200, TimeUnit.MILLISECONDS));
+            abortedAdmission.cancel(true);
+
+            Future<AnalysisAdmissionController.Admission> nextAdmission = executorService.submit(() -> analysisAdmissionController.admit(limits, GIBIBYTE));
+            firstAdmission.close();
+            nextAdmission.get(10, TimeUnit.SECONDS).close();
+            assertEquals(0, analysisAdmissionController.getRunningAnalyses());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.AdvancedCoverityRunConfiguration;
+import com.synopsys.integration.jenkins.coverity.extensions.buildstep.RepeatableCommand;
+import com.synopsys.integration.log.SilentIntLogger;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+public class ComputeAnalysisKeyTest {
+    private static final String INPUTS = "tree=4b825dc642cb6eb9a060e54bf8d69288fbee4904 toolkit=abc123";
+    private static final String URL = "https://coverity.example.com";
+    private static final String STREAM = "stream";
+    private static final List<List<String>> FULL_ANALYSIS = Arrays.asList(Arrays.asList("cov-build", "--dir", "${WORKSPACE}/idir", "make"), Arrays.asList("cov-analyze", "--dir", "${WORKSPACE}/idir"),
+        Arrays.asList("cov-commit-defects", "--dir", "${WORKSPACE}/idir", "--url", URL, "--stream", STREAM));
+    private static final List<List<String>> INCREMENTAL_ANALYSIS = Arrays.asList(Arrays.asList("cov-build", "--dir", "${WORKSPACE}/idir", "make"),
+        Arrays.asList("cov-run-desktop", "--dir", "${WORKSPACE}/idir", "${CHANGE_SET}"), Arrays.asList("cov-commit-defects", "--dir", "${WORKSPACE}/idir", "--url", URL, "--stream", STREAM));
+
+    @Test
+    public void testSameInputsSameKey() {
+        String key = ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, FULL_ANALYSIS, "a.c");
+
+        assertEquals(key, ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, FULL_ANALYSIS, "b.c"));
+    }
+
+    @Test
+    public void testDifferentInputsDifferentKey() {
+        String key = ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, FULL_ANALYSIS, null);
+
+        assertNotEquals(key, ComputeAnalysisKey.computeAnalysisKey("tree=4b825dc642cb6eb9a060e54bf8d69288fbee4904 toolkit=def456", URL, STREAM, FULL_ANALYSIS, null));
+        assertNotEquals(key, ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, "other-stream", FULL_ANALYSIS, null));
+        assertNotEquals(key, ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, INCREMENTAL_ANALYSIS, null));
+        // The same words, split into arguments differently
+        assertNotEquals(key, ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, Arrays.asList(Arrays.asList("cov-build", "--dir", "${WORKSPACE}/idir make"), FULL_ANALYSIS.get(1),
+            FULL_ANALYSIS.get(2)), null));
+    }
+
+    @Test
+    public void testIncrementalAnalysisDependsOnChangeSet() {
+        assertNotEquals(ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, INCREMENTAL_ANALYSIS, "a.c"), ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, INCREMENTAL_ANALYSIS, "a.c b.c"));
+    }
+
+    @Test
+    public void testBuildParametersUsedByCommandsChangeTheKey() throws Exception {
+        String key = computeAnalysisKey(createEnvironmentVariables("/jenkins/workspace/job", "/tmp/auth-key-1.txt", "4", "release"));
+
+        // Another workspace, key file and worker count do not change what the analysis does
+        assertEquals(key, computeAnalysisKey(createEnvironmentVariables("/jenkins/workspace/job@2", "/tmp/auth-key-2.txt", "8", "release")));
+        assertNotEquals(key, computeAnalysisKey(createEnvironmentVariables("/jenkins/workspace/job", "/tmp/auth-key-1.txt", "4", "debug")));
+    }
+
+    private String computeAnalysisKey(IntEnvironmentVariables intEnvironmentVariables) throws Exception {
+        AdvancedCoverityRunConfiguration coverityRunConfiguration = new AdvancedCoverityRunConfiguration(new RepeatableCommand[] {
+            new RepeatableCommand("cov-build --dir $WORKSPACE/idir make BUILD_TYPE=$BUILD_TYPE"),
+            new RepeatableCommand("cov-analyze --dir $WORKSPACE/idir -j ${COV_ANALYSIS_WORKERS}"),
+            new RepeatableCommand("cov-commit-defects --dir $WORKSPACE/idir --url ${COV_URL} --stream ${COV_STREAM} --auth-key-file ${COV_AUTH_KEY_PATH}")
+        });
+        GetCoverityCommands getCoverityCommands = new GetCoverityCommands(new SilentIntLogger(), intEnvironmentVariables, coverityRunConfiguration);
+        return ComputeAnalysisKey.computeAnalysisKey(INPUTS, URL, STREAM, getCoverityCommands.getCommandConfiguration(), null);
+    }
+
+    private IntEnvironmentVariables createEnvironmentVariables(String workspace, String authKeyPath, String analysisWorkers, String buildType) {
+        IntEnvironmentVariables intEnvironmentVariables = new IntEnvironmentVariables(false);
+        intEnvironmentVariables.put("WORKSPACE", workspace);
+        intEnvironmentVariables.put("BUILD_TYPE", buildType);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.CHANGE_SET_SIZE.toString(), "0");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.TEMPORARY_AUTH_KEY_PATH.toString(), authKeyPath);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS.toString(), analysisWorkers);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString(), URL);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString(), STREAM);
+        return intEnvironmentVariables;
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class CoverityToolOutputParserTest {
+    private static final String COMMIT_OUTPUT = "Connecting to server coverity.example.com:8080\n"
+                                                    + "Defect occurrences found       : 42 Total\n"
+                                                    + "Elapsed time: 00:00:07\n"
+                                                    + "New snapshot ID 10017 added.\n";
+
+    @Test
+    public void testCommitOutputIsParsedAndPassedThrough() throws IOException {
+        ByteArrayOutputStream logStream = new ByteArrayOutputStream();
+        CoverityToolOutputParser outputParser = new CoverityToolOutputParser(logStream);
+        byte[] output = COMMIT_OUTPUT.getBytes(StandardCharsets.UTF_8);
+        // Tool output arrives in arbitrary chunks, so lines must be reassembled across writes
+        for (int offset = 0; offset < output.length; offset += 5) {
+            outputParser.write(output, offset, Math.min(5, output.length - offset));
+        }
+
+        CoverityToolResult result = outputParser.toResult("cov-commit-defects", 0);
+
+        assertEquals(COMMIT_OUTPUT, new String(logStream.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(Long.valueOf(10017), result.getSnapshotId().orElse(null));
+        assertEquals(Integer.valueOf(42), result.getDefectOccurrences().orElse(null));
+        assertEquals("00:00:07", result.getTimings().get("Elapsed time"));
+    }
+
+    @Test
+    public void testOutputWithoutCommitHasNoSnapshotId() throws IOException {
+        CoverityToolOutputParser outputParser = new CoverityToolOutputParser(new ByteArrayOutputStream());
+        outputParser.write("Analysis summary report:\nNo new snapshot was created".getBytes(StandardCharsets.UTF_8));
+
+        CoverityToolResult result = outputParser.toResult("cov-analyze", 0);
+
+        assertFalse(result.getSnapshotId().isPresent());
+        assertFalse(result.getDefectOccurrences().isPresent());
+    }
+
+}
@@ -1,11 +1,15 @@
 package com.synopsys.integration.jenkins.coverity.stepworkflow;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.Clock;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -16,6 +20,11 @@ import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceEx
 import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
 import com.synopsys.integration.coverity.api.ws.configuration.StreamDataObj;
 import com.synopsys.integration.coverity.ws.ConfigurationServiceWrapper;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamCache;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.jenkins.coverity.ws.CircuitBreaker;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
+import com.synopsys.integration.jenkins.coverity.ws.RetryPolicy;
 import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
 import com.synopsys.integration.stepworkflow.SubStepResponse;
 
@@ -26,6 +35,7 @@ public class CreateMissingProjectsAndStreamsTest {
     private static final String EXISTING_STREAM = "existingStream";
     private static final String NEW_STREAM = "newStream";
     private static final String FAILED_STREAM = "cannotCreateThisStream";
+    private static final String COVERITY_URL = "https://coverity.example.com";
     private static ConfigurationServiceWrapper mockConfigurationServiceWrapper;
 
     @BeforeAll
@@ -37,24 +47,18 @@ public class CreateMissingProjectsAndStreamsTest {
             .thenReturn(Optional.of(mockedProject));
         Mockito.when(mockConfigurationServiceWrapper.getProjectByExactName(NEW_PROJECT))
             .thenReturn(Optional.empty());
-        Mockito.when(mockConfigurationServiceWrapper.getAndWaitForProjectWithExactName(NEW_PROJECT))
-            .thenReturn(Optional.of(mockedProject));
         Mockito.when(mockConfigurationServiceWrapper.getProjectByExactName(FAILED_PROJECT))
             .thenReturn(Optional.empty());
-        Mockito.when(mockConfigurationServiceWrapper.getAndWaitForProjectWithExactName(FAILED_PROJECT))
-            .thenReturn(Optional.empty());
+        Mockito.doThrow(CovRemoteServiceException_Exception.class).when(mockConfigurationServiceWrapper).createSimpleProject(FAILED_PROJECT);
 
         StreamDataObj mockedStream = Mockito.mock(StreamDataObj.class);
         Mockito.when(mockConfigurationServiceWrapper.getStreamByExactName(EXISTING_STREAM))
             .thenReturn(Optional.of(mockedStream));
         Mockito.when(mockConfigurationServiceWrapper.getStreamByExactName(NEW_STREAM))
             .thenReturn(Optional.empty());
-        Mockito.when(mockConfigurationServiceWrapper.getAndWaitForStreamWithExactName(NEW_STREAM))
-            .thenReturn(Optional.of(mockedStream));
         Mockito.when(mockConfigurationServiceWrapper.getStreamByExactName(FAILED_STREAM))
             .thenReturn(Optional.empty());
-        Mockito.when(mockConfigurationServiceWrapper.getAndWaitForStreamWithExactName(FAILED_STREAM))
-            .thenReturn(Optional.empty());
+        Mockito.doThrow(CovRemoteServiceException_Exception.class).when(mockConfigurationServiceWrapper).createSimpleStreamInProject(Mockito.any(), Mockito.eq(FAILED_STREAM));
     }
 
     private static Stream<Arguments> getTestProjectAndStreamNames() {
@@ -76,11 +80,13 @@ public class CreateMissingProjectsAndStreamsTest {
     public void testCreateMissingProjectsAndStreams(String projectName, String streamName) {
         JenkinsIntLogger mockedLogger = Mockito.mock(JenkinsIntLogger.class);
 
-        CreateMissingProjectsAndStreams createMissingProjectsAndStreams = new CreateMissingProjectsAndStreams(mockedLogger, mockConfigurationServiceWrapper, projectName, streamName);
+        CreateMissingProjectsAndStreams createMissingProjectsAndStreams = createStep(mockedLogger, mockConfigurationServiceWrapper, new ProvisioningCache(Clock.systemUTC()), projectName, streamName);
 
         SubStepResponse<Object> response = createMissingProjectsAndStreams.run();
 
-        assertTrue(response.isSuccess());
+        assertEquals(!projectName.equals(FAILED_PROJECT) && !streamName.equals(FAILED_STREAM), response.isSuccess());
+        Mockito.verify(mockConfigurationServiceWrapper, Mockito.never()).getAndWaitForProjectWithExactName(Mockito.anyString());
+        Mockito.verify(mockConfigurationServiceWrapper, Mockito.never()).getAndWaitForStreamWithExactName(Mockito.anyString());
 
         // The plugin only logs based on whether or not it was able to create given projects or streams, so we have to verify the mocked logger's behavior. --rotte JUN 2020
         if (projectName.equals(EXISTING_PROJECT)) {
@@ -107,4 +113,55 @@ public class CreateMissingProjectsAndStreamsTest {
             Mockito.verify(mockedLogger).error(AdditionalMatchers.and(Mockito.contains("Could not create"), Mockito.contains(streamName)));
         }
     }
+
+    @Test
+    public void testConcurrentlyCreatedProjectIsAccepted() throws Exception {
+        JenkinsIntLogger mockedLogger = Mockito.mock(JenkinsIntLogger.class);
+        ConfigurationServiceWrapper mockedWrapper = Mockito.mock(ConfigurationServiceWrapper.class);
+        Mockito.when(mockedWrapper.getProjectByExactName(NEW_PROJECT)).thenReturn(Optional.empty(), Optional.of(Mockito.mock(ProjectDataObj.class)));
+        Mockito.doThrow(CovRemoteServiceException_Exception.class).when(mockedWrapper).createSimpleProject(NEW_PROJECT);
+        Mockito.when(mockedWrapper.getStreamByExactName(EXISTING_STREAM)).thenReturn(Optional.of(Mockito.mock(StreamDataObj.class)));
+
+        assertTrue(createStep(mockedLogger, mockedWrapper, new ProvisioningCache(Clock.systemUTC()), NEW_PROJECT, EXISTING_STREAM).run().isSuccess());
+        Mockito.verify(mockedLogger, Mockito.never()).error(Mockito.anyString());
+    }
+
+    @Test
+    public void testRecentFailureFailsWithoutConnect() throws Exception {
+        JenkinsIntLogger mockedLogger = Mockito.mock(JenkinsIntLogger.class);
+        ConfigurationServiceWrapper mockedWrapper = Mockito.mock(ConfigurationServiceWrapper.class);
+        Mockito.when(mockedWrapper.getProjectByExactName(FAILED_PROJECT)).thenReturn(Optional.empty());
+        Mockito.doThrow(new CovRemoteServiceException_Exception("Invalid project name", null)).when(mockedWrapper).createSimpleProject(FAILED_PROJECT);
+        ProvisioningCache provisioningCache = new ProvisioningCache(Clock.systemUTC());
+
+        assertFalse(createStep(mockedLogger, mockedWrapper, provisioningCache, FAILED_PROJECT, NEW_STREAM).run().isSuccess());
+        SubStepResponse<Object> response = createStep(mockedLogger, mockedWrapper, provisioningCache, FAILED_PROJECT, NEW_STREAM).run();
+
+        assertFalse(response.isSuccess());
+        assertTrue(response.getException().getMessage().contains("Invalid project name"));
+        Mockito.verify(mockedWrapper, Mockito.times(1)).createSimpleProject(FAILED_PROJECT);
+    }
+
+    @Test
+    public void testVerifiedProjectAndStreamSkipConnect() throws CovRemoteServiceException_Exception {
+        JenkinsIntLogger mockedLogger = Mockito.mock(JenkinsIntLogger.class);
+        ConfigurationServiceWrapper mockedWrapper = Mockito.mock(ConfigurationServiceWrapper.class);
+        Mockito.when(mockedWrapper.getProjectByExactName(EXISTING_PROJECT)).thenReturn(Optional.of(Mockito.mock(ProjectDataObj.class)));
+        Mockito.when(mockedWrapper.getStreamByExactName(EXISTING_STREAM)).thenReturn(Optional.of(Mockito.mock(StreamDataObj.class)));
+        ProvisioningCache provisioningCache = new ProvisioningCache(Clock.systemUTC());
+
+        assertTrue(createStep(mockedLogger, mockedWrapper, provisioningCache, EXISTING_PROJECT, EXISTING_STREAM).run().isSuccess());
+        assertTrue(createStep(mockedLogger, mockedWrapper, provisioningCache, EXISTING_PROJECT, EXISTING_STREAM).run().isSuccess());
+        Mockito.verify(mockedWrapper, Mockito.times(1)).getProjectByExactName(EXISTING_PROJECT);
+        Mockito.verify(mockedWrapper, Mockito.times(1)).getStreamByExactName(EXISTING_STREAM);
+
+        provisioningCache.invalidate(COVERITY_URL, EXISTING_PROJECT, EXISTING_STREAM);
+        assertTrue(createStep(mockedLogger, mockedWrapper, provisioningCache, EXISTING_PROJECT, EXISTING_STREAM).run().isSuccess());
+        Mockito.verify(mockedWrapper, Mockito.times(2)).getProjectByExactName(EXISTING_PROJECT);
+    }
+
+    private CreateMissingProjectsAndStreams createStep(JenkinsIntLogger logger, ConfigurationServiceWrapper configurationServiceWrapper, ProvisioningCache provisioningCache, String projectName, String streamName) {
+        return new CreateMissingProjectsAndStreams(logger, () -> configurationServiceWrapper, new ResilientConnectExecutor(logger, new CircuitBreaker("test"), RetryPolicy.NO_RETRY), RetryPolicy.NO_RETRY,
+            new ProjectStreamCache(logger), provisioningCache, COVERITY_URL, projectName, streamName);
+    }
 }
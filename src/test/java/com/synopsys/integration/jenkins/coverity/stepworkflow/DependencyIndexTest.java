@@ -0,0 +1,59 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DependencyIndexTest {
+    @Test
+    public void testChangedHeaderAddsIncludingTranslationUnits(@TempDir Path workspace) throws IOException {
+        write(workspace, "include/core/types.h", "#pragma once");
+        write(workspace, "include/core/api.h", "#include \"core/types.h\"");
+        write(workspace, "src/api.c", "#include <core/api.h>\nint api(void) { return 0; }");
+        write(workspace, "src/main.cpp", "  #  include \"../include/core/types.h\"");
+        write(workspace, "src/unrelated.c", "#include <stdio.h>");
+        write(workspace, "idir/emit/copy.c", "#include \"core/types.h\"");
+
+        DependencyIndex dependencyIndex = new DependencyIndex();
+        dependencyIndex.refresh(workspace, Collections.singleton(workspace.resolve("idir")));
+
+        assertEquals(5, dependencyIndex.size());
+        assertEquals(Arrays.asList("include/core/types.h", "src/main.cpp", "src/api.c"), dependencyIndex.expand(Collections.singletonList("include/core/types.h")));
+        assertEquals(Collections.singletonList("src/unrelated.c"), dependencyIndex.expand(Collections.singletonList("src/unrelated.c")));
+    }
+
+    @Test
+    public void testRefreshPicksUpChangedIncludes(@TempDir Path workspace) throws IOException {
+        write(workspace, "config.h", "#define FEATURE 1");
+        Path source = write(workspace, "feature.c", "int feature;");
+
+        DependencyIndex dependencyIndex = new DependencyIndex();
+        dependencyIndex.refresh(workspace, Collections.emptySet());
+        assertEquals(Collections.singletonList("config.h"), dependencyIndex.expand(Collections.singletonList("config.h")));
+
+        Files.write(source, "#include \"config.h\"\nint feature;".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 2000));
+        dependencyIndex.refresh(workspace, Collections.emptySet());
+        assertEquals(Arrays.asList("config.h", "feature.c"), dependencyIndex.expand(Collections.singletonList("config.h")));
+
+        Files.delete(source);
+        dependencyIndex.refresh(workspace, Collections.emptySet());
+        assertEquals(Collections.singletonList("config.h"), dependencyIndex.expand(Collections.singletonList("config.h")));
+    }
+
+    private Path write(Path workspace, String relativePath, String contents) throws IOException {
+        Path file = workspace.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
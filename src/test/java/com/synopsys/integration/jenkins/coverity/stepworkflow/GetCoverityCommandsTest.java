@@ -118,6 +118,45 @@ public class GetCoverityCommandsTest {
         assertEquals(expectedCovCommitDefects, commandList.get(2));
     }
 
+    @Test
+    public void testGetSimpleModeCommandsWithAdditionalCommitStreams() throws CoverityJenkinsException {
+        SimpleCoverityRunConfiguration coverityRunConfiguration = new SimpleCoverityRunConfiguration(COV_ANALYZE, SOURCE_ARGUMENT, null);
+        coverityRunConfiguration.setCoverityCaptureType(COV_BUILD);
+        coverityRunConfiguration.setAdditionalCommitStreams("release-1, release-1\nrelease 2\n");
+
+        GetCoverityCommands getCoverityCommands = new GetCoverityCommands(new SilentIntLogger(), new IntEnvironmentVariables(false), coverityRunConfiguration);
+        RepeatableCommand[] actualCommands = getCoverityCommands.getSimpleModeCommands(coverityRunConfiguration, 0, EMPTY);
+
+        assertEquals(5, actualCommands.length);
+        assertEquals(RepeatableCommand.COV_COMMIT_DEFECTS(EMPTY, EMPTY).getCommand(), actualCommands[2].getCommand());
+        assertEquals("cov-commit-defects --dir ${COV_DIR} --url ${COV_URL} --stream release-1", actualCommands[3].getCommand());
+        assertEquals("cov-commit-defects --dir ${COV_DIR} --url ${COV_URL} --stream \"release 2\"", actualCommands[4].getCommand());
+    }
+
+    @Test
+    public void testGetCoverityCommandsWithTunedWorkers() {
+        IntEnvironmentVariables intEnvironmentVariables = new IntEnvironmentVariables(false);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.CHANGE_SET_SIZE.toString(), "0");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_INTERMEDIATE_DIRECTORY.toString(), "/some/path");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_ANALYSIS_WORKERS.toString(), "6");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_TRANSLATION_WORKERS.toString(), "3");
+
+        CommandArguments commandArguments = new CommandArguments("--return-emit-failures", "--jobs 2", EMPTY, EMPTY, EMPTY);
+        SimpleCoverityRunConfiguration coverityRunConfiguration = new SimpleCoverityRunConfiguration(COV_ANALYZE, "make", commandArguments);
+        coverityRunConfiguration.setCoverityCaptureType(COV_BUILD);
+
+        GetCoverityCommands getCoverityCommands = new GetCoverityCommands(new SilentIntLogger(), intEnvironmentVariables, coverityRunConfiguration);
+        List<List<String>> commandList = getCoverityCommands.run().getData();
+
+        assertEquals(Arrays.asList("cov-build", "--dir", "/some/path", "--parallel-translate=3", "--return-emit-failures", "make"), commandList.get(0));
+        // The user's own worker count is left alone
+        assertEquals(Arrays.asList("cov-analyze", "--dir", "/some/path", "--jobs", "2"), commandList.get(1));
+
+        coverityRunConfiguration = new SimpleCoverityRunConfiguration(COV_ANALYZE, "make", null);
+        getCoverityCommands = new GetCoverityCommands(new SilentIntLogger(), intEnvironmentVariables, coverityRunConfiguration);
+        assertEquals(Arrays.asList("cov-analyze", "--dir", "/some/path", "-j", "6"), getCoverityCommands.run().getData().get(1));
+    }
+
     @Test
     public void testGetCoverityCommandsFromAdvancedConfig() {
         IntLogger logger = new SilentIntLogger();
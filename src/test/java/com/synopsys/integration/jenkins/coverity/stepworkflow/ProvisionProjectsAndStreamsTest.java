@@ -0,0 +1,110 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.MalformedURLException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.coverity.api.ws.configuration.ConfigurationService;
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.ProjectIdDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.StreamDataObj;
+import com.synopsys.integration.coverity.api.ws.configuration.StreamIdDataObj;
+import com.synopsys.integration.coverity.ws.ConfigurationServiceWrapper;
+import com.synopsys.integration.coverity.ws.WebServiceFactory;
+import com.synopsys.integration.jenkins.coverity.extensions.pipeline.ProjectStreamPair;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProjectStreamCache;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.jenkins.coverity.ws.CircuitBreaker;
+import com.synopsys.integration.jenkins.coverity.ws.ResilientConnectExecutor;
+import com.synopsys.integration.jenkins.coverity.ws.RetryPolicy;
+import com.synopsys.integration.jenkins.extensions.JenkinsIntLogger;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+
+public class ProvisionProjectsAndStreamsTest {
+    private static final String COVERITY_URL = "https://coverity.example.com";
+    private JenkinsIntLogger mockedLogger;
+    private WebServiceFactory mockedWebServiceFactory;
+    private ConfigurationService mockedConfigurationService;
+    private ConfigurationServiceWrapper mockedConfigurationServiceWrapper;
+    private ProvisioningCache provisioningCache;
+
+    @BeforeEach
+    public void setUpMocks() throws MalformedURLException, CovRemoteServiceException_Exception {
+        mockedLogger = Mockito.mock(JenkinsIntLogger.class);
+        mockedWebServiceFactory = Mockito.mock(WebServiceFactory.class);
+        mockedConfigurationService = Mockito.mock(ConfigurationService.class);
+        mockedConfigurationServiceWrapper = Mockito.mock(ConfigurationServiceWrapper.class);
+        provisioningCache = new ProvisioningCache(Clock.systemUTC());
+
+        Mockito.when(mockedWebServiceFactory.createConfigurationService()).thenReturn(mockedConfigurationService);
+        Mockito.when(mockedWebServiceFactory.createConfigurationServiceWrapper()).thenReturn(mockedConfigurationServiceWrapper);
+        Mockito.when(mockedConfigurationService.getProjects(Mockito.any())).thenReturn(Collections.singletonList(createProject("existingProject", "existingStream")));
+    }
+
+    @Test
+    public void testOnlyMissingProjectsAndStreamsAreCreated() throws CovRemoteServiceException_Exception {
+        List<ProjectStreamPair> pairs = Arrays.asList(
+            new ProjectStreamPair("existingProject", "existingStream"),
+            new ProjectStreamPair("existingProject", "newStream"),
+            new ProjectStreamPair("newProject", "otherNewStream"),
+            new ProjectStreamPair("newProject", "yetAnotherNewStream")
+        );
+
+        SubStepResponse<Integer> response = createStep(pairs).run();
+
+        assertTrue(response.isSuccess());
+        assertEquals(3, response.getData());
+        Mockito.verify(mockedConfigurationService, Mockito.times(1)).getProjects(Mockito.any());
+        Mockito.verify(mockedConfigurationServiceWrapper, Mockito.times(1)).createSimpleProject("newProject");
+        Mockito.verify(mockedConfigurationServiceWrapper, Mockito.never()).createSimpleProject("existingProject");
+        Mockito.verify(mockedConfigurationServiceWrapper, Mockito.never()).createSimpleStreamInProject(Mockito.any(), Mockito.eq("existingStream"));
+        Mockito.verify(mockedConfigurationServiceWrapper).createSimpleStreamInProject(Mockito.any(), Mockito.eq("newStream"));
+        Mockito.verify(mockedConfigurationServiceWrapper).createSimpleStreamInProject(Mockito.any(), Mockito.eq("otherNewStream"));
+        Mockito.verify(mockedConfigurationServiceWrapper).createSimpleStreamInProject(Mockito.any(), Mockito.eq("yetAnotherNewStream"));
+        pairs.forEach(pair -> assertTrue(provisioningCache.isVerified(COVERITY_URL, pair.getProjectName(), pair.getStreamName())));
+
+        assertTrue(createStep(pairs).run().isSuccess());
+        Mockito.verify(mockedConfigurationService, Mockito.times(1)).getProjects(Mockito.any());
+    }
+
+    @Test
+    public void testStreamsOfUncreatableProjectsFail() throws CovRemoteServiceException_Exception {
+        Mockito.doThrow(CovRemoteServiceException_Exception.class).when(mockedConfigurationServiceWrapper).createSimpleProject("forbiddenProject");
+
+        SubStepResponse<Integer> response = createStep(Collections.singletonList(new ProjectStreamPair("forbiddenProject", "newStream"))).run();
+
+        assertFalse(response.isSuccess());
+        Mockito.verify(mockedConfigurationServiceWrapper, Mockito.never()).createSimpleStreamInProject(Mockito.any(), Mockito.anyString());
+        assertFalse(provisioningCache.isVerified(COVERITY_URL, "forbiddenProject", "newStream"));
+    }
+
+    private ProvisionProjectsAndStreams createStep(List<ProjectStreamPair> pairs) {
+        return new ProvisionProjectsAndStreams(mockedLogger, () -> mockedWebServiceFactory, new ResilientConnectExecutor(mockedLogger, new CircuitBreaker("test"), RetryPolicy.NO_RETRY),
+            new ProjectStreamCache(mockedLogger), provisioningCache, COVERITY_URL, pairs, 2);
+    }
+
+    private ProjectDataObj createProject(String projectName, String streamName) {
+        ProjectIdDataObj projectId = new ProjectIdDataObj();
+        projectId.setName(projectName);
+        StreamIdDataObj streamId = new StreamIdDataObj();
+        streamId.setName(streamName);
+        StreamDataObj stream = new StreamDataObj();
+        stream.setId(streamId);
+        ProjectDataObj project = new ProjectDataObj();
+        project.setId(projectId);
+        project.getStreams().add(stream);
+        return project;
+    }
+
+}
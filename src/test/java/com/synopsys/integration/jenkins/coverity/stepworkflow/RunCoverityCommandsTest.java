@@ -0,0 +1,119 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.JenkinsCoverityEnvironmentVariable;
+import com.synopsys.integration.jenkins.coverity.extensions.OnCommandFailure;
+import com.synopsys.integration.jenkins.coverity.extensions.utils.ProvisioningCache;
+import com.synopsys.integration.stepworkflow.SubStepResponse;
+import com.synopsys.integration.util.IntEnvironmentVariables;
+
+import hudson.remoting.VirtualChannel;
+
+public class RunCoverityCommandsTest {
+    private static final List<String> COV_ANALYZE = Arrays.asList("cov-analyze", "--dir", "idir");
+
+    @Test
+    public void testCommitsToSeveralStreamsRunInParallel() throws Exception {
+        AtomicInteger runningCommits = new AtomicInteger();
+        AtomicInteger maxRunningCommits = new AtomicInteger();
+        VirtualChannel virtualChannel = mockChannel(runningCommits, maxRunningCommits, Collections.emptyList());
+        IntEnvironmentVariables intEnvironmentVariables = createEnvironmentVariables();
+        Map<String, Long> committedSnapshots = new ConcurrentHashMap<>();
+
+        RunCoverityCommands runCoverityCommands = new RunCoverityCommands(Mockito.mock(CoverityJenkinsIntLogger.class), intEnvironmentVariables, "/workspace", OnCommandFailure.SKIP_REMAINING_COMMANDS, virtualChannel,
+            new ProvisioningCache(Clock.systemUTC()), (streamName, result) -> committedSnapshots.put(streamName, result.getSnapshotId().orElse(-1L)), 2, null, null, null);
+        SubStepResponse<Object> response = runCoverityCommands.run(Arrays.asList(COV_ANALYZE, commit("main"), commit("release-1"), commit("release-2")));
+
+        assertTrue(response.isSuccess());
+        assertEquals(2, maxRunningCommits.get());
+        assertEquals(3, committedSnapshots.size());
+        assertEquals(String.valueOf(committedSnapshots.get("main")), intEnvironmentVariables.getValue(JenkinsCoverityEnvironmentVariable.COVERITY_SNAPSHOT_ID.toString()));
+    }
+
+    @Test
+    public void testOneFailedCommitFailsTheStepAfterTheOthersFinish() throws Exception {
+        AtomicInteger runningCommits = new AtomicInteger();
+        VirtualChannel virtualChannel = mockChannel(runningCommits, new AtomicInteger(), Collections.singletonList("release-1"));
+        List<String> committedStreams = Collections.synchronizedList(new ArrayList<>());
+
+        RunCoverityCommands runCoverityCommands = new RunCoverityCommands(Mockito.mock(CoverityJenkinsIntLogger.class), createEnvironmentVariables(), "/workspace", OnCommandFailure.SKIP_REMAINING_COMMANDS,
+            virtualChannel, new ProvisioningCache(Clock.systemUTC()), (streamName, result) -> committedStreams.add(streamName), 4, null, null, null);
+        SubStepResponse<Object> response = runCoverityCommands.run(Arrays.asList(commit("main"), commit("release-1"), commit("release-2")));
+
+        assertFalse(response.isSuccess());
+        assertEquals("Coverity failed with exit code: 2", response.getException().getMessage());
+        assertEquals(Arrays.asList("main", "release-2"), committedStreams);
+    }
+
+    @Test
+    public void testParallelCommitOutputIsPrintedInCommandOrder() throws Exception {
+        VirtualChannel virtualChannel = mockChannel(new AtomicInteger(), new AtomicInteger(), Collections.emptyList());
+        CoverityJenkinsIntLogger logger = Mockito.mock(CoverityJenkinsIntLogger.class);
+
+        RunCoverityCommands runCoverityCommands = new RunCoverityCommands(logger, createEnvironmentVariables(), "/workspace", OnCommandFailure.SKIP_REMAINING_COMMANDS, virtualChannel,
+            new ProvisioningCache(Clock.systemUTC()), (streamName, result) -> {}, 3, null, null, null);
+        SubStepResponse<Object> response = runCoverityCommands.run(Arrays.asList(commit("main"), commit("release-1"), commit("release-2")));
+
+        assertTrue(response.isSuccess());
+        InOrder inOrder = Mockito.inOrder(logger);
+        inOrder.verify(logger).alwaysLog("Committed to main");
+        inOrder.verify(logger).alwaysLog("Committed to release-1");
+        inOrder.verify(logger).alwaysLog("Committed to release-2");
+    }
+
+    private VirtualChannel mockChannel(AtomicInteger runningCommits, AtomicInteger maxRunningCommits, List<String> failingStreams) throws Exception {
+        AtomicInteger nextSnapshotId = new AtomicInteger(1000);
+        VirtualChannel virtualChannel = Mockito.mock(VirtualChannel.class);
+        Mockito.when(virtualChannel.call(Mockito.any(CoverityRemoteToolRunner.class))).thenAnswer(invocation -> {
+            List<String> arguments = invocation.<CoverityRemoteToolRunner>getArgument(0).getArguments();
+            if (!"cov-commit-defects".equals(arguments.get(0))) {
+                return new CoverityToolResult(arguments.get(0), 0, null, 12, Collections.emptyMap());
+            }
+            maxRunningCommits.accumulateAndGet(runningCommits.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+            } finally {
+                runningCommits.decrementAndGet();
+            }
+            String streamName = arguments.get(arguments.indexOf("--stream") + 1);
+            if (failingStreams.contains(streamName)) {
+                return new CoverityToolResult("cov-commit-defects", 2, null, null, Collections.emptyMap());
+            }
+            // Later streams finish first, so that their output would come first if it were not held back
+            Thread.sleep("main".equals(streamName) ? 200 : 0);
+            return new CoverityToolResult("cov-commit-defects", 0, (long) nextSnapshotId.incrementAndGet(), null, Collections.emptyMap(), "Committed to " + streamName + System.lineSeparator());
+        });
+        return virtualChannel;
+    }
+
+    private IntEnvironmentVariables createEnvironmentVariables() {
+        IntEnvironmentVariables intEnvironmentVariables = new IntEnvironmentVariables(false);
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_URL.toString(), "https://coverity.example.com");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_PROJECT.toString(), "project");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_STREAM.toString(), "main");
+        intEnvironmentVariables.put(JenkinsCoverityEnvironmentVariable.COVERITY_TOOL_HOME.toString(), "/opt/coverity");
+        return intEnvironmentVariables;
+    }
+
+    private List<String> commit(String streamName) {
+        return Arrays.asList("cov-commit-defects", "--dir", "idir", "--url", "https://coverity.example.com", "--stream", streamName);
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+
+public class TuneCoverityParallelismTest {
+    private static final long GIBIBYTE = 1024L * 1024 * 1024;
+
+    @Test
+    public void testWorkersLimitedByProcessors() {
+        AgentResources agentResources = new AgentResources(8, 0, 64 * GIBIBYTE, 0);
+
+        assertEquals(8, TuneCoverityParallelism.computeWorkers(agentResources, 1, TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES));
+        assertEquals(4, TuneCoverityParallelism.computeWorkers(agentResources, 2, TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES));
+    }
+
+    @Test
+    public void testWorkersLimitedByContainerLimits() {
+        // A 2.5 CPU quota and a 7 GiB memory limit on a large host
+        AgentResources agentResources = new AgentResources(32, 2.5, 128 * GIBIBYTE, 7 * GIBIBYTE);
+
+        assertEquals(2, agentResources.getEffectiveProcessors());
+        assertEquals(2, TuneCoverityParallelism.computeWorkers(agentResources, 1, TuneCoverityParallelism.TRANSLATION_WORKER_MEMORY_BYTES));
+
+        agentResources = new AgentResources(32, 0, 128 * GIBIBYTE, 7 * GIBIBYTE);
+        assertEquals(3, TuneCoverityParallelism.computeWorkers(agentResources, 1, TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES));
+    }
+
+    @Test
+    public void testAtLeastOneWorker() {
+        AgentResources agentResources = new AgentResources(2, 0, GIBIBYTE, 0);
+
+        assertEquals(1, TuneCoverityParallelism.computeWorkers(agentResources, 4, TuneCoverityParallelism.ANALYSIS_WORKER_MEMORY_BYTES));
+    }
+
+    @Test
+    public void testProbeReadsCgroupV2Limits(@TempDir Path cgroupRoot) throws IOException {
+        Files.write(cgroupRoot.resolve("cpu.max"), "150000 100000\n".getBytes());
+        Files.write(cgroupRoot.resolve("memory.max"), String.valueOf(4 * GIBIBYTE).getBytes());
+
+        AgentResources agentResources = new ProbeAgentResources(Mockito.mock(CoverityJenkinsIntLogger.class), cgroupRoot.toString()).call();
+
+        assertEquals(1.5, agentResources.getCpuQuota());
+        assertEquals(4 * GIBIBYTE, agentResources.getMemoryLimitBytes());
+    }
+
+    @Test
+    public void testProbeTreatsCgroupV1MaximumAsUnlimited(@TempDir Path cgroupRoot) throws IOException {
+        Files.createDirectories(cgroupRoot.resolve("cpu"));
+        Files.createDirectories(cgroupRoot.resolve("memory"));
+        Files.write(cgroupRoot.resolve("cpu/cpu.cfs_quota_us"), "-1\n".getBytes());
+        Files.write(cgroupRoot.resolve("cpu/cpu.cfs_period_us"), "100000\n".getBytes());
+        Files.write(cgroupRoot.resolve("memory/memory.limit_in_bytes"), "9223372036854771712\n".getBytes());
+
+        AgentResources agentResources = new ProbeAgentResources(Mockito.mock(CoverityJenkinsIntLogger.class), cgroupRoot.toString()).call();
+
+        assertEquals(0, agentResources.getCpuQuota());
+        assertEquals(0, agentResources.getMemoryLimitBytes());
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.synopsys.integration.jenkins.coverity.stepworkflow;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.jenkins.coverity.CoverityJenkinsIntLogger;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+
+public class ValidateCoverityInstallationTest {
+    @TempDir
+    public Path coverityToolHome;
+
+    @Test
+    public void testUnchangedInstallationIsNotValidatedAgain() throws Exception {
+        writeVersionFile("externalVersion=2020.06");
+        Files.write(coverityToolHome.resolve("VERSION.xml"), Collections.singletonList("<version/>"), StandardCharsets.UTF_8);
+        Path binDirectory = Files.createDirectory(coverityToolHome.resolve("bin"));
+        ValidateCoverityInstallation validateCoverityInstallation = new ValidateCoverityInstallation(Mockito.mock(CoverityJenkinsIntLogger.class), true, coverityToolHome.toString());
+
+        assertTrue(validateCoverityInstallation.call());
+
+        // Only VERSION is checked while it is unchanged
+        Files.delete(binDirectory);
+        assertTrue(validateCoverityInstallation.call());
+
+        writeVersionFile("externalVersion=2020.06.1");
+        assertThrows(CoverityJenkinsException.class, validateCoverityInstallation::call);
+    }
+
+    private void writeVersionFile(String versionLine) throws IOException {
+        Files.write(coverityToolHome.resolve("VERSION"), Collections.singletonList(versionLine), StandardCharsets.UTF_8);
+    }
+
+}
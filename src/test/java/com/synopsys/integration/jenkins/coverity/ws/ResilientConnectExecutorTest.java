@@ -0,0 +1,192 @@
+package com.synopsys.integration.jenkins.coverity.ws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ConnectException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.soap.SOAPFault;
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.SOAPFaultException;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException;
+import com.synopsys.integration.coverity.api.ws.configuration.CovRemoteServiceException_Exception;
+import com.synopsys.integration.jenkins.coverity.exception.CoverityJenkinsException;
+import com.synopsys.integration.log.IntLogger;
+
+public class ResilientConnectExecutorTest {
+    private static final RetryPolicy IMMEDIATE_RETRY = new RetryPolicy(3, Duration.ZERO, Duration.ZERO);
+
+    @Test
+    public void testIdempotentCallIsRetriedOnConnectivityFailure() throws Exception {
+        IntLogger mockedLogger = Mockito.mock(IntLogger.class);
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test");
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(mockedLogger, circuitBreaker, IMMEDIATE_RETRY);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = resilientConnectExecutor.executeIdempotent("read", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConnectException("Connection refused");
+            }
+            return "success";
+        });
+
+        assertEquals("success", result);
+        assertEquals(3, attempts.get());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Mockito.verify(mockedLogger, Mockito.times(2)).warn(Mockito.anyString());
+    }
+
+    @Test
+    public void testNonIdempotentCallIsNotRetried() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test");
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(Mockito.mock(IntLogger.class), circuitBreaker, IMMEDIATE_RETRY);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConnectException.class, () -> resilientConnectExecutor.executeOnce("create", () -> {
+            attempts.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(1, circuitBreaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void testOpenCircuitFailsFastUntilTrialCallSucceeds() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 2, Duration.ofSeconds(30), clock);
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(Mockito.mock(IntLogger.class), circuitBreaker, RetryPolicy.NO_RETRY);
+        AtomicInteger attempts = new AtomicInteger();
+        ConnectOperation<String> failingOperation = () -> {
+            attempts.incrementAndGet();
+            throw new ConnectException("Connection refused");
+        };
+
+        assertThrows(ConnectException.class, () -> resilientConnectExecutor.executeIdempotent("read", failingOperation));
+        assertThrows(ConnectException.class, () -> resilientConnectExecutor.executeIdempotent("read", failingOperation));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(CoverityJenkinsException.class, () -> resilientConnectExecutor.executeIdempotent("read", failingOperation));
+        assertEquals(2, attempts.get());
+
+        clock.advance(Duration.ofSeconds(31));
+        assertEquals("recovered", resilientConnectExecutor.executeIdempotent("read", () -> "recovered"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testApplicationErrorsDoNotOpenCircuit() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, Duration.ofSeconds(30), Clock.systemUTC());
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(Mockito.mock(IntLogger.class), circuitBreaker, RetryPolicy.NO_RETRY);
+
+        assertThrows(IllegalArgumentException.class, () -> resilientConnectExecutor.executeOnce("create", () -> {
+            throw new IllegalArgumentException("Invalid name");
+        }));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testOnlyAnswersFromConnectCloseRecoveringCircuit() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, Duration.ofSeconds(30), clock);
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(Mockito.mock(IntLogger.class), circuitBreaker, RetryPolicy.NO_RETRY);
+
+        assertThrows(ConnectException.class, () -> resilientConnectExecutor.executeOnce("read", () -> {
+            throw new ConnectException("Connection refused");
+        }));
+        clock.advance(Duration.ofSeconds(31));
+
+        assertThrows(NullPointerException.class, () -> resilientConnectExecutor.executeOnce("read", () -> {
+            throw new NullPointerException();
+        }));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        assertThrows(CovRemoteServiceException_Exception.class, () -> resilientConnectExecutor.executeOnce("read", () -> {
+            throw createFault(1300);
+        }));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testOnlyTransientFaultsAreRetried() {
+        ResilientConnectExecutor resilientConnectExecutor = new ResilientConnectExecutor(Mockito.mock(IntLogger.class), new CircuitBreaker("test"), IMMEDIATE_RETRY, Collections.singleton(1000));
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(CovRemoteServiceException_Exception.class, () -> resilientConnectExecutor.executeIdempotent("read", () -> {
+            attempts.incrementAndGet();
+            throw createFault(1300);
+        }));
+        assertEquals(1, attempts.get());
+
+        attempts.set(0);
+        assertThrows(CovRemoteServiceException_Exception.class, () -> resilientConnectExecutor.executeIdempotent("read", () -> {
+            attempts.incrementAndGet();
+            throw createFault(1000);
+        }));
+        assertEquals(IMMEDIATE_RETRY.getMaxAttempts(), attempts.get());
+    }
+
+    @Test
+    public void testOnlyTransportFailuresAreConnectivityFailures() {
+        assertFalse(ResilientConnectExecutor.isConnectivityFailure(new WebServiceException("The server sent HTTP status code 401: Unauthorized")));
+        assertFalse(ResilientConnectExecutor.isConnectivityFailure(new WebServiceException("The server sent HTTP status code 404: Not Found")));
+        assertFalse(ResilientConnectExecutor.isConnectivityFailure(new SOAPFaultException(Mockito.mock(SOAPFault.class))));
+        assertFalse(ResilientConnectExecutor.isConnectivityFailure(new WebServiceException("Unable to unmarshal the response")));
+        assertTrue(ResilientConnectExecutor.isConnectivityFailure(new WebServiceException(new ConnectException("Connection refused"))));
+        assertTrue(ResilientConnectExecutor.isConnectivityFailure(new WebServiceException("The server sent HTTP status code 503: Service Unavailable")));
+    }
+
+    @Test
+    public void testFaultCodesAreParsedFromProperty() {
+        assertEquals(new HashSet<>(Arrays.asList(1000, 1001)), ResilientConnectExecutor.parseFaultCodes("1000, 1001,x"));
+        assertTrue(ResilientConnectExecutor.parseFaultCodes(null).isEmpty());
+    }
+
+    private static CovRemoteServiceException_Exception createFault(int errorCode) {
+        CovRemoteServiceException faultInfo = new CovRemoteServiceException();
+        faultInfo.setErrorCode(errorCode);
+        return new CovRemoteServiceException_Exception("fault " + errorCode, faultInfo);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        public MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        public void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+}